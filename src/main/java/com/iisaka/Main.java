@@ -1,5 +1,6 @@
 package com.iisaka;
 
+import com.iisaka.cli.TranslateCommand;
 import com.iisaka.cypher2sql.query.sql.BasicDialect;
 import com.iisaka.cypher2sql.query.cypher.Query;
 import com.iisaka.cypher2sql.schema.Mapping;
@@ -9,6 +10,9 @@ import com.iisaka.cypher2sql.schema.SchemaDefinition;
 
 public class Main {
     public static void main(final String[] args) {
+        if (args.length > 0) {
+            System.exit(new TranslateCommand().run(args, System.out, System.err));
+        }
         final SchemaDefinition schema = new SchemaDefinition()
                 .addNode(new NodeMapping("Person", "people", "id"))
                 .addNode(new NodeMapping("Movie", "movies", "id"))
@@ -0,0 +1,106 @@
+package com.iisaka.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads newline-delimited records from a file through a sliding memory-mapped window, so arbitrarily
+// large files are scanned at page-cache speed while only one line at a time becomes a String.
+public final class MappedLineReader implements Closeable {
+    private static final int DEFAULT_WINDOW_BYTES = 64 * 1024 * 1024;
+    private static final int MAX_WINDOW_BYTES = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final long size;
+    private int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long lineNumber;
+
+    private MappedLineReader(final FileChannel channel, final int windowBytes) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+    }
+
+    public static MappedLineReader open(final Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW_BYTES);
+    }
+
+    public static MappedLineReader open(final Path path, final int windowBytes) throws IOException {
+        if (windowBytes <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowBytes);
+        }
+        return new MappedLineReader(FileChannel.open(path, StandardOpenOption.READ), windowBytes);
+    }
+
+    // Next line without its terminator (\n or \r\n), or null at end of file.
+    public String nextLine() throws IOException {
+        while (position < size) {
+            if (window == null || position >= windowStart + window.limit()) {
+                map(position);
+            }
+            final int offset = (int) (position - windowStart);
+            final int limit = window.limit();
+            for (int i = offset; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    position = windowStart + i + 1;
+                    return line(offset, i);
+                }
+            }
+            if (windowStart + limit >= size) {
+                position = size;
+                return line(offset, limit);
+            }
+            // The line straddles the window end: remap starting at the line, growing the window if the
+            // line alone is longer than it.
+            if (windowStart == position) {
+                if (windowBytes == MAX_WINDOW_BYTES) {
+                    throw new IOException("Line " + (lineNumber + 1) + " exceeds " + MAX_WINDOW_BYTES + " bytes.");
+                }
+                windowBytes = (int) Math.min((long) windowBytes * 2, MAX_WINDOW_BYTES);
+            }
+            map(position);
+        }
+        return null;
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public long bytesRead() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void map(final long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+    }
+
+    private String line(final int from, final int to) {
+        int end = to;
+        if (end > from && window.get(end - 1) == '\r') {
+            end--;
+        }
+        final byte[] bytes = new byte[end - from];
+        window.get(from, bytes);
+        lineNumber++;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,257 @@
+package com.iisaka.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iisaka.cypher2sql.query.sql.BasicDialect;
+import com.iisaka.cypher2sql.query.sql.Dialect;
+import com.iisaka.cypher2sql.schema.Mapping;
+import com.iisaka.cypher2sql.schema.SchemaDefinition;
+import com.iisaka.cypher2sql.schema.SchemaDefinitionJson;
+import com.iisaka.cypher2sql.schema.SchemaDefinitionYaml;
+import com.iisaka.cypher2sql.schema.Translation;
+import com.iisaka.cypher2sql.schema.TranslationResult;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams a newline-delimited (or NDJSON) Cypher file through the translator in bounded batches and
+// writes one NDJSON record per query: {"line", "sql", "parameters", "literals"} or {"line", "error"}.
+public final class TranslateCommand {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+
+    enum InputFormat {
+        LINES,
+        NDJSON
+    }
+
+    record Options(Path schema, Path input, Path output, InputFormat format, int batchSize) {
+    }
+
+    public int run(final String[] args, final PrintStream stdout, final PrintStream stderr) {
+        final Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException ex) {
+            stderr.println(ex.getMessage());
+            stderr.println(usage());
+            return 2;
+        }
+        try {
+            final Stats stats = translate(options, stdout);
+            stderr.println(stats.report());
+            return stats.errors == 0 ? 0 : 1;
+        } catch (IOException | RuntimeException ex) {
+            stderr.println("Translation failed: " + ex.getMessage());
+            return 2;
+        }
+    }
+
+    static Options parse(final String[] args) {
+        Path schema = null;
+        Path input = null;
+        Path output = null;
+        InputFormat format = null;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + arg);
+            }
+            final String value = args[++i];
+            switch (arg) {
+                case "--schema" -> schema = Path.of(value);
+                case "--input" -> input = Path.of(value);
+                case "--output" -> output = Path.of(value);
+                case "--format" -> format = InputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--batch-size" -> batchSize = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (schema == null || input == null) {
+            throw new IllegalArgumentException("Both --schema and --input are required.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("--batch-size must be positive: " + batchSize);
+        }
+        if (format == null) {
+            final String name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+            format = name.endsWith(".ndjson") || name.endsWith(".jsonl") ? InputFormat.NDJSON : InputFormat.LINES;
+        }
+        return new Options(schema, input, output, format, batchSize);
+    }
+
+    static String usage() {
+        return "Usage: --schema <schema.yaml|schema.json> --input <queries> "
+                + "[--format lines|ndjson] [--output <file>] [--batch-size <n>]";
+    }
+
+    private Stats translate(final Options options, final PrintStream stdout) throws IOException {
+        final Mapping mapping = new Mapping(loadSchema(options.schema()));
+        final Dialect dialect = new BasicDialect();
+        final Stats stats = new Stats(System.nanoTime());
+        // The input is opened first, so a missing input leaves an existing output file untouched.
+        try (MappedLineReader reader = MappedLineReader.open(options.input());
+             OutputStream sink = options.output() == null
+                     ? new NonClosingOutputStream(stdout)
+                     : Files.newOutputStream(options.output());
+             Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), 1 << 16);
+             JsonGenerator json = new JsonFactory().createGenerator(writer)) {
+            json.setRootValueSeparator(null);
+            final List<String> batch = new ArrayList<>(options.batchSize());
+            final List<Long> lines = new ArrayList<>(options.batchSize());
+            final List<String> inputErrors = new ArrayList<>(options.batchSize());
+            String line;
+            while ((line = reader.nextLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines.add(reader.lineNumber());
+                try {
+                    batch.add(options.format() == InputFormat.NDJSON ? queryFromJson(line) : line);
+                    inputErrors.add(null);
+                } catch (IOException | IllegalArgumentException ex) {
+                    batch.add(null);
+                    inputErrors.add("Invalid NDJSON record: " + ex.getMessage());
+                }
+                if (batch.size() == options.batchSize()) {
+                    flush(mapping, dialect, batch, lines, inputErrors, json, stats);
+                }
+            }
+            flush(mapping, dialect, batch, lines, inputErrors, json, stats);
+            stats.bytes = reader.bytesRead();
+        }
+        stats.finish(System.nanoTime());
+        return stats;
+    }
+
+    // Translates one batch in parallel and writes its records in input order; memory stays bounded by the batch.
+    // Records go through the generator's and the writer's buffers, which are flushed once per batch, so the
+    // output costs a write call per 64 KiB rather than per query.
+    private static void flush(
+            final Mapping mapping,
+            final Dialect dialect,
+            final List<String> batch,
+            final List<Long> lines,
+            final List<String> inputErrors,
+            final JsonGenerator json,
+            final Stats stats) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final List<String> valid = new ArrayList<>(batch.size());
+        for (final String cypher : batch) {
+            if (cypher != null) {
+                valid.add(cypher);
+            }
+        }
+        final List<TranslationResult> results = mapping.translateAll(valid, dialect);
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            json.writeStartObject();
+            json.writeNumberField("line", lines.get(i));
+            if (inputErrors.get(i) != null) {
+                json.writeStringField("error", inputErrors.get(i));
+                stats.errors++;
+            } else {
+                final TranslationResult result = results.get(next++);
+                if (result.isSuccess()) {
+                    writeTranslation(json, result.translation());
+                } else {
+                    json.writeStringField("error", String.valueOf(result.error().getMessage()));
+                    stats.errors++;
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            stats.queries++;
+        }
+        json.flush();
+        batch.clear();
+        lines.clear();
+        inputErrors.clear();
+    }
+
+    private static void writeTranslation(final JsonGenerator json, final Translation translation) throws IOException {
+        json.writeStringField("sql", translation.sql().sql());
+        json.writeArrayFieldStart("parameters");
+        for (final String name : translation.sql().parameterNames()) {
+            json.writeString(name);
+        }
+        json.writeEndArray();
+        json.writeObjectFieldStart("literals");
+        for (final Map.Entry<String, Object> literal : translation.literals().entrySet()) {
+            json.writeFieldName(literal.getKey());
+            MAPPER.writeValue(json, literal.getValue());
+        }
+        json.writeEndObject();
+    }
+
+    private static String queryFromJson(final String line) throws IOException {
+        final JsonNode node = MAPPER.readTree(line);
+        final JsonNode query = node.has("query") ? node.get("query") : node.get("cypher");
+        if (query == null || !query.isTextual()) {
+            throw new IllegalArgumentException("expected a string \"query\" or \"cypher\" field");
+        }
+        return query.asText();
+    }
+
+    private static SchemaDefinition loadSchema(final Path schema) {
+        final String name = schema.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") ? SchemaDefinitionJson.fromPath(schema) : SchemaDefinitionYaml.fromPath(schema);
+    }
+
+    // Standard output stays open for the caller when the translator's writer is closed.
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    static final class Stats {
+        private final long startNanos;
+        private long elapsedNanos;
+        private long queries;
+        private long errors;
+        private long bytes;
+
+        private Stats(final long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private void finish(final long endNanos) {
+            elapsedNanos = Math.max(1, endNanos - startNanos);
+        }
+
+        String report() {
+            final double seconds = elapsedNanos / 1e9;
+            return String.format(Locale.ROOT,
+                    "Translated %d queries (%d errors) from %.1f MB in %.2f s: %.0f queries/s, %.1f MB/s",
+                    queries, errors, bytes / 1e6, seconds, queries / seconds, bytes / 1e6 / seconds);
+        }
+    }
+}
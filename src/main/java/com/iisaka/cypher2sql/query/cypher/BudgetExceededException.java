@@ -0,0 +1,35 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.time.Duration;
+
+// Raised when a ParseBudget bound is hit. These are expected, load-dependent outcomes rather than bugs,
+// so no stack trace is captured: throwing and catching one stays cheap on a busy worker.
+public abstract class BudgetExceededException extends RuntimeException {
+    private BudgetExceededException(final String message) {
+        super(message, null, false, false);
+    }
+
+    public static final class InputTooLong extends BudgetExceededException {
+        InputTooLong(final int length, final int maxLength) {
+            super("Cypher input length " + length + " exceeds budget of " + maxLength + " characters.");
+        }
+    }
+
+    public static final class TooManyTokens extends BudgetExceededException {
+        TooManyTokens(final int tokens, final int maxTokens) {
+            super("Cypher input has " + tokens + " tokens, exceeding budget of " + maxTokens + ".");
+        }
+    }
+
+    public static final class TooDeep extends BudgetExceededException {
+        TooDeep(final int maxDepth) {
+            super("Cypher parse tree exceeds depth budget of " + maxDepth + ".");
+        }
+    }
+
+    public static final class DeadlineExceeded extends BudgetExceededException {
+        DeadlineExceeded(final String stage, final Duration timeout) {
+            super("Cypher translation exceeded its " + timeout.toMillis() + " ms deadline during " + stage + ".");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+// Per-pipeline enforcement of a ParseBudget while ANTLR runs. Rule entries track the tree depth and poll the
+// deadline; the prediction simulator polls it on every lookahead step, which is where pathological inputs
+// spend their time in full-LL mode without entering any rule.
+final class BudgetGuard implements ParseTreeListener {
+    // nanoTime is cheap but not free; poll it on every Nth event.
+    private static final int POLL_MASK = 63;
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private Deadline deadline = Deadline.none();
+    private int depth;
+    private int events;
+
+    void reset(final ParseBudget budget, final Deadline deadline) {
+        this.maxDepth = budget.maxDepth();
+        this.deadline = deadline;
+        this.depth = 0;
+        this.events = 0;
+    }
+
+    // Only rule-entry events are needed when something is bounded; otherwise the listener stays detached.
+    boolean isActive() {
+        return maxDepth != Integer.MAX_VALUE || deadline.isBounded();
+    }
+
+    // Installs a prediction simulator sharing the parser's DFA cache, so cached decisions are unaffected.
+    void install(final Parser parser) {
+        final ParserATNSimulator current = parser.getInterpreter();
+        parser.setInterpreter(new Simulator(parser, current));
+    }
+
+    @Override
+    public void enterEveryRule(final ParserRuleContext context) {
+        if (++depth > maxDepth) {
+            throw new BudgetExceededException.TooDeep(maxDepth);
+        }
+        poll();
+    }
+
+    @Override
+    public void exitEveryRule(final ParserRuleContext context) {
+        depth--;
+    }
+
+    @Override
+    public void visitTerminal(final TerminalNode node) {
+    }
+
+    @Override
+    public void visitErrorNode(final ErrorNode node) {
+    }
+
+    private void poll() {
+        if ((++events & POLL_MASK) == 0) {
+            deadline.check("parsing");
+        }
+    }
+
+    private final class Simulator extends ParserATNSimulator {
+        private Simulator(final Parser parser, final ParserATNSimulator base) {
+            super(parser, base.atn, base.decisionToDFA, base.getSharedContextCache());
+            setPredictionMode(base.getPredictionMode());
+        }
+
+        @Override
+        protected ATNConfigSet computeReachSet(final ATNConfigSet closure, final int t, final boolean fullCtx) {
+            poll();
+            return super.computeReachSet(closure, t, fullCtx);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Cheap textual normalization of Cypher for use as a cache key, without lexing or parsing.
+// Only changes that cannot alter meaning are applied: whitespace is collapsed (and dropped next to
+// brackets and commas), and clause keywords are upper-cased. Backtick-quoted names, labels/types
+// (after ':'), property keys (before ':' or after '.') and $parameters are kept verbatim; string
+// literals are kept verbatim by normalize() and lifted into parameters by shape(). Variables are
+// case-sensitive, so a word in a variable position (`(end)`, `end.name`, `AS end`) is kept verbatim, as
+// is every later use of that spelling. Comments are copied verbatim, and a `//` comment keeps the line
+// break that ends it.
+public final class CypherText {
+    private static final Set<String> KEYWORDS = Set.of(
+            "MATCH", "OPTIONAL", "WHERE", "RETURN", "DISTINCT", "AS", "WITH", "UNWIND",
+            "ORDER", "BY", "ASC", "ASCENDING", "DESC", "DESCENDING", "SKIP", "OFFSET", "LIMIT",
+            "AND", "OR", "XOR", "NOT", "IN", "IS", "NULL", "TRUE", "FALSE",
+            "STARTS", "ENDS", "CONTAINS", "EXISTS", "UNION", "ALL", "CASE", "WHEN", "THEN", "ELSE", "END");
+    private static final String UNARY_MINUS_CONTEXT = "([{,:=<>";
+
+    private CypherText() {
+    }
+
+    // Normalized text plus the literals lifted out of it, mirroring QueryShape without a parse.
+    // Numbers that are structural rather than values (path lengths such as *1..3) stay in the text.
+    public record Shape(String text, List<Object> literals) {
+    }
+
+    public static String normalize(final String cypher) {
+        return scan(cypher, null);
+    }
+
+    public static Shape shape(final String cypher) {
+        final List<Object> literals = new ArrayList<>();
+        return new Shape(scan(cypher, literals), literals);
+    }
+
+    private static String scan(final String cypher, final List<Object> literals) {
+        final int length = cypher.length();
+        final StringBuilder out = new StringBuilder(length);
+        final Set<String> variables = new HashSet<>();
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length) {
+            final char c = cypher.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0 && out.charAt(out.length() - 1) != '\n';
+                i++;
+                continue;
+            }
+            if (pendingSpace && !isTight(c) && !isTight(out.charAt(out.length() - 1))) {
+                out.append(' ');
+            }
+            pendingSpace = false;
+            if (c == '/' && i + 1 < length && (cypher.charAt(i + 1) == '/' || cypher.charAt(i + 1) == '*')) {
+                i = copyComment(cypher, i, out);
+            } else if (c == '`') {
+                i = copyQuoted(cypher, i, c, out);
+            } else if (c == '\'' || c == '"') {
+                if (literals == null) {
+                    i = copyQuoted(cypher, i, c, out);
+                } else {
+                    final int end = copyQuoted(cypher, i, c, new StringBuilder());
+                    appendLiteral(out, literals, Literals.decodeString(cypher.substring(i, end)));
+                    i = end;
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < length && (Character.isLetterOrDigit(cypher.charAt(end)) || cypher.charAt(end) == '_')) {
+                    end++;
+                }
+                final String word = cypher.substring(i, end);
+                final String upper = word.toUpperCase(Locale.ROOT);
+                if (isVariablePosition(out, cypher, end)) {
+                    variables.add(word);
+                }
+                final boolean keyword = KEYWORDS.contains(upper)
+                        && !variables.contains(word)
+                        && !isNameContext(out)
+                        && !followedByColon(cypher, end);
+                out.append(keyword ? upper : word);
+                i = end;
+            } else if (literals != null && Character.isDigit(c) && lastSignificant(out) != '$') {
+                final int end = numberEnd(cypher, i);
+                if (isStructuralNumber(out, cypher, end)) {
+                    out.append(cypher, i, end);
+                } else {
+                    liftNumber(out, literals, cypher.substring(i, end));
+                }
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static void liftNumber(final StringBuilder out, final List<Object> literals, final String digits) {
+        // A '-' directly after an operator or opening bracket is a sign, which the grammar folds into the literal.
+        final int minusAt = lastSignificantIndex(out);
+        if (minusAt >= 0 && out.charAt(minusAt) == '-') {
+            final int before = lastSignificantIndex(out, minusAt - 1);
+            if (before < 0 || UNARY_MINUS_CONTEXT.indexOf(out.charAt(before)) >= 0) {
+                out.setLength(before + 1);
+                appendLiteral(out, literals, Literals.decodeNumber("-" + digits));
+                return;
+            }
+        }
+        appendLiteral(out, literals, Literals.decodeNumber(digits));
+    }
+
+    private static void appendLiteral(final StringBuilder out, final List<Object> literals, final Object value) {
+        if (!out.isEmpty() && out.charAt(out.length() - 1) != ' ' && !isTight(out.charAt(out.length() - 1))) {
+            out.append(' ');
+        }
+        out.append('$').append(QueryShape.parameterName(literals.size()));
+        literals.add(value);
+    }
+
+    private static int numberEnd(final String cypher, final int start) {
+        int end = start;
+        while (end < cypher.length() && (Character.isLetterOrDigit(cypher.charAt(end)) || cypher.charAt(end) == '_')) {
+            end++;
+        }
+        if (end + 1 < cypher.length() && cypher.charAt(end) == '.' && Character.isDigit(cypher.charAt(end + 1))) {
+            end++;
+            while (end < cypher.length() && (Character.isLetterOrDigit(cypher.charAt(end)) || cypher.charAt(end) == '_')) {
+                end++;
+            }
+        }
+        final char last = cypher.charAt(end - 1);
+        if ((last == 'e' || last == 'E') && end + 1 < cypher.length()
+                && (cypher.charAt(end) == '-' || cypher.charAt(end) == '+')
+                && Character.isDigit(cypher.charAt(end + 1))) {
+            end++;
+            while (end < cypher.length() && Character.isDigit(cypher.charAt(end))) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    // Path-length bounds (`*3`, `*1..5`, `*..5`) are part of the pattern's structure, not values.
+    private static boolean isStructuralNumber(final StringBuilder out, final String cypher, final int end) {
+        final int last = lastSignificantIndex(out);
+        if (last >= 0 && out.charAt(last) == '*') {
+            return true;
+        }
+        if (last >= 1 && out.charAt(last) == '.' && out.charAt(last - 1) == '.') {
+            return true;
+        }
+        return cypher.startsWith("..", end);
+    }
+
+    // Brackets and commas never combine with a neighbouring character into a different token.
+    private static boolean isTight(final char c) {
+        return c == '(' || c == ')' || c == '[' || c == ']' || c == '{' || c == '}' || c == ',';
+    }
+
+    // Labels, types, property accesses and parameters are case-sensitive names even when they spell a keyword.
+    private static boolean isNameContext(final StringBuilder out) {
+        final char previous = lastSignificant(out);
+        return previous == ':' || previous == '.' || previous == '$';
+    }
+
+    // A node or relationship variable (`(end)`, `[end:T]`, `(end {k: v})`), a property access (`end.name`)
+    // or an alias (`AS end`). Keywords never stand there.
+    private static boolean isVariablePosition(final StringBuilder out, final String cypher, final int end) {
+        final char previous = lastSignificant(out);
+        final char next = nextSignificant(cypher, end);
+        if ((previous == '(' || previous == '[') && (next == ':' || next == ')' || next == ']' || next == '{')) {
+            return true;
+        }
+        if (next == '.' && !cypher.startsWith("..", nextSignificantIndex(cypher, end))) {
+            return true;
+        }
+        final int last = lastSignificantIndex(out);
+        final int start = last - 1;
+        return start >= 0 && out.charAt(start) == 'A' && out.charAt(last) == 'S'
+                && (start == 0 || !isWordChar(out.charAt(start - 1)));
+    }
+
+    private static boolean isWordChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static char nextSignificant(final String cypher, final int from) {
+        final int index = nextSignificantIndex(cypher, from);
+        return index < cypher.length() ? cypher.charAt(index) : '\0';
+    }
+
+    private static int nextSignificantIndex(final String cypher, final int from) {
+        int i = from;
+        while (i < cypher.length() && Character.isWhitespace(cypher.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char lastSignificant(final StringBuilder out) {
+        final int index = lastSignificantIndex(out);
+        return index < 0 ? '\0' : out.charAt(index);
+    }
+
+    private static int lastSignificantIndex(final StringBuilder out) {
+        return lastSignificantIndex(out, out.length() - 1);
+    }
+
+    private static int lastSignificantIndex(final StringBuilder out, final int from) {
+        int i = from;
+        while (i >= 0 && out.charAt(i) == ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean followedByColon(final String cypher, final int from) {
+        return nextSignificant(cypher, from) == ':';
+    }
+
+    // `// ...` up to and including the line break that ends it, or `/* ... */`; the text after `//` on the
+    // same line is comment, so the break must survive whitespace collapsing.
+    private static int copyComment(final String cypher, final int start, final StringBuilder out) {
+        final boolean line = cypher.charAt(start + 1) == '/';
+        final int close = line ? cypher.indexOf('\n', start) : cypher.indexOf("*/", start + 2);
+        final int end = close < 0 ? cypher.length() : close + (line ? 1 : 2);
+        out.append(cypher, start, end);
+        return end;
+    }
+
+    private static int copyQuoted(final String cypher, final int start, final char quote, final StringBuilder out) {
+        out.append(quote);
+        int i = start + 1;
+        while (i < cypher.length()) {
+            final char c = cypher.charAt(i);
+            out.append(c);
+            i++;
+            if (c == '\\' && quote != '`' && i < cypher.length()) {
+                out.append(cypher.charAt(i));
+                i++;
+            } else if (c == quote) {
+                break;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,39 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.time.Duration;
+
+// Wall-clock deadline polled at safe points; checking costs one System.nanoTime() call, and nothing for none().
+public final class Deadline {
+    private static final Deadline NONE = new Deadline(0L, null);
+
+    private final long expiresAtNanos;
+    private final Duration timeout;
+
+    private Deadline(final long expiresAtNanos, final Duration timeout) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.timeout = timeout;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(final Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), timeout);
+    }
+
+    public boolean isBounded() {
+        return timeout != null;
+    }
+
+    public boolean isExpired() {
+        // Difference rather than comparison, so the check survives nanoTime wrap-around.
+        return timeout != null && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    public void check(final String stage) {
+        if (isExpired()) {
+            throw new BudgetExceededException.DeadlineExceeded(stage, timeout);
+        }
+    }
+}
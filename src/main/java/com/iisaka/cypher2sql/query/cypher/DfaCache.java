@@ -0,0 +1,67 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+final class DfaCache {
+    // Rough per-object costs on a 64-bit JVM with compressed oops.
+    private static final long STATE_BYTES = 64;
+    private static final long EDGE_SLOT_BYTES = 4;
+    private static final long CONFIG_BYTES = 40;
+
+    private DfaCache() {
+    }
+
+    static DfaCacheStats stats(final Parser parser, final Lexer lexer, final long clears) {
+        final DFA[] parserDfa = parser.getInterpreter().decisionToDFA;
+        final Tally parserTally = tally(parserDfa);
+        final Tally lexerTally = tally(lexer.getInterpreter().decisionToDFA);
+        return new DfaCacheStats(
+                parserDfa.length,
+                parserTally.states,
+                lexerTally.states,
+                parserTally.bytes + lexerTally.bytes,
+                clears);
+    }
+
+    static long stateCount(final Parser parser, final Lexer lexer) {
+        return tally(parser.getInterpreter().decisionToDFA).states
+                + tally(lexer.getInterpreter().decisionToDFA).states;
+    }
+
+    // The DFA arrays are static per generated recognizer class, so this drops the cache for every instance.
+    static void clear(final Parser parser, final Lexer lexer) {
+        parser.getInterpreter().clearDFA();
+        lexer.getInterpreter().clearDFA();
+    }
+
+    private static Tally tally(final DFA[] decisions) {
+        final Tally tally = new Tally();
+        for (final DFA dfa : decisions) {
+            if (dfa == null) {
+                continue;
+            }
+            // DFA.states is guarded by its own monitor while ANTLR adds states during prediction.
+            synchronized (dfa.states) {
+                tally.states += dfa.states.size();
+                for (final DFAState state : dfa.states.keySet()) {
+                    tally.bytes += STATE_BYTES;
+                    if (state.edges != null) {
+                        tally.bytes += EDGE_SLOT_BYTES * state.edges.length;
+                    }
+                    if (state.configs != null) {
+                        tally.bytes += CONFIG_BYTES * state.configs.size();
+                    }
+                }
+            }
+        }
+        return tally;
+    }
+
+    private static final class Tally {
+        private long states;
+        private long bytes;
+    }
+}
@@ -0,0 +1,28 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+// Caps the ANTLR DFA caches shared by every parser of a grammar. The cache is only inspected every
+// checkInterval parses, since counting states walks every decision of the (large) Cypher grammar.
+public record DfaCachePolicy(long maxStates, int checkInterval) {
+    private static final DfaCachePolicy UNBOUNDED = new DfaCachePolicy(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    public DfaCachePolicy {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException("DFA cache maxStates must be positive: " + maxStates);
+        }
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("DFA cache checkInterval must be positive: " + checkInterval);
+        }
+    }
+
+    public static DfaCachePolicy unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static DfaCachePolicy maxStates(final long maxStates) {
+        return new DfaCachePolicy(maxStates, 1_000);
+    }
+
+    public boolean isBounded() {
+        return maxStates != Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,13 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+// Point-in-time view of the shared ANTLR DFA caches; estimatedBytes is an approximation, not a heap measurement.
+public record DfaCacheStats(
+        int parserDecisions,
+        long parserStates,
+        long lexerStates,
+        long estimatedBytes,
+        long clears) {
+    public long totalStates() {
+        return parserStates + lexerStates;
+    }
+}
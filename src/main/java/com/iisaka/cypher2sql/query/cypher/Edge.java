@@ -1,31 +1,55 @@
 package com.iisaka.cypher2sql.query.cypher;
 
-public final class Edge {
+import java.util.List;
+import java.util.Map;
+
+// Property values follow Node's convention ($name for a parameter, else source text). length is null for a
+// single-hop relationship and holds the hop bounds of a variable-length one (`[:T*1..3]`). types lists the
+// alternatives of `[:A|B]`; type is the first of them.
+public record Edge(
+        String variable,
+        String type,
+        Direction direction,
+        Map<String, String> properties,
+        PathLength length,
+        List<String> types) {
     public enum Direction {
         LEFT_TO_RIGHT,
         RIGHT_TO_LEFT,
         UNDIRECTED
     }
 
-    private final String variable;
-    private final String type;
-    private final Direction direction;
+    public Edge {
+        types = types.isEmpty() && type != null ? List.of(type) : List.copyOf(types);
+    }
 
-    public Edge(final String variable, final String type, final Direction direction) {
-        this.variable = variable;
-        this.type = type;
-        this.direction = direction;
+    public Edge(
+            final String variable,
+            final String type,
+            final Direction direction,
+            final Map<String, String> properties,
+            final PathLength length) {
+        this(variable, type, direction, properties, length, List.of());
     }
 
-    public String variable() {
-        return variable;
+    public Edge(
+            final String variable,
+            final String type,
+            final Direction direction,
+            final Map<String, String> properties) {
+        this(variable, type, direction, properties, null);
+    }
+
+    public Edge(final String variable, final String type, final Direction direction) {
+        this(variable, type, direction, Map.of(), null);
     }
 
-    public String type() {
-        return type;
+    public boolean isVariableLength() {
+        return length != null;
     }
 
-    public Direction direction() {
-        return direction;
+    // The same relationship with one of its alternative types.
+    public Edge withType(final String alternative) {
+        return new Edge(variable, alternative, direction, properties, length);
     }
 }
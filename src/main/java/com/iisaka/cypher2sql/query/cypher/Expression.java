@@ -0,0 +1,70 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.util.List;
+
+// A translatable WHERE expression. Literals are lifted like everywhere else, so a literal operand is the
+// Parameter named by its slot (__litN, see QueryShape); TRUE, FALSE and NULL stay keywords.
+public sealed interface Expression {
+    enum Operator {
+        EQ("="),
+        NE("<>"),
+        LT("<"),
+        LE("<="),
+        GT(">"),
+        GE(">="),
+        STARTS_WITH("STARTS WITH"),
+        ENDS_WITH("ENDS WITH"),
+        CONTAINS("CONTAINS"),
+        IN("IN");
+
+        private final String symbol;
+
+        Operator(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+    }
+
+    // A bare node or relationship variable, e.g. `m` in `m IS NULL`.
+    record Variable(String name) implements Expression {
+    }
+
+    record Property(String variable, String key) implements Expression {
+    }
+
+    record Parameter(String name) implements Expression {
+    }
+
+    record Keyword(String keyword) implements Expression {
+    }
+
+    record ListValue(List<Expression> items) implements Expression {
+        public ListValue {
+            items = List.copyOf(items);
+        }
+    }
+
+    record Comparison(Expression left, Operator operator, Expression right) implements Expression {
+    }
+
+    record NullCheck(Expression operand, boolean negated) implements Expression {
+    }
+
+    record Not(Expression operand) implements Expression {
+    }
+
+    record And(List<Expression> operands) implements Expression {
+        public And {
+            operands = List.copyOf(operands);
+        }
+    }
+
+    record Or(List<Expression> operands) implements Expression {
+        public Or {
+            operands = List.copyOf(operands);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Decodes an expression subtree (a WHERE conjunct, an ORDER BY item, a SKIP or LIMIT count) into an
+// Expression. The grammar nests one rule per precedence level, so the decoder reads each context's shape
+// -- operand rules separated by operator tokens -- instead of naming every level: a single operand is a
+// wrapper, `a AND b AND c` a conjunction, `a = b` a comparison.
+final class ExpressionDecoder {
+    private final int variableRule;
+    private final int parameterRule;
+    private final int listLiteralRule;
+    private final int propertyKeyNameRule;
+    private final int comparisonRule;
+
+    ExpressionDecoder(final String[] ruleNames) {
+        final List<String> names = Arrays.asList(ruleNames);
+        this.variableRule = names.indexOf("variable");
+        this.parameterRule = names.indexOf("parameter");
+        this.listLiteralRule = names.indexOf("listLiteral");
+        this.propertyKeyNameRule = names.indexOf("propertyKeyName");
+        this.comparisonRule = names.indexOf("comparisonExpression6");
+    }
+
+    Expression decode(final ParserRuleContext context, final ShapeBuilder.Marks marks) {
+        final int literal = marks.literalOrdinal(context);
+        if (literal >= 0) {
+            return new Expression.Parameter(QueryShape.parameterName(literal));
+        }
+        final int rule = context.getRuleIndex();
+        if (rule == variableRule) {
+            return new Expression.Variable(PatternDecoder.name(context.getStart()));
+        }
+        if (rule == parameterRule && context.getChildCount() == 2) {
+            return new Expression.Parameter(PatternDecoder.name(context.getStop()));
+        }
+
+        final List<ParserRuleContext> operands = new ArrayList<>(2);
+        final List<String> operators = new ArrayList<>(2);
+        for (int i = 0; i < context.getChildCount(); i++) {
+            final ParseTree child = context.getChild(i);
+            if (child instanceof ParserRuleContext operand) {
+                operands.add(operand);
+            } else if (!"(".equals(child.getText()) && !")".equals(child.getText())) {
+                operators.add(child.getText().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (rule == listLiteralRule) {
+            final List<Expression> items = new ArrayList<>(operands.size());
+            for (final ParserRuleContext operand : operands) {
+                items.add(decode(operand, marks));
+            }
+            return new Expression.ListValue(items);
+        }
+        if (operands.isEmpty()) {
+            if (operators.size() == 1 && List.of("TRUE", "FALSE", "NULL").contains(operators.get(0))) {
+                return new Expression.Keyword(operators.get(0));
+            }
+            throw unsupported(context);
+        }
+        if (operators.isEmpty()) {
+            if (operands.size() == 1) {
+                return decode(operands.get(0), marks);
+            }
+            if (operands.size() == 2 && operands.get(1).getRuleIndex() == comparisonRule) {
+                return comparison(decode(operands.get(0), marks), operands.get(1), marks);
+            }
+            final String key = operands.size() == 2 ? propertyKey(operands.get(1)) : null;
+            if (key != null && decode(operands.get(0), marks) instanceof Expression.Variable variable) {
+                return new Expression.Property(variable.name(), key);
+            }
+            throw unsupported(context);
+        }
+        if (operands.size() == 1 && operators.stream().allMatch("NOT"::equals)) {
+            final Expression operand = decode(operands.get(0), marks);
+            return operators.size() % 2 == 0 ? operand : new Expression.Not(operand);
+        }
+        if (operators.size() != operands.size() - 1) {
+            throw unsupported(context);
+        }
+        if (operators.stream().allMatch("AND"::equals)) {
+            return new Expression.And(decodeAll(operands, marks));
+        }
+        if (operators.stream().allMatch("OR"::equals)) {
+            return new Expression.Or(decodeAll(operands, marks));
+        }
+        // Chained comparisons `a < b < c` mean `a < b AND b < c`.
+        final List<Expression> comparisons = new ArrayList<>(operators.size());
+        Expression left = decode(operands.get(0), marks);
+        for (int i = 0; i < operators.size(); i++) {
+            final Expression.Operator operator = comparisonOperator(operators.get(i));
+            if (operator == null) {
+                throw unsupported(context);
+            }
+            final Expression right = decode(operands.get(i + 1), marks);
+            comparisons.add(new Expression.Comparison(left, operator, right));
+            left = right;
+        }
+        return comparisons.size() == 1 ? comparisons.get(0) : new Expression.And(comparisons);
+    }
+
+    private List<Expression> decodeAll(final List<ParserRuleContext> operands, final ShapeBuilder.Marks marks) {
+        final List<Expression> decoded = new ArrayList<>(operands.size());
+        for (final ParserRuleContext operand : operands) {
+            decoded.add(decode(operand, marks));
+        }
+        return decoded;
+    }
+
+    // The suffix of `left`: STARTS WITH / ENDS WITH / CONTAINS / IN followed by an operand, or IS [NOT] NULL.
+    private Expression comparison(
+            final Expression left,
+            final ParserRuleContext suffix,
+            final ShapeBuilder.Marks marks) {
+        final StringBuilder keywords = new StringBuilder();
+        ParserRuleContext right = null;
+        for (int i = 0; i < suffix.getChildCount(); i++) {
+            final ParseTree child = suffix.getChild(i);
+            if (child instanceof ParserRuleContext operand) {
+                if (right != null) {
+                    throw unsupported(suffix);
+                }
+                right = operand;
+            } else {
+                keywords.append(keywords.isEmpty() ? "" : " ").append(child.getText().toUpperCase(Locale.ROOT));
+            }
+        }
+        final String operator = keywords.toString();
+        if (right == null && (operator.equals("IS NULL") || operator.equals("IS NOT NULL"))) {
+            return new Expression.NullCheck(left, operator.equals("IS NOT NULL"));
+        }
+        final Expression.Operator comparison = switch (operator) {
+            case "STARTS WITH" -> Expression.Operator.STARTS_WITH;
+            case "ENDS WITH" -> Expression.Operator.ENDS_WITH;
+            case "CONTAINS" -> Expression.Operator.CONTAINS;
+            case "IN" -> Expression.Operator.IN;
+            default -> null;
+        };
+        if (comparison == null || right == null) {
+            throw unsupported(suffix);
+        }
+        return new Expression.Comparison(left, comparison, decode(right, marks));
+    }
+
+    // `.key` postfix: a DOT token followed by the property key name, under single-child wrappers.
+    private String propertyKey(final ParserRuleContext postfix) {
+        ParserRuleContext current = postfix;
+        while (current.getChildCount() == 1 && current.getChild(0) instanceof ParserRuleContext child) {
+            current = child;
+        }
+        if (current.getChildCount() == 2 && ".".equals(current.getChild(0).getText())
+                && current.getChild(1) instanceof ParserRuleContext key
+                && key.getRuleIndex() == propertyKeyNameRule) {
+            return PatternDecoder.name(key.getStart());
+        }
+        return null;
+    }
+
+    private static Expression.Operator comparisonOperator(final String symbol) {
+        return switch (symbol) {
+            case "=" -> Expression.Operator.EQ;
+            case "<>", "!=" -> Expression.Operator.NE;
+            case "<" -> Expression.Operator.LT;
+            case "<=" -> Expression.Operator.LE;
+            case ">" -> Expression.Operator.GT;
+            case ">=" -> Expression.Operator.GE;
+            default -> null;
+        };
+    }
+
+    private static IllegalArgumentException unsupported(final ParserRuleContext context) {
+        return new IllegalArgumentException("Unsupported expression: " + PatternDecoder.sourceText(context)
+                + ". Only comparisons, IN, IS [NOT] NULL, STARTS WITH/ENDS WITH/CONTAINS and boolean logic"
+                + " over properties, literals and parameters are supported.");
+    }
+}
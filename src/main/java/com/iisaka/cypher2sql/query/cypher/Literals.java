@@ -0,0 +1,70 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.math.BigInteger;
+import java.util.Locale;
+
+// Decodes Cypher string and number literal source text into Java values.
+final class Literals {
+    private Literals() {
+    }
+
+    static Object decode(final String text) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Empty Cypher literal.");
+        }
+        final char first = text.charAt(0);
+        if (first == '\'' || first == '"') {
+            return decodeString(text);
+        }
+        return decodeNumber(text);
+    }
+
+    static String decodeString(final String text) {
+        final StringBuilder out = new StringBuilder(text.length());
+        for (int i = 1; i < text.length() - 1; i++) {
+            final char c = text.charAt(i);
+            if (c != '\\' || i + 1 >= text.length() - 1) {
+                out.append(c);
+                continue;
+            }
+            final char escaped = text.charAt(++i);
+            switch (escaped) {
+                case 'n' -> out.append('\n');
+                case 't' -> out.append('\t');
+                case 'r' -> out.append('\r');
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'u', 'U' -> {
+                    out.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> out.append(escaped);
+            }
+        }
+        return out.toString();
+    }
+
+    static Number decodeNumber(final String text) {
+        String digits = text.replace("_", "").replace(" ", "");
+        final boolean negative = digits.startsWith("-");
+        if (negative) {
+            digits = digits.substring(1);
+        }
+        final String lower = digits.toLowerCase(Locale.ROOT);
+        final int radix;
+        if (lower.startsWith("0x")) {
+            radix = 16;
+            digits = digits.substring(2);
+        } else if (lower.startsWith("0o")) {
+            radix = 8;
+            digits = digits.substring(2);
+        } else if (lower.indexOf('.') >= 0 || lower.indexOf('e') >= 0) {
+            final double value = Double.parseDouble(digits);
+            return negative ? -value : value;
+        } else {
+            radix = 10;
+        }
+        final BigInteger value = new BigInteger(negative ? "-" + digits : digits, radix);
+        return value.bitLength() < Long.SIZE ? (Number) value.longValueExact() : value;
+    }
+}
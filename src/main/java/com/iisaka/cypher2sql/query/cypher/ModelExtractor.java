@@ -0,0 +1,548 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Builds the app-level model (patterns, return items, literal-free shape) from an ANTLR parse tree in a
+// single traversal.
+// Rule names are resolved to indices once per grammar, so the walk itself only compares ints.
+final class ModelExtractor {
+    private static final int NO_RULE = -1;
+    private static final int NOT_SEEN = -1;
+
+    private final int patternElementRule;
+    private final int patternPartRule;
+    private final int shortestPathPatternRule;
+    private final int selectorRule;
+    private final int nodePatternRule;
+    private final int relationshipPatternRule;
+    private final int matchClauseRule;
+    private final int withClauseRule;
+    private final int whereClauseRule;
+    private final int returnBodyRule;
+    private final int existsExpressionRule;
+    private final int patternExpressionRule;
+    private final int patternListRule;
+    private final int orderItemRule;
+    private final int skipRule;
+    private final int limitRule;
+    private final boolean[] subqueryRules;
+    private final boolean[] returnItemRules;
+    private final PatternDecoder decoder;
+    private final ExpressionDecoder expressionDecoder;
+    private final ShapeBuilder shapeBuilder;
+
+    ModelExtractor(final String[] ruleNames, final Vocabulary vocabulary) {
+        final List<String> names = Arrays.asList(ruleNames);
+        this.patternElementRule = names.indexOf("patternElement");
+        this.patternPartRule = names.indexOf("patternPart");
+        this.shortestPathPatternRule = names.indexOf("shortestPathPattern");
+        this.selectorRule = names.indexOf("selector");
+        this.nodePatternRule = names.indexOf("nodePattern");
+        this.relationshipPatternRule = names.indexOf("relationshipPattern");
+        this.matchClauseRule = names.indexOf("matchClause");
+        this.withClauseRule = names.indexOf("withClause");
+        this.whereClauseRule = names.indexOf("whereClause");
+        this.returnBodyRule = names.indexOf("returnBody");
+        this.existsExpressionRule = names.indexOf("existsExpression");
+        this.patternExpressionRule = names.indexOf("patternExpression");
+        this.patternListRule = names.indexOf("patternList");
+        this.orderItemRule = names.indexOf("orderItem");
+        this.skipRule = names.indexOf("skip");
+        this.limitRule = names.indexOf("limit");
+        this.subqueryRules = new boolean[ruleNames.length];
+        for (final String subqueryRule : List.of("existsExpression", "countExpression", "collectExpression")) {
+            final int index = names.indexOf(subqueryRule);
+            if (index >= 0) {
+                subqueryRules[index] = true;
+            }
+        }
+        this.returnItemRules = new boolean[ruleNames.length];
+        for (int i = 0; i < ruleNames.length; i++) {
+            returnItemRules[i] = ReturnItem.isReturnItemRule(ruleNames[i]);
+        }
+        this.decoder = new PatternDecoder(ruleNames);
+        this.expressionDecoder = new ExpressionDecoder(ruleNames);
+        this.shapeBuilder = new ShapeBuilder(ruleNames, vocabulary);
+    }
+
+    Extraction extract(final ParseTree parseTree, final List<Token> tokens) {
+        final ShapeBuilder.Marks marks = new ShapeBuilder.Marks(tokens.size());
+        final List<ParserRuleContext> nodeContexts = new ArrayList<>();
+        final List<ParserRuleContext> relContexts = new ArrayList<>();
+        final List<ParserRuleContext> returnItemContexts = new ArrayList<>();
+        final List<PredicateContext> predicateContexts = new ArrayList<>();
+        final List<ParserRuleContext> conjunctContexts = new ArrayList<>();
+        final List<ParserRuleContext> orderItemContexts = new ArrayList<>();
+        final List<ParserRuleContext> optionalMatchContexts = new ArrayList<>();
+        ParserRuleContext skipContext = null;
+        ParserRuleContext limitContext = null;
+        boolean distinct = false;
+        Pattern.Selector selector = Pattern.Selector.ALL;
+
+        // Pre-order walk; the first pattern element/part outside an OPTIONAL MATCH is the one translated, and
+        // its subtree is exactly the run of nodes that follows it at a greater depth. OPTIONAL MATCH clauses
+        // are decoded from their contexts once the walk has marked their literals.
+        final WalkStack stack = new WalkStack();
+        stack.push(parseTree, 0);
+        int patternDepth = NOT_SEEN;
+        boolean patternDone = false;
+        int optionalDepth = NOT_SEEN;
+        boolean matchSeen = false;
+        while (!stack.isEmpty()) {
+            final int depth = stack.topDepth();
+            final ParseTree current = stack.pop();
+            if (patternDepth != NOT_SEEN && depth <= patternDepth) {
+                patternDone = true;
+            }
+            if (optionalDepth != NOT_SEEN && depth <= optionalDepth) {
+                optionalDepth = NOT_SEEN;
+            }
+            if (current instanceof ParserRuleContext context) {
+                final int rule = context.getRuleIndex();
+                if (rule != NO_RULE) {
+                    // Only a single MATCH, optionally followed by OPTIONAL MATCH clauses, maps onto one SELECT;
+                    // the WHERE, ORDER BY and pattern parts of anything else would otherwise be dropped.
+                    if (rule == withClauseRule && !insideSubquery(context)) {
+                        throw new UnsupportedOperationException(
+                                "WITH clauses are not supported yet: " + PatternDecoder.sourceText(context));
+                    }
+                    if (rule == matchClauseRule && !insideSubquery(context)) {
+                        if (hasKeyword(context, "OPTIONAL")) {
+                            if (patternDepth == NOT_SEEN) {
+                                throw new IllegalArgumentException(
+                                        "Unsupported OPTIONAL MATCH: " + PatternDecoder.sourceText(context)
+                                                + ". It must follow a MATCH.");
+                            }
+                            optionalMatchContexts.add(context);
+                            optionalDepth = depth;
+                        } else if (matchSeen) {
+                            throw new UnsupportedOperationException(
+                                    "Multiple MATCH clauses are not supported yet: "
+                                            + PatternDecoder.sourceText(context));
+                        } else if (patternPartCount(context) > 1) {
+                            throw new UnsupportedOperationException(
+                                    "Comma-separated patterns are not supported yet: "
+                                            + PatternDecoder.sourceText(context));
+                        } else {
+                            matchSeen = true;
+                        }
+                    }
+                    if (optionalDepth == NOT_SEEN) {
+                        if (patternDepth == NOT_SEEN) {
+                            if (rule == patternElementRule || rule == patternPartRule) {
+                                patternDepth = depth;
+                            } else if (rule == shortestPathPatternRule || rule == selectorRule) {
+                                // Both come before the element they select from.
+                                selector = selector(context);
+                            }
+                        } else if (!patternDone) {
+                            if (rule == nodePatternRule) {
+                                nodeContexts.add(context);
+                            } else if (rule == relationshipPatternRule) {
+                                relContexts.add(context);
+                            }
+                        }
+                    }
+                    if (returnItemRules[rule]) {
+                        returnItemContexts.add(context);
+                    }
+                    if (rule == whereClauseRule && context.getParent() instanceof ParserRuleContext parent
+                            && parent.getRuleIndex() == matchClauseRule && !hasKeyword(parent, "OPTIONAL")
+                            && !insideSubquery(context)) {
+                        for (int i = 0; i < context.getChildCount(); i++) {
+                            if (context.getChild(i) instanceof ParserRuleContext condition) {
+                                collectPredicates(condition, false, condition, predicateContexts, conjunctContexts);
+                            }
+                        }
+                    } else if (rule == returnBodyRule && !insideSubquery(context)) {
+                        distinct |= hasKeyword(context, "DISTINCT");
+                    } else if (isReturnBodyPart(context)) {
+                        if (rule == orderItemRule) {
+                            orderItemContexts.add(context);
+                        } else if (rule == skipRule) {
+                            skipContext = context;
+                        } else if (rule == limitRule) {
+                            limitContext = context;
+                        }
+                    }
+                    // Literal and name subtrees hold nothing else the model needs, so they are not descended.
+                    if (shapeBuilder.isLiteralRule(rule)) {
+                        marks.literal(context);
+                        continue;
+                    }
+                    if (shapeBuilder.isNameRule(rule)) {
+                        marks.name(context);
+                        continue;
+                    }
+                }
+                for (int i = context.getChildCount() - 1; i >= 0; i--) {
+                    final ParseTree child = context.getChild(i);
+                    if (child instanceof ParserRuleContext) {
+                        stack.push(child, depth + 1);
+                    }
+                }
+            }
+        }
+
+        final List<Pattern> patterns = decodePatterns(nodeContexts, relContexts, selector, marks);
+        final List<ReturnItem> returnItems = new ArrayList<>(returnItemContexts.size());
+        for (final ParserRuleContext context : returnItemContexts) {
+            returnItems.add(ReturnItem.fromContext(context));
+        }
+        final List<PatternPredicate> predicates = decodePredicates(predicateContexts, marks);
+        final List<Expression> conditions = decodeConditions(conjunctContexts, marks);
+        final List<OptionalMatch> optionalMatches = new ArrayList<>(optionalMatchContexts.size());
+        for (final ParserRuleContext context : optionalMatchContexts) {
+            optionalMatches.add(decodeOptionalMatch(context, marks));
+        }
+        final List<ResultSlice.SortItem> orderBy = new ArrayList<>(orderItemContexts.size());
+        for (final ParserRuleContext item : orderItemContexts) {
+            orderBy.add(new ResultSlice.SortItem(
+                    expressionDecoder.decode(firstRuleChild(item), marks), hasDescendingToken(item)));
+        }
+        final ResultSlice slice = new ResultSlice(
+                orderBy,
+                skipContext == null ? null : expressionDecoder.decode(firstRuleChild(skipContext), marks),
+                limitContext == null ? null : expressionDecoder.decode(firstRuleChild(limitContext), marks));
+        return new Extraction(patterns, returnItems, shapeBuilder.build(tokens, marks), distinct, predicates,
+                conditions, optionalMatches, slice);
+    }
+
+    private List<PatternPredicate> decodePredicates(
+            final List<PredicateContext> predicateContexts,
+            final ShapeBuilder.Marks marks) {
+        final List<PatternPredicate> predicates = new ArrayList<>(predicateContexts.size());
+        for (final PredicateContext predicate : predicateContexts) {
+            predicates.add(new PatternPredicate(decodePattern(predicate.element(), marks), predicate.negated()));
+        }
+        return predicates;
+    }
+
+    private List<Expression> decodeConditions(
+            final List<ParserRuleContext> conjunctContexts,
+            final ShapeBuilder.Marks marks) {
+        final List<Expression> conditions = new ArrayList<>(conjunctContexts.size());
+        for (final ParserRuleContext conjunct : conjunctContexts) {
+            conditions.add(expressionDecoder.decode(conjunct, marks));
+        }
+        return conditions;
+    }
+
+    // OPTIONAL MATCH patternList whereClause?: a single plain path, whose nodes may be anonymous.
+    private OptionalMatch decodeOptionalMatch(final ParserRuleContext clause, final ShapeBuilder.Marks marks) {
+        ParserRuleContext element = null;
+        final List<PredicateContext> predicateContexts = new ArrayList<>();
+        final List<ParserRuleContext> conjunctContexts = new ArrayList<>();
+        for (int i = 0; i < clause.getChildCount(); i++) {
+            if (!(clause.getChild(i) instanceof ParserRuleContext child)) {
+                continue;
+            }
+            if (child.getRuleIndex() == patternListRule) {
+                element = singleChildChain(child);
+            } else if (child.getRuleIndex() == whereClauseRule) {
+                for (int j = 0; j < child.getChildCount(); j++) {
+                    if (child.getChild(j) instanceof ParserRuleContext condition) {
+                        collectPredicates(condition, false, condition, predicateContexts, conjunctContexts);
+                    }
+                }
+            }
+        }
+        if (element == null || element.getRuleIndex() != patternElementRule || !isPlainPath(element)) {
+            throw new IllegalArgumentException("Unsupported OPTIONAL MATCH: " + PatternDecoder.sourceText(clause)
+                    + ". Only a single path pattern is supported.");
+        }
+        return new OptionalMatch(
+                decodePattern(element, marks),
+                decodePredicates(predicateContexts, marks),
+                decodeConditions(conjunctContexts, marks));
+    }
+
+    // Splits a WHERE expression into its AND-ed conjuncts, looking through single-child wrapper rules,
+    // parentheses and NOT prefixes. Conjuncts that only test for a pattern become pattern predicates; the
+    // rest (from `conjunct`, the context the conjunct starts at) are decoded as expressions.
+    private void collectPredicates(
+            final ParserRuleContext context,
+            final boolean negated,
+            final ParserRuleContext conjunct,
+            final List<PredicateContext> predicates,
+            final List<ParserRuleContext> conjuncts) {
+        final int rule = context.getRuleIndex();
+        if (rule == existsExpressionRule) {
+            final ParserRuleContext element = existsPatternElement(context);
+            if (element != null) {
+                predicates.add(new PredicateContext(element, negated));
+            } else {
+                conjuncts.add(conjunct);
+            }
+            return;
+        }
+        if (rule == patternExpressionRule) {
+            final ParserRuleContext element = singleChildChain(context);
+            if (isPlainPath(element)) {
+                predicates.add(new PredicateContext(element, negated));
+            } else {
+                conjuncts.add(conjunct);
+            }
+            return;
+        }
+        final List<ParserRuleContext> operands = new ArrayList<>(2);
+        int ands = 0;
+        int nots = 0;
+        boolean other = false;
+        for (int i = 0; i < context.getChildCount(); i++) {
+            final ParseTree child = context.getChild(i);
+            if (child instanceof ParserRuleContext operand) {
+                operands.add(operand);
+            } else if ("AND".equalsIgnoreCase(child.getText())) {
+                ands++;
+            } else if ("NOT".equalsIgnoreCase(child.getText()) && operands.isEmpty()) {
+                nots++;
+            } else if (!"(".equals(child.getText()) && !")".equals(child.getText())) {
+                other = true;
+            }
+        }
+        if (ands > 0 && !other && !negated && nots == 0 && ands == operands.size() - 1) {
+            for (final ParserRuleContext operand : operands) {
+                collectPredicates(operand, false, operand, predicates, conjuncts);
+            }
+        } else if (ands == 0 && !other && operands.size() == 1) {
+            collectPredicates(operands.get(0), negated ^ (nots % 2 == 1), conjunct, predicates, conjuncts);
+        } else {
+            conjuncts.add(conjunct);
+        }
+    }
+
+    // EXISTS { (a)-[:T]->(b) }: a single plain path, without a MATCH mode, inner WHERE or full subquery.
+    private ParserRuleContext existsPatternElement(final ParserRuleContext exists) {
+        ParserRuleContext patternList = null;
+        for (int i = 0; i < exists.getChildCount(); i++) {
+            if (exists.getChild(i) instanceof ParserRuleContext child) {
+                if (child.getRuleIndex() != patternListRule || patternList != null) {
+                    return null;
+                }
+                patternList = child;
+            }
+        }
+        if (patternList == null) {
+            return null;
+        }
+        final ParserRuleContext element = singleChildChain(patternList);
+        return element.getRuleIndex() == patternElementRule && isPlainPath(element) ? element : null;
+    }
+
+    // MATCH patternList ...: the number of comma-separated parts in the clause's pattern list.
+    private int patternPartCount(final ParserRuleContext clause) {
+        for (int i = 0; i < clause.getChildCount(); i++) {
+            if (clause.getChild(i) instanceof ParserRuleContext child && child.getRuleIndex() == patternListRule) {
+                int parts = 0;
+                for (int j = 0; j < child.getChildCount(); j++) {
+                    if (child.getChild(j) instanceof ParserRuleContext) {
+                        parts++;
+                    }
+                }
+                return parts;
+            }
+        }
+        return 0;
+    }
+
+    // Follows wrapper rules with exactly one child (pattern -> anonymousPattern -> patternElement, ...).
+    private static ParserRuleContext singleChildChain(final ParserRuleContext context) {
+        ParserRuleContext current = context;
+        while (current.getChildCount() == 1 && current.getChild(0) instanceof ParserRuleContext child) {
+            current = child;
+        }
+        return current;
+    }
+
+    // Alternating node and relationship patterns only: no quantifiers, parenthesized paths or selectors.
+    private boolean isPlainPath(final ParserRuleContext element) {
+        for (int i = 0; i < element.getChildCount(); i++) {
+            if (!(element.getChild(i) instanceof ParserRuleContext child)) {
+                return false;
+            }
+            final int expected = i % 2 == 0 ? nodePatternRule : relationshipPatternRule;
+            if (child.getRuleIndex() != expected) {
+                return false;
+            }
+        }
+        return element.getChildCount() % 2 == 1;
+    }
+
+    private Pattern decodePattern(final ParserRuleContext element, final ShapeBuilder.Marks marks) {
+        final List<Node> nodes = new ArrayList<>();
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < element.getChildCount(); i++) {
+            final ParserRuleContext child = (ParserRuleContext) element.getChild(i);
+            if (i % 2 == 0) {
+                nodes.add(decoder.node(child, marks, true));
+            } else {
+                edges.add(decoder.edge(child, marks));
+            }
+        }
+        return new Pattern(nodes, edges);
+    }
+
+    private boolean insideSubquery(final ParserRuleContext context) {
+        for (ParserRuleContext current = context.getParent(); current != null; current = current.getParent()) {
+            final int rule = current.getRuleIndex();
+            if (rule >= 0 && subqueryRules[rule]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ORDER BY items, SKIP and LIMIT of the query's own RETURN (returnBody -> orderBy -> orderItem).
+    private boolean isReturnBodyPart(final ParserRuleContext context) {
+        final int rule = context.getRuleIndex();
+        if (rule != orderItemRule && rule != skipRule && rule != limitRule) {
+            return false;
+        }
+        for (ParserRuleContext current = context.getParent(); current != null; current = current.getParent()) {
+            if (current.getRuleIndex() == returnBodyRule) {
+                return !insideSubquery(current);
+            }
+        }
+        return false;
+    }
+
+    private static ParserRuleContext firstRuleChild(final ParserRuleContext context) {
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (context.getChild(i) instanceof ParserRuleContext child) {
+                return child;
+            }
+        }
+        throw new IllegalArgumentException("Missing expression in " + PatternDecoder.sourceText(context));
+    }
+
+    // orderItem: expression followed by an optional ASC/ASCENDING or DESC/DESCENDING token.
+    private static boolean hasDescendingToken(final ParserRuleContext orderItem) {
+        if (orderItem.getChildCount() < 2) {
+            return false;
+        }
+        final String direction = orderItem.getChild(orderItem.getChildCount() - 1).getText();
+        return direction.toUpperCase(Locale.ROOT).startsWith("DESC");
+    }
+
+    private static boolean hasKeyword(final ParserRuleContext context, final String keyword) {
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (context.getChild(i) instanceof TerminalNode terminal && keyword.equalsIgnoreCase(terminal.getText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Pattern> decodePatterns(
+            final List<ParserRuleContext> nodeContexts,
+            final List<ParserRuleContext> relContexts,
+            final Pattern.Selector selector,
+            final ShapeBuilder.Marks marks) {
+        if (nodeContexts.isEmpty()) {
+            return List.of();
+        }
+        final List<Node> nodes = new ArrayList<>(nodeContexts.size());
+        for (final ParserRuleContext nodeContext : nodeContexts) {
+            nodes.add(decoder.node(nodeContext, marks));
+        }
+        final List<Edge> edges = new ArrayList<>(relContexts.size());
+        for (final ParserRuleContext relContext : relContexts) {
+            edges.add(decoder.edge(relContext, marks));
+        }
+        return List.of(new Pattern(nodes, edges, selector));
+    }
+
+    // shortestPath(...) / allShortestPaths(...), or a GQL selector: ANY SHORTEST, ALL SHORTEST, SHORTEST 1 or ALL,
+    // each optionally followed by PATH or PATHS. Selecting a number of paths or groups is not translated.
+    private Pattern.Selector selector(final ParserRuleContext context) {
+        final List<String> words = new ArrayList<>();
+        if (context.getRuleIndex() == shortestPathPatternRule) {
+            // The function name is the first token; the rest is the enclosed pattern.
+            words.add(context.getStart().getText().toUpperCase(Locale.ROOT));
+        } else {
+            collectWords(context, words);
+        }
+        if (!words.isEmpty() && words.get(words.size() - 1).startsWith("PATH")) {
+            words.remove(words.size() - 1);
+        }
+        if (words.equals(List.of("SHORTESTPATH")) || words.equals(List.of("ANY", "SHORTEST"))
+                || words.equals(List.of("SHORTEST", "1"))) {
+            return Pattern.Selector.SHORTEST;
+        }
+        if (words.equals(List.of("ALLSHORTESTPATHS")) || words.equals(List.of("ALL", "SHORTEST"))) {
+            return Pattern.Selector.ALL_SHORTEST;
+        }
+        if (words.equals(List.of("ALL"))) {
+            return Pattern.Selector.ALL;
+        }
+        throw new IllegalArgumentException("Unsupported path selector: " + PatternDecoder.sourceText(context));
+    }
+
+    private static void collectWords(final ParseTree tree, final List<String> words) {
+        if (tree instanceof TerminalNode terminal) {
+            words.add(terminal.getText().toUpperCase(Locale.ROOT));
+            return;
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectWords(tree.getChild(i), words);
+        }
+    }
+
+    record Extraction(
+            List<Pattern> patterns,
+            List<ReturnItem> returnItems,
+            QueryShape shape,
+            boolean distinct,
+            List<PatternPredicate> patternPredicates,
+            List<Expression> conditions,
+            List<OptionalMatch> optionalMatches,
+            ResultSlice slice) {
+        Extraction(final List<Pattern> patterns, final List<ReturnItem> returnItems, final QueryShape shape) {
+            this(patterns, returnItems, shape, false, List.of(), List.of(), List.of(), ResultSlice.NONE);
+        }
+    }
+
+    private record PredicateContext(ParserRuleContext element, boolean negated) {
+    }
+
+    // Parallel arrays instead of a Deque of (tree, depth) pairs so the walk does not box depths.
+    private static final class WalkStack {
+        private ParseTree[] trees = new ParseTree[32];
+        private int[] depths = new int[32];
+        private int size;
+
+        void push(final ParseTree tree, final int depth) {
+            if (size == trees.length) {
+                trees = Arrays.copyOf(trees, size * 2);
+                depths = Arrays.copyOf(depths, size * 2);
+            }
+            trees[size] = tree;
+            depths[size] = depth;
+            size++;
+        }
+
+        int topDepth() {
+            return depths[size - 1];
+        }
+
+        ParseTree pop() {
+            final ParseTree tree = trees[--size];
+            trees[size] = null;
+            return tree;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.iisaka.cypher2sql.query.cypher;
 
-public final class Node {
-    private final String variable;
-    private final String label;
+import java.util.List;
+import java.util.Map;
 
-    public Node(final String variable, final String label) {
-        this.variable = variable;
-        this.label = label;
+// Property values are $name for a parameter (literals are lifted to $__litN), else their Cypher source text,
+// which never starts with `$` (see PatternDecoder.properties). labels holds every name of the label
+// expression, label the first of them: the node has all of them (`(n:A:B)`), or with anyLabel at least one
+// (`(n:A|B)`).
+public record Node(
+        String variable,
+        String label,
+        Map<String, String> properties,
+        List<String> labels,
+        boolean anyLabel) {
+    public Node {
+        labels = labels.isEmpty() && label != null ? List.of(label) : List.copyOf(labels);
     }
 
-    public String variable() {
-        return variable;
+    public Node(final String variable, final String label, final Map<String, String> properties) {
+        this(variable, label, properties, List.of(), false);
     }
 
-    public String label() {
-        return label;
+    public Node(final String variable, final String label) {
+        this(variable, label, Map.of());
     }
 }
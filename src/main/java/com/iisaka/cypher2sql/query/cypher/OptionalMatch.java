@@ -0,0 +1,13 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.util.List;
+
+// An OPTIONAL MATCH following the MATCH, with the top-level WHERE conjuncts written after it: when the
+// pattern has no match satisfying them, the row is kept and the variables it introduces are null. Nodes
+// may be anonymous; a node whose variable the MATCH binds connects the two.
+public record OptionalMatch(Pattern pattern, List<PatternPredicate> patternPredicates, List<Expression> conditions) {
+    public OptionalMatch {
+        patternPredicates = List.copyOf(patternPredicates);
+        conditions = List.copyOf(conditions);
+    }
+}
@@ -0,0 +1,65 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.time.Duration;
+
+// Upper bounds on the work one parse (and, through Mapping, one translation) may do. Lengths and counts
+// are checked before or while parsing; the timeout becomes a Deadline polled cooperatively by the parser's
+// rule entries, its prediction loop and the planner. Exceeding any bound throws a BudgetExceededException.
+public record ParseBudget(int maxInputLength, int maxTokens, int maxDepth, Duration timeout) {
+    private static final ParseBudget UNLIMITED =
+            new ParseBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    public ParseBudget {
+        if (maxInputLength <= 0) {
+            throw new IllegalArgumentException("Budget maxInputLength must be positive: " + maxInputLength);
+        }
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("Budget maxTokens must be positive: " + maxTokens);
+        }
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Budget maxDepth must be positive: " + maxDepth);
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Budget timeout must be positive: " + timeout);
+        }
+    }
+
+    public static ParseBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public ParseBudget withMaxInputLength(final int maxInputLength) {
+        return new ParseBudget(maxInputLength, maxTokens, maxDepth, timeout);
+    }
+
+    public ParseBudget withMaxTokens(final int maxTokens) {
+        return new ParseBudget(maxInputLength, maxTokens, maxDepth, timeout);
+    }
+
+    public ParseBudget withMaxDepth(final int maxDepth) {
+        return new ParseBudget(maxInputLength, maxTokens, maxDepth, timeout);
+    }
+
+    public ParseBudget withTimeout(final Duration timeout) {
+        return new ParseBudget(maxInputLength, maxTokens, maxDepth, timeout);
+    }
+
+    public boolean limitsTokens() {
+        return maxTokens != Integer.MAX_VALUE;
+    }
+
+    public boolean limitsDepth() {
+        return maxDepth != Integer.MAX_VALUE;
+    }
+
+    // Starts the clock: the deadline covers everything done with it from now on.
+    public Deadline deadline() {
+        return timeout == null ? Deadline.none() : Deadline.after(timeout);
+    }
+
+    public void checkInputLength(final String cypher) {
+        if (cypher.length() > maxInputLength) {
+            throw new BudgetExceededException.InputTooLong(cypher.length(), maxInputLength);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+// Hop bounds of a variable-length relationship: `*` is 1..unbounded, `*3` is 3..3, `*..5` is 1..5 and
+// `*2..` is 2..unbounded. An unbounded maximum is Integer.MAX_VALUE.
+public record PathLength(int min, int max) {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    public PathLength {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid variable-length bounds: *" + min + ".." + max);
+        }
+    }
+
+    public boolean isBounded() {
+        return max != UNBOUNDED;
+    }
+
+    // Decodes the text of a pathLength context, e.g. "*", "*3", "*1..5", "*..5" or "*2..".
+    static PathLength parse(final String text) {
+        final String bounds = text.startsWith("*") ? text.substring(1).trim() : text.trim();
+        if (bounds.isEmpty()) {
+            return new PathLength(1, UNBOUNDED);
+        }
+        final int range = bounds.indexOf("..");
+        if (range < 0) {
+            final int exact = bound(bounds);
+            return new PathLength(exact, exact);
+        }
+        final String lower = bounds.substring(0, range).trim();
+        final String upper = bounds.substring(range + 2).trim();
+        return new PathLength(lower.isEmpty() ? 1 : bound(lower), upper.isEmpty() ? UNBOUNDED : bound(upper));
+    }
+
+    private static int bound(final String digits) {
+        final long value = Long.parseLong(digits.replace("_", ""));
+        return value >= UNBOUNDED ? UNBOUNDED : (int) value;
+    }
+}
@@ -0,0 +1,242 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Decodes nodePattern/relationshipPattern contexts from their child rules and tokens instead of
+// re-scanning getText(), so names like "somewhere" or "wherever" are not mistaken for keywords.
+final class PatternDecoder {
+    private final int variableRule;
+    private final int labelExpressionRule;
+    private final int propertiesRule;
+    private final int mapRule;
+    private final int propertyKeyNameRule;
+    private final int leftArrowRule;
+    private final int rightArrowRule;
+    private final int pathLengthRule;
+    private final int parameterRule;
+    private final boolean[] nameRules;
+
+    PatternDecoder(final String[] ruleNames) {
+        final List<String> names = Arrays.asList(ruleNames);
+        this.variableRule = names.indexOf("variable");
+        this.labelExpressionRule = names.indexOf("labelExpression");
+        this.propertiesRule = names.indexOf("properties");
+        this.mapRule = names.indexOf("map");
+        this.propertyKeyNameRule = names.indexOf("propertyKeyName");
+        this.leftArrowRule = names.indexOf("leftArrow");
+        this.rightArrowRule = names.indexOf("rightArrow");
+        this.pathLengthRule = names.indexOf("pathLength");
+        this.parameterRule = names.indexOf("parameter");
+        this.nameRules = new boolean[ruleNames.length];
+        for (final String nameRule : List.of("symbolicNameString", "symbolicLabelNameString")) {
+            final int index = names.indexOf(nameRule);
+            if (index >= 0) {
+                nameRules[index] = true;
+            }
+        }
+    }
+
+    Node node(final ParserRuleContext context, final ShapeBuilder.Marks marks) {
+        return node(context, marks, false);
+    }
+
+    // Predicate patterns may leave nodes anonymous; they are decoded with a null variable.
+    Node node(final ParserRuleContext context, final ShapeBuilder.Marks marks, final boolean allowAnonymous) {
+        String variable = null;
+        LabelNames labels = LabelNames.NONE;
+        Map<String, String> properties = Map.of();
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (!(context.getChild(i) instanceof ParserRuleContext child)) {
+                continue;
+            }
+            final int rule = child.getRuleIndex();
+            if (rule == variableRule) {
+                variable = name(child.getStart());
+            } else if (rule == labelExpressionRule) {
+                labels = labelNames(child);
+            } else if (rule == propertiesRule) {
+                properties = properties(child, marks);
+            }
+        }
+        if (variable == null && !allowAnonymous) {
+            throw new IllegalArgumentException("Node pattern missing variable: " + sourceText(context));
+        }
+        return new Node(variable, labels.first(), properties, labels.names(), labels.any());
+    }
+
+    Edge edge(final ParserRuleContext context, final ShapeBuilder.Marks marks) {
+        String variable = null;
+        LabelNames types = LabelNames.NONE;
+        Map<String, String> properties = Map.of();
+        PathLength length = null;
+        boolean leftArrow = false;
+        boolean rightArrow = false;
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (!(context.getChild(i) instanceof ParserRuleContext child)) {
+                continue;
+            }
+            final int rule = child.getRuleIndex();
+            if (rule == variableRule) {
+                variable = name(child.getStart());
+            } else if (rule == labelExpressionRule) {
+                types = labelNames(child);
+                if (types.names().size() > 1 && !types.any()) {
+                    // A relationship has exactly one type, so `[:A&B]` could never match.
+                    throw new IllegalArgumentException(
+                            "Unsupported relationship type expression: " + sourceText(child));
+                }
+            } else if (rule == propertiesRule) {
+                properties = properties(child, marks);
+            } else if (rule == leftArrowRule) {
+                leftArrow = true;
+            } else if (rule == rightArrowRule) {
+                rightArrow = true;
+            } else if (rule == pathLengthRule) {
+                length = PathLength.parse(child.getText());
+            }
+        }
+
+        final Edge.Direction direction;
+        if (rightArrow && !leftArrow) {
+            direction = Edge.Direction.LEFT_TO_RIGHT;
+        } else if (leftArrow && !rightArrow) {
+            direction = Edge.Direction.RIGHT_TO_LEFT;
+        } else {
+            direction = Edge.Direction.UNDIRECTED;
+        }
+        return new Edge(variable, types.first(), direction, properties, length, types.names());
+    }
+
+    // Names of a label expression that is a plain conjunction (`:A:B`, `:A&B`) or disjunction (`:A|B`,
+    // `:A|:B`). Negation, wildcards, grouping and dynamic labels are not translated.
+    private LabelNames labelNames(final ParserRuleContext labelExpression) {
+        final List<String> names = new ArrayList<>();
+        final List<String> operators = new ArrayList<>();
+        collectLabelTokens(labelExpression, names, operators);
+        boolean any = false;
+        boolean all = false;
+        // The first operator is the leading `:` (or IS).
+        for (int i = 1; i < operators.size(); i++) {
+            final String operator = operators.get(i);
+            if ("|".equals(operator)) {
+                any = true;
+            } else if ((":".equals(operator) && !"|".equals(operators.get(i - 1))) || "&".equals(operator)) {
+                all = true;
+            } else if (!":".equals(operator)) {
+                throw new IllegalArgumentException("Unsupported label expression: " + sourceText(labelExpression));
+            }
+        }
+        if ((any && all) || names.isEmpty()) {
+            throw new IllegalArgumentException("Unsupported label expression: " + sourceText(labelExpression));
+        }
+        return new LabelNames(List.copyOf(names), any);
+    }
+
+    // Label and type names in order, and the tokens between them; the name rules wrap exactly one identifier.
+    private void collectLabelTokens(final ParseTree tree, final List<String> names, final List<String> operators) {
+        if (tree instanceof TerminalNode terminal) {
+            operators.add(terminal.getText());
+            return;
+        }
+        if (tree instanceof ParserRuleContext context) {
+            final int rule = context.getRuleIndex();
+            if (rule >= 0 && rule < nameRules.length && nameRules[rule]) {
+                names.add(name(context.getStart()));
+                return;
+            }
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectLabelTokens(tree.getChild(i), names, operators);
+        }
+    }
+
+    private record LabelNames(List<String> names, boolean any) {
+        static final LabelNames NONE = new LabelNames(List.of(), false);
+
+        String first() {
+            return names.isEmpty() ? null : names.get(0);
+        }
+    }
+
+    // Values that are a single literal are recorded as their lifted parameter ($__litN); see QueryShape. A
+    // lone parameter is recorded as $name; any other expression keeps its source text, parenthesized when it
+    // starts with a parameter (`$a + 1`), so only a real parameter reads as one.
+    private Map<String, String> properties(final ParserRuleContext propertiesContext, final ShapeBuilder.Marks marks) {
+        final ParserRuleContext map = firstChild(propertiesContext, mapRule);
+        if (map == null) {
+            // A whole-map parameter (`{...}` replaced by `$props`) has no statically known keys.
+            return Map.of();
+        }
+        final Map<String, String> properties = new LinkedHashMap<>();
+        String key = null;
+        for (int i = 0; i < map.getChildCount(); i++) {
+            if (!(map.getChild(i) instanceof ParserRuleContext child)) {
+                continue;
+            }
+            if (child.getRuleIndex() == propertyKeyNameRule) {
+                key = name(child.getStart());
+            } else if (key != null) {
+                properties.put(key, propertyValue(child, marks));
+                key = null;
+            }
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    private String propertyValue(final ParserRuleContext value, final ShapeBuilder.Marks marks) {
+        final int literal = marks.literalOrdinal(value);
+        if (literal >= 0) {
+            return "$" + QueryShape.parameterName(literal);
+        }
+        // Expression rules nest one child deep down to the parameter, which is `$` and its name.
+        ParserRuleContext context = value;
+        while (context.getRuleIndex() != parameterRule
+                && context.getChildCount() == 1 && context.getChild(0) instanceof ParserRuleContext child) {
+            context = child;
+        }
+        if (context.getRuleIndex() == parameterRule && context.getChildCount() == 2) {
+            return "$" + name(context.getStop());
+        }
+        final String text = sourceText(value);
+        return text.startsWith("$") ? "(" + text + ")" : text;
+    }
+
+    private static ParserRuleContext firstChild(final ParserRuleContext context, final int rule) {
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (context.getChild(i) instanceof ParserRuleContext child && child.getRuleIndex() == rule) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    // Identifier token text; backtick-escaped names are unquoted (`` `my label` `` -> my label).
+    static String name(final Token token) {
+        final String text = token.getText();
+        if (text.length() >= 2 && text.charAt(0) == '`' && text.charAt(text.length() - 1) == '`') {
+            return text.substring(1, text.length() - 1).replace("``", "`");
+        }
+        return text;
+    }
+
+    // Original source slice (whitespace preserved) rather than the concatenated token texts of getText().
+    static String sourceText(final ParserRuleContext context) {
+        final Token start = context.getStart();
+        final Token stop = context.getStop();
+        if (start == null || stop == null || stop.getStopIndex() < start.getStartIndex()) {
+            return "";
+        }
+        return start.getInputStream().getText(Interval.of(start.getStartIndex(), stop.getStopIndex()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+// A top-level WHERE conjunct that only tests for a pattern: `EXISTS { (a)-[:T]->(:L) }` or the bare
+// pattern `(a)-[:T]->(:L)`, negated under NOT. Nodes introduced inside the pattern may be anonymous
+// (null variable); nodes whose variable is bound by the MATCH correlate it with the outer query.
+public record PatternPredicate(Pattern pattern, boolean negated) {
+}
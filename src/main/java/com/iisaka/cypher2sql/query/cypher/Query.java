@@ -1,24 +1,54 @@
 package com.iisaka.cypher2sql.query.cypher;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 public final class Query {
+    public enum ParseTreeRetention {
+        // Keep the ANTLR tree reachable through parseTree(); it usually outweighs the model many times over.
+        RETAIN,
+        // Keep only the compact model (raw text, patterns, return items); parseTree() returns null.
+        DISCARD
+    }
+
     private final String raw;
     private final List<Pattern> patterns;
     private final List<ReturnItem> returnItems;
-    private final ParseTree parseTree;
+    private final boolean distinct;
+    private final List<PatternPredicate> patternPredicates;
+    private final List<Expression> conditions;
+    private final List<OptionalMatch> optionalMatches;
+    private final ResultSlice slice;
+    private final QueryShape shape;
+    private final ParseTreeRetention retention;
+    // Builds the tree of a fast-path query on request.
+    private final Syntax syntax;
+    private volatile ParseTree parseTree;
 
     private Query(
             final String raw,
             final List<Pattern> patterns,
             final List<ReturnItem> returnItems,
+            final boolean distinct,
+            final List<PatternPredicate> patternPredicates,
+            final List<Expression> conditions,
+            final List<OptionalMatch> optionalMatches,
+            final ResultSlice slice,
+            final QueryShape shape,
+            final ParseTreeRetention retention,
+            final Syntax syntax,
             final ParseTree parseTree) {
         this.raw = raw;
-        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
-        this.returnItems = Collections.unmodifiableList(new ArrayList<>(returnItems));
+        this.patterns = List.copyOf(patterns);
+        this.returnItems = List.copyOf(returnItems);
+        this.distinct = distinct;
+        this.patternPredicates = List.copyOf(patternPredicates);
+        this.conditions = List.copyOf(conditions);
+        this.optionalMatches = List.copyOf(optionalMatches);
+        this.slice = slice;
+        this.shape = shape;
+        this.retention = retention;
+        this.syntax = syntax;
         this.parseTree = parseTree;
     }
 
@@ -34,15 +64,90 @@ public final class Query {
         return returnItems;
     }
 
+    // RETURN DISTINCT: duplicate result rows are dropped, so pattern multiplicity does not matter.
+    public boolean distinct() {
+        return distinct;
+    }
+
+    // Pattern tests among the MATCH's top-level WHERE conjuncts; see PatternPredicate.
+    public List<PatternPredicate> patternPredicates() {
+        return patternPredicates;
+    }
+
+    // The other top-level WHERE conjuncts of the MATCH, AND-ed together.
+    public List<Expression> conditions() {
+        return conditions;
+    }
+
+    // OPTIONAL MATCH clauses after the MATCH, in query order.
+    public List<OptionalMatch> optionalMatches() {
+        return optionalMatches;
+    }
+
+    // ORDER BY / SKIP / LIMIT of the RETURN; ResultSlice.NONE when there are none.
+    public ResultSlice slice() {
+        return slice;
+    }
+
+    // Literal-free text, fingerprint and lifted literal values; see QueryShape.
+    public QueryShape shape() {
+        return shape;
+    }
+
+    // Queries taken by the fast path build their ANTLR tree on first request; see SimpleQueryRecognizer.
     public ParseTree parseTree() {
-        return parseTree;
+        if (retention == ParseTreeRetention.DISCARD) {
+            return null;
+        }
+        ParseTree tree = parseTree;
+        if (tree == null) {
+            tree = syntax.parseTree(raw);
+            parseTree = tree;
+        }
+        return tree;
+    }
+
+    public boolean hasParseTree() {
+        return retention == ParseTreeRetention.RETAIN;
     }
 
     public static Query parse(final String cypher) {
-        final Syntax.ParsedCypher parseResult = Syntax.cypher25().parse(cypher);
-        final ParseTree parseTree = parseResult.parseTree();
-        final List<Pattern> parsed = new ArrayList<>(parseResult.patterns());
-        final List<ReturnItem> returnItems = new ArrayList<>(parseResult.returnItems());
-        return new Query(cypher, parsed, returnItems, parseTree);
+        return parse(cypher, ParseTreeRetention.RETAIN);
+    }
+
+    // Compact form for callers that hold many parsed queries (e.g. caches): the parse tree is dropped.
+    public static Query parseCompact(final String cypher) {
+        return parse(cypher, ParseTreeRetention.DISCARD);
+    }
+
+    public static Query parse(final String cypher, final ParseTreeRetention retention) {
+        final Syntax syntax = Syntax.cypher25();
+        return parse(cypher, retention, syntax, syntax.budget().deadline());
+    }
+
+    // Parses under the syntax's budget; the deadline may be shared with later stages such as planning.
+    public static Query parse(
+            final String cypher,
+            final ParseTreeRetention retention,
+            final Syntax syntax,
+            final Deadline deadline) {
+        final ParseBudget budget = syntax.budget();
+        budget.checkInputLength(cypher);
+        // Token and depth bounds count ANTLR tokens and tree levels, which the fast path never builds; a budget
+        // that sets them sends every query through Syntax.parse, so both paths accept the same inputs.
+        final ModelExtractor.Extraction recognized = budget.limitsTokens() || budget.limitsDepth()
+                ? null
+                : SimpleQueryRecognizer.recognize(cypher);
+        if (recognized != null) {
+            deadline.check("parsing");
+            return new Query(cypher, recognized.patterns(), recognized.returnItems(), recognized.distinct(),
+                    recognized.patternPredicates(), recognized.conditions(), recognized.optionalMatches(),
+                    recognized.slice(), recognized.shape(), retention, syntax, null);
+        }
+        final Syntax.ParsedCypher parseResult = syntax.parse(cypher, deadline);
+        final ParseTree parseTree = retention == ParseTreeRetention.RETAIN ? parseResult.parseTree() : null;
+        return new Query(cypher, parseResult.patterns(), parseResult.returnItems(), parseResult.distinct(),
+                parseResult.patternPredicates(), parseResult.conditions(), parseResult.optionalMatches(),
+                parseResult.slice(), parseResult.shape(), retention, syntax, parseTree);
     }
 }
@@ -0,0 +1,50 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Literal-free form of a query: every string/number literal is lifted into a positional parameter
+// ($__lit0, $__lit1, ...) whose value is kept in literals(), so queries that differ only in their
+// literal values share the same text and fingerprint.
+public record QueryShape(String text, String fingerprint, List<Object> literals) {
+    private static final String LITERAL_PARAMETER_PREFIX = "__lit";
+
+    public QueryShape {
+        literals = List.copyOf(literals);
+    }
+
+    static QueryShape of(final String text, final List<Object> literals) {
+        return new QueryShape(text, fingerprintOf(text), literals);
+    }
+
+    public static String parameterName(final int position) {
+        return LITERAL_PARAMETER_PREFIX + position;
+    }
+
+    // Lifted literal values keyed by their parameter name, in position order.
+    public Map<String, Object> parameters() {
+        return parameters(literals);
+    }
+
+    public static Map<String, Object> parameters(final List<Object> literals) {
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < literals.size(); i++) {
+            parameters.put(parameterName(i), literals.get(i));
+        }
+        return parameters;
+    }
+
+    static String fingerprintOf(final String text) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+}
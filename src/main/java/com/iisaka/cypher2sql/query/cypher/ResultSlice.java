@@ -0,0 +1,20 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.util.List;
+
+// ORDER BY, SKIP and LIMIT of the RETURN. skip and limit are null when absent; literal counts are lifted
+// like any other literal, so in practice they are Parameters.
+public record ResultSlice(List<SortItem> orderBy, Expression skip, Expression limit) {
+    public static final ResultSlice NONE = new ResultSlice(List.of(), null, null);
+
+    public ResultSlice {
+        orderBy = List.copyOf(orderBy);
+    }
+
+    public boolean isEmpty() {
+        return orderBy.isEmpty() && skip == null && limit == null;
+    }
+
+    public record SortItem(Expression expression, boolean descending) {
+    }
+}
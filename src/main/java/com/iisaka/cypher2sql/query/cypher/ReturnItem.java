@@ -4,53 +4,92 @@ import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
 
-public record ReturnItem(String variable, String property) {
-    // Reads RETURN/projection items from the parse tree and normalizes to variable/property form.
-    public static List<ReturnItem> extract(final String[] ruleNames, final ParseTree parseTree) {
-        final List<ParserRuleContext> returnItemContexts = new ArrayList<>();
-        final Deque<ParseTree> stack = new ArrayDeque<>();
-        stack.push(parseTree);
-        while (!stack.isEmpty()) {
-            final ParseTree current = stack.pop();
-            if (current instanceof ParserRuleContext context) {
-                final String ruleName = ruleNames[context.getRuleIndex()];
-                if (isReturnItemRule(ruleName)) {
-                    returnItemContexts.add(context);
-                }
-            }
-            for (int i = current.getChildCount() - 1; i >= 0; i--) {
-                stack.push(current.getChild(i));
-            }
-        }
+// `v`, `v.prop`, or an aggregate over one of them: `count(v)`, `sum(DISTINCT v.prop)`, `count(*)` (variable
+// and property null). aggregate is null for plain items.
+public record ReturnItem(String variable, String property, Aggregate aggregate) {
+    public enum Function {
+        COUNT,
+        SUM,
+        AVG,
+        MIN,
+        MAX,
+        COLLECT
+    }
 
-        final List<ReturnItem> items = new ArrayList<>();
-        for (final ParserRuleContext context : returnItemContexts) {
-            final String expr = returnExpressionText(context);
-            items.add(parseProjectionExpression(expr));
-        }
-        return items;
+    public record Aggregate(Function function, boolean distinct) {
+    }
+
+    public ReturnItem(final String variable, final String property) {
+        this(variable, property, null);
     }
 
-    private static String returnExpressionText(final ParserRuleContext context) {
-        final StringBuilder beforeAlias = new StringBuilder();
-        boolean sawAs = false;
+    public boolean isAggregate() {
+        return aggregate != null;
+    }
+
+    // Normalizes a RETURN/projection item context (collected by ModelExtractor) to variable/property form.
+    static ReturnItem fromContext(final ParserRuleContext context) {
+        final List<String> tokens = new ArrayList<>();
         for (int i = 0; i < context.getChildCount(); i++) {
             final ParseTree child = context.getChild(i);
             if (child instanceof TerminalNode terminal && "AS".equalsIgnoreCase(terminal.getText())) {
-                sawAs = true;
                 break;
             }
-            beforeAlias.append(child.getText());
+            collectTokens(child, tokens);
+        }
+        // name ( [DISTINCT] expression ): the tokens are compared rather than the text, which has no spaces.
+        if (tokens.size() >= 4 && "(".equals(tokens.get(1)) && ")".equals(tokens.get(tokens.size() - 1))) {
+            return parseAggregate(tokens);
+        }
+        return parseProjectionExpression(String.join("", tokens));
+    }
+
+    private static void collectTokens(final ParseTree tree, final List<String> tokens) {
+        if (tree instanceof TerminalNode terminal) {
+            tokens.add(terminal.getText());
+            return;
         }
-        return (sawAs ? beforeAlias.toString() : context.getText()).trim();
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectTokens(tree.getChild(i), tokens);
+        }
+    }
+
+    private static ReturnItem parseAggregate(final List<String> tokens) {
+        final String text = sourceText(tokens);
+        final Function function = switch (tokens.get(0).toUpperCase(Locale.ROOT)) {
+            case "COUNT" -> Function.COUNT;
+            case "SUM" -> Function.SUM;
+            case "AVG" -> Function.AVG;
+            case "MIN" -> Function.MIN;
+            case "MAX" -> Function.MAX;
+            case "COLLECT" -> Function.COLLECT;
+            default -> throw unsupported(text);
+        };
+        List<String> argument = tokens.subList(2, tokens.size() - 1);
+        final boolean distinct = "DISTINCT".equalsIgnoreCase(argument.get(0));
+        if (distinct) {
+            argument = argument.subList(1, argument.size());
+        }
+        if (function == Function.COUNT && !distinct && argument.equals(List.of("*"))) {
+            return new ReturnItem(null, null, new Aggregate(function, false));
+        }
+        if (argument.isEmpty()) {
+            throw unsupported(text);
+        }
+        final ReturnItem item;
+        try {
+            item = parseProjectionExpression(String.join("", argument));
+        } catch (IllegalArgumentException ex) {
+            throw unsupported(text);
+        }
+        return new ReturnItem(item.variable(), item.property(), new Aggregate(function, distinct));
     }
 
-    private static boolean isReturnItemRule(final String ruleName) {
+    static boolean isReturnItemRule(final String ruleName) {
         final String normalized = ruleName.replaceAll("[^A-Za-z0-9]", "").toLowerCase();
         return normalized.endsWith("returnitem") || normalized.endsWith("projectionitem");
     }
@@ -75,6 +114,24 @@ public record ReturnItem(String variable, String property) {
         throw unsupported(expr);
     }
 
+    // Token texts joined as written: a space only between two word tokens, e.g. `count(DISTINCT m.year)`.
+    private static String sourceText(final List<String> tokens) {
+        final StringBuilder text = new StringBuilder();
+        for (final String token : tokens) {
+            final boolean words = !text.isEmpty()
+                    && isWordCharacter(text.charAt(text.length() - 1)) && isWordCharacter(token.charAt(0));
+            if (words) {
+                text.append(' ');
+            }
+            text.append(token);
+        }
+        return text.toString();
+    }
+
+    private static boolean isWordCharacter(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '`';
+    }
+
     private static boolean isIdentifier(final String value) {
         if (value == null || value.isEmpty()) {
             return false;
@@ -94,6 +151,7 @@ public record ReturnItem(String variable, String property) {
 
     private static IllegalArgumentException unsupported(final String expr) {
         return new IllegalArgumentException(
-                "Unsupported RETURN expression: " + expr + ". Only variable or variable.property are supported.");
+                "Unsupported RETURN expression: " + expr + ". Only variable or variable.property are supported, "
+                        + "alone or in count, sum, avg, min, max or collect.");
     }
 }
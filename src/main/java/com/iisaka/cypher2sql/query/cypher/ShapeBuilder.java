@@ -0,0 +1,125 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Builds the QueryShape from the token stream once ModelExtractor has marked which token ranges are
+// literals and which are names. Keyword tokens are upper-cased; names keep their case.
+final class ShapeBuilder {
+    private final int numberLiteralRule;
+    private final int stringLiteralRule;
+    private final boolean[] nameRules;
+    private final Vocabulary vocabulary;
+
+    ShapeBuilder(final String[] ruleNames, final Vocabulary vocabulary) {
+        final List<String> names = Arrays.asList(ruleNames);
+        this.numberLiteralRule = names.indexOf("numberLiteral");
+        this.stringLiteralRule = names.indexOf("stringLiteral");
+        this.nameRules = new boolean[ruleNames.length];
+        for (int i = 0; i < ruleNames.length; i++) {
+            nameRules[i] = ruleNames[i].toLowerCase(Locale.ROOT).contains("symbolic");
+        }
+        this.vocabulary = vocabulary;
+    }
+
+    boolean isLiteralRule(final int rule) {
+        return rule == numberLiteralRule || rule == stringLiteralRule;
+    }
+
+    boolean isNameRule(final int rule) {
+        return nameRules[rule];
+    }
+
+    QueryShape build(final List<Token> tokens, final Marks marks) {
+        final StringBuilder text = new StringBuilder();
+        final List<Object> literals = new ArrayList<>(marks.literalCount);
+        int i = 0;
+        while (i < tokens.size()) {
+            final Token token = tokens.get(i);
+            if (token.getType() == Token.EOF || token.getChannel() != Token.DEFAULT_CHANNEL) {
+                i++;
+                continue;
+            }
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            final int literalStop = marks.literalStop(i);
+            if (literalStop >= 0) {
+                final StringBuilder literal = new StringBuilder();
+                for (int j = i; j <= literalStop; j++) {
+                    if (tokens.get(j).getChannel() == Token.DEFAULT_CHANNEL) {
+                        literal.append(tokens.get(j).getText());
+                    }
+                }
+                text.append('$').append(QueryShape.parameterName(literals.size()));
+                literals.add(Literals.decode(literal.toString()));
+                i = literalStop + 1;
+                continue;
+            }
+            final String tokenText = token.getText();
+            final String symbolic = vocabulary.getSymbolicName(token.getType());
+            if (!marks.isName(i) && symbolic != null && symbolic.equalsIgnoreCase(tokenText)) {
+                text.append(symbolic);
+            } else {
+                text.append(tokenText);
+            }
+            i++;
+        }
+        return QueryShape.of(text.toString(), literals);
+    }
+
+    // Per-parse marks indexed by token index.
+    static final class Marks {
+        private final int[] literalStops;
+        private final int[] literalOrdinals;
+        private final boolean[] names;
+        private int literalCount;
+
+        Marks(final int tokenCount) {
+            this.literalStops = new int[tokenCount];
+            this.literalOrdinals = new int[tokenCount];
+            this.names = new boolean[tokenCount];
+        }
+
+        // Literals are marked in pre-order, i.e. source order, so the ordinal is the parameter position.
+        void literal(final ParserRuleContext context) {
+            final int start = context.getStart().getTokenIndex();
+            literalStops[start] = context.getStop().getTokenIndex() + 1;
+            literalOrdinals[start] = literalCount++;
+        }
+
+        void name(final ParserRuleContext context) {
+            final Token stop = context.getStop();
+            if (stop == null) {
+                return;
+            }
+            for (int i = context.getStart().getTokenIndex(); i <= stop.getTokenIndex(); i++) {
+                names[i] = true;
+            }
+        }
+
+        // Parameter position of the literal spanning exactly this context, or -1.
+        int literalOrdinal(final ParserRuleContext context) {
+            final int start = context.getStart().getTokenIndex();
+            final Token stop = context.getStop();
+            if (start < 0 || stop == null || literalStop(start) != stop.getTokenIndex()) {
+                return -1;
+            }
+            return literalOrdinals[start];
+        }
+
+        private int literalStop(final int tokenIndex) {
+            return tokenIndex < literalStops.length ? literalStops[tokenIndex] - 1 : -1;
+        }
+
+        private boolean isName(final int tokenIndex) {
+            return names[tokenIndex];
+        }
+    }
+}
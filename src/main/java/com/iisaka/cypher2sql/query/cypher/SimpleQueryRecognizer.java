@@ -0,0 +1,345 @@
+package com.iisaka.cypher2sql.query.cypher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Recursive-descent recognizer for the subset Mapping translates:
+//   MATCH (v:Label {k: literal, ...})-[r:TYPE {...}]->(w:Label) [RETURN v | v.prop [AS alias], ...]
+// It builds the same patterns, return items and token-level shape as the ANTLR path (ModelExtractor),
+// straight from the characters and without a token list. Anything outside the subset -- comments,
+// parameters, label expressions, WHERE, multiple pattern parts, non-ASCII names -- returns null so the
+// caller falls back to Syntax.parse, which also owns every error message. Query.parse bypasses it under a
+// budget that bounds tokens or tree depth, which only the ANTLR path measures; deadlines apply to both.
+public final class SimpleQueryRecognizer {
+    // Words that are not plain variables in the ANTLR grammar (or change the clause); left to the full parser.
+    private static final Set<String> RESERVED = Set.of(
+            "NULL", "TRUE", "FALSE", "DISTINCT", "ALL", "NAN", "INF", "INFINITY", "NOT", "CASE", "COUNT",
+            "EXISTS", "COLLECT", "WHERE", "MATCH", "RETURN", "AS", "ORDER", "SKIP", "LIMIT", "WITH", "UNION");
+
+    private final String input;
+    private final StringBuilder shape;
+    private final List<Object> literals = new ArrayList<>(4);
+    private int pos;
+
+    private SimpleQueryRecognizer(final String input) {
+        this.input = input;
+        this.shape = new StringBuilder(input.length() + 16);
+    }
+
+    // True when the fast path handles this query without the ANTLR parser.
+    public static boolean recognizes(final String cypher) {
+        return recognize(cypher) != null;
+    }
+
+    static ModelExtractor.Extraction recognize(final String cypher) {
+        return cypher == null ? null : new SimpleQueryRecognizer(cypher).query();
+    }
+
+    private ModelExtractor.Extraction query() {
+        if (!keyword("MATCH")) {
+            return null;
+        }
+        final List<Node> nodes = new ArrayList<>(4);
+        final List<Edge> edges = new ArrayList<>(2);
+        Node node = node();
+        if (node == null) {
+            return null;
+        }
+        nodes.add(node);
+        while (next() == '-' || next() == '<') {
+            final Edge edge = edge();
+            if (edge == null || (node = node()) == null) {
+                return null;
+            }
+            edges.add(edge);
+            nodes.add(node);
+        }
+        List<ReturnItem> returnItems = List.of();
+        if (keyword("RETURN")) {
+            returnItems = returnItems();
+            if (returnItems == null) {
+                return null;
+            }
+        }
+        skipWhitespace();
+        if (pos != input.length()) {
+            return null;
+        }
+        return new ModelExtractor.Extraction(
+                List.of(new Pattern(nodes, edges)),
+                returnItems,
+                QueryShape.of(shape.toString(), literals));
+    }
+
+    private Node node() {
+        if (!symbol('(')) {
+            return null;
+        }
+        final String variable = variable();
+        if (variable == null) {
+            return null;
+        }
+        String label = null;
+        if (symbol(':') && (label = name()) == null) {
+            return null;
+        }
+        Map<String, String> properties = Map.of();
+        if (next() == '{' && (properties = properties()) == null) {
+            return null;
+        }
+        return symbol(')') ? new Node(variable, label, properties) : null;
+    }
+
+    // -[...]->, <-[...]-, -[...]- ; the arrow characters are separate tokens in the Cypher lexer.
+    private Edge edge() {
+        final boolean leftArrow = symbol('<');
+        if (!symbol('-') || !symbol('[')) {
+            return null;
+        }
+        String variable = null;
+        if (isNameStart(next()) && (variable = variable()) == null) {
+            return null;
+        }
+        String type = null;
+        if (symbol(':') && (type = name()) == null) {
+            return null;
+        }
+        Map<String, String> properties = Map.of();
+        if (next() == '{' && (properties = properties()) == null) {
+            return null;
+        }
+        if (!symbol(']') || !symbol('-')) {
+            return null;
+        }
+        final boolean rightArrow = symbol('>');
+        final Edge.Direction direction;
+        if (rightArrow && !leftArrow) {
+            direction = Edge.Direction.LEFT_TO_RIGHT;
+        } else if (leftArrow && !rightArrow) {
+            direction = Edge.Direction.RIGHT_TO_LEFT;
+        } else {
+            direction = Edge.Direction.UNDIRECTED;
+        }
+        return new Edge(variable, type, direction, properties);
+    }
+
+    private Map<String, String> properties() {
+        symbol('{');
+        final Map<String, String> properties = new LinkedHashMap<>();
+        if (symbol('}')) {
+            return Collections.unmodifiableMap(properties);
+        }
+        do {
+            final String key = name();
+            if (key == null || !symbol(':') || !literal()) {
+                return null;
+            }
+            properties.put(key, "$" + QueryShape.parameterName(literals.size() - 1));
+        } while (symbol(','));
+        return symbol('}') ? Collections.unmodifiableMap(properties) : null;
+    }
+
+    private List<ReturnItem> returnItems() {
+        final List<ReturnItem> items = new ArrayList<>(4);
+        do {
+            // ReturnItem only accepts plain identifiers, so escaped names take the full path and its error.
+            final String variable = next() == '`' ? null : variable();
+            if (variable == null) {
+                return null;
+            }
+            String property = null;
+            if (symbol('.') && (next() == '`' || (property = name()) == null)) {
+                return null;
+            }
+            if (keyword("AS") && variable() == null) {
+                return null;
+            }
+            items.add(new ReturnItem(variable, property));
+        } while (symbol(','));
+        return items;
+    }
+
+    // A variable name: a plain or escaped identifier that the grammar cannot read as anything else.
+    private String variable() {
+        final int start = pos;
+        final int shapeLength = shape.length();
+        final String name = name();
+        if (name != null && input.charAt(skipWhitespaceFrom(start)) != '`'
+                && RESERVED.contains(name.toUpperCase(Locale.ROOT))) {
+            pos = start;
+            shape.setLength(shapeLength);
+            return null;
+        }
+        return name;
+    }
+
+    // Identifier or backtick-escaped name; the shape keeps the original token text, the model the unquoted name.
+    private String name() {
+        skipWhitespace();
+        final int start = pos;
+        if (peek() == '`') {
+            final StringBuilder name = new StringBuilder();
+            pos++;
+            while (pos < input.length()) {
+                final char c = input.charAt(pos++);
+                if (c == '`') {
+                    if (peek() != '`') {
+                        token(start, pos);
+                        return name.isEmpty() ? null : name.toString();
+                    }
+                    pos++;
+                }
+                if (c > 0x7e || c < 0x20) {
+                    return null;
+                }
+                name.append(c);
+            }
+            return null;
+        }
+        if (!isNameStart(peek())) {
+            return null;
+        }
+        while (pos < input.length() && isNamePart(input.charAt(pos))) {
+            pos++;
+        }
+        if (pos < input.length() && input.charAt(pos) > 0x7e) {
+            return null;
+        }
+        token(start, pos);
+        return input.substring(start, pos);
+    }
+
+    // String or decimal number literal, optionally negated; lifted to $__litN exactly as ShapeBuilder does.
+    private boolean literal() {
+        skipWhitespace();
+        final int start = pos;
+        final char first = peek();
+        if (first == '\'' || first == '"') {
+            pos++;
+            while (pos < input.length()) {
+                final char c = input.charAt(pos++);
+                if (c == '\\') {
+                    if (pos >= input.length()) {
+                        return false;
+                    }
+                    final char escaped = input.charAt(pos++);
+                    if (escaped == 'u' || escaped == 'U') {
+                        return false;
+                    }
+                } else if (c == first) {
+                    return lift(input.substring(start, pos));
+                }
+            }
+            return false;
+        }
+        final StringBuilder number = new StringBuilder(8);
+        if (first == '-') {
+            number.append('-');
+            pos++;
+            skipWhitespace();
+        }
+        final int digitsStart = pos;
+        while (pos < input.length() && isDigit(input.charAt(pos))) {
+            pos++;
+        }
+        if (pos == digitsStart || (input.charAt(digitsStart) == '0' && pos - digitsStart > 1)) {
+            return false;
+        }
+        if (peek() == '.' && pos + 1 < input.length() && isDigit(input.charAt(pos + 1))) {
+            pos++;
+            while (pos < input.length() && isDigit(input.charAt(pos))) {
+                pos++;
+            }
+        }
+        if (pos < input.length() && (isNamePart(input.charAt(pos)) || input.charAt(pos) == '.')) {
+            return false;
+        }
+        number.append(input, digitsStart, pos);
+        return lift(number.toString());
+    }
+
+    private boolean lift(final String literal) {
+        separate();
+        shape.append('$').append(QueryShape.parameterName(literals.size()));
+        literals.add(Literals.decode(literal));
+        return true;
+    }
+
+    // Case-insensitive keyword followed by a non-identifier character; written upper-cased to the shape.
+    private boolean keyword(final String keyword) {
+        skipWhitespace();
+        final int end = pos + keyword.length();
+        if (end > input.length() || !input.regionMatches(true, pos, keyword, 0, keyword.length())
+                || (end < input.length() && (isNamePart(input.charAt(end)) || input.charAt(end) > 0x7e))) {
+            return false;
+        }
+        pos = end;
+        separate();
+        shape.append(keyword);
+        return true;
+    }
+
+    private boolean symbol(final char symbol) {
+        skipWhitespace();
+        if (peek() != symbol) {
+            return false;
+        }
+        pos++;
+        separate();
+        shape.append(symbol);
+        return true;
+    }
+
+    private void token(final int start, final int end) {
+        separate();
+        shape.append(input, start, end);
+    }
+
+    private void separate() {
+        if (!shape.isEmpty()) {
+            shape.append(' ');
+        }
+    }
+
+    private char next() {
+        skipWhitespace();
+        return peek();
+    }
+
+    private char peek() {
+        return pos < input.length() ? input.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        pos = skipWhitespaceFrom(pos);
+    }
+
+    private int skipWhitespaceFrom(final int from) {
+        int i = from;
+        while (i < input.length()) {
+            final char c = input.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isNameStart(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '`';
+    }
+
+    private static boolean isNamePart(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || isDigit(c);
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,21 +1,32 @@
 package com.iisaka.cypher2sql.query.cypher;
 
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class Syntax {
     private static final List<String> DEFAULT_ENTRY_RULES = List.of(
@@ -24,40 +35,213 @@ public final class Syntax {
             "cypher",
             "oC_Cypher");
 
+    private static final MethodType LEXER_FACTORY_TYPE = MethodType.methodType(Lexer.class, CharStream.class);
+    private static final MethodType PARSER_FACTORY_TYPE = MethodType.methodType(Parser.class, TokenStream.class);
+    private static final MethodType ENTRY_RULE_TYPE = MethodType.methodType(ParseTree.class, Parser.class);
+
+    private static volatile Syntax cypher25;
+
+    public enum ParseMode {
+        // Full-LL prediction only; slowest, but the only mode that reports precise syntax errors directly.
+        LL,
+        // SLL prediction with a bail-out strategy first, re-parsing in full LL only when SLL gives up.
+        SLL_THEN_LL
+    }
+
+    public enum PredictionPath {
+        SLL,
+        LL
+    }
+
     private final String lexerClassName;
     private final String parserClassName;
-    private final List<String> entryRules;
+    private final MethodHandle lexerFactory;
+    private final MethodHandle parserFactory;
+    private final MethodHandle entryRule;
+    private final ModelExtractor extractor;
+    private final ParseMode parseMode;
+    private final DfaCachePolicy dfaCachePolicy;
+    private final ParseBudget budget;
+    private final AtomicLong parsesSinceDfaCheck = new AtomicLong();
+    private final LongAdder dfaClears = new LongAdder();
+    private final LongAdder sllParses = new LongAdder();
+    private final LongAdder llParses = new LongAdder();
+    // Lexer/parser instances are not thread-safe, so each thread keeps its own and rewinds it per parse.
+    private final ThreadLocal<Pipeline> pipelines = ThreadLocal.withInitial(this::newPipeline);
 
-    private Syntax(final String lexerClassName, final String parserClassName, final List<String> entryRules) {
+    private Syntax(
+            final String lexerClassName,
+            final String parserClassName,
+            final List<String> entryRules,
+            final ParseMode parseMode,
+            final DfaCachePolicy dfaCachePolicy,
+            final ParseBudget budget) {
         this.lexerClassName = lexerClassName;
         this.parserClassName = parserClassName;
-        this.entryRules = entryRules;
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.lexerFactory = resolveLexerFactory(lookup, lexerClassName);
+        final Class<?> parserClass = loadClass(parserClassName, "parser");
+        this.parserFactory = resolveParserFactory(lookup, parserClass);
+        this.entryRule = resolveEntryRule(lookup, parserClass, entryRules);
+        final Parser prototype = newPipeline().parser;
+        this.extractor = new ModelExtractor(prototype.getRuleNames(), prototype.getVocabulary());
+        this.parseMode = parseMode;
+        this.dfaCachePolicy = dfaCachePolicy;
+        this.budget = budget;
     }
 
+    private Syntax(
+            final Syntax base,
+            final ParseMode parseMode,
+            final DfaCachePolicy dfaCachePolicy,
+            final ParseBudget budget) {
+        this.lexerClassName = base.lexerClassName;
+        this.parserClassName = base.parserClassName;
+        this.lexerFactory = base.lexerFactory;
+        this.parserFactory = base.parserFactory;
+        this.entryRule = base.entryRule;
+        this.extractor = base.extractor;
+        this.parseMode = parseMode;
+        this.dfaCachePolicy = dfaCachePolicy;
+        this.budget = budget;
+    }
+
+    // Resolved once per process: system properties, class lookup and entry-rule probing are not repeated per parse.
     public static Syntax cypher25() {
+        Syntax syntax = cypher25;
+        if (syntax == null) {
+            synchronized (Syntax.class) {
+                syntax = cypher25;
+                if (syntax == null) {
+                    syntax = fromSystemProperties();
+                    cypher25 = syntax;
+                }
+            }
+        }
+        return syntax;
+    }
+
+    public static Syntax of(final String lexerClassName, final String parserClassName, final List<String> entryRules) {
+        return new Syntax(lexerClassName, parserClassName, List.copyOf(entryRules),
+                ParseMode.SLL_THEN_LL, DfaCachePolicy.unbounded(), ParseBudget.unlimited());
+    }
+
+    // Shares the resolved lexer/parser handles; only the prediction strategy differs.
+    public Syntax withParseMode(final ParseMode mode) {
+        return mode == parseMode ? this : new Syntax(this, mode, dfaCachePolicy, budget);
+    }
+
+    public Syntax withDfaCachePolicy(final DfaCachePolicy policy) {
+        return policy.equals(dfaCachePolicy) ? this : new Syntax(this, parseMode, policy, budget);
+    }
+
+    // Instances keep their own thread-local parsers, so derive budgeted syntaxes once and reuse them.
+    public Syntax withBudget(final ParseBudget parseBudget) {
+        return parseBudget.equals(budget) ? this : new Syntax(this, parseMode, dfaCachePolicy, parseBudget);
+    }
+
+    public ParseMode parseMode() {
+        return parseMode;
+    }
+
+    public DfaCachePolicy dfaCachePolicy() {
+        return dfaCachePolicy;
+    }
+
+    public ParseBudget budget() {
+        return budget;
+    }
+
+    // Number of parses completed on the SLL fast path versus those that needed the full-LL retry (or ran LL only).
+    public PredictionStats predictionStats() {
+        return new PredictionStats(sllParses.sum(), llParses.sum());
+    }
+
+    public DfaCacheStats dfaCacheStats() {
+        final Pipeline pipeline = pipelines.get();
+        return DfaCache.stats(pipeline.parser, pipeline.lexer, dfaClears.sum());
+    }
+
+    public void clearDfaCache() {
+        final Pipeline pipeline = pipelines.get();
+        DfaCache.clear(pipeline.parser, pipeline.lexer);
+        dfaClears.increment();
+    }
+
+    // Parses a corpus of representative queries so the first real requests hit a warm DFA.
+    // Invalid entries are skipped: the goal is cache population, not validation.
+    public DfaCacheStats warmUp(final Iterable<String> corpus) {
+        final Pipeline pipeline = pipelines.get();
+        for (final String cypher : corpus) {
+            try {
+                pipeline.parse(CharStreams.fromString(cypher), ParseBudget.unlimited(), Deadline.none());
+            } catch (IllegalArgumentException ignored) {
+                continue;
+            }
+        }
+        return dfaCacheStats();
+    }
+
+    private static Syntax fromSystemProperties() {
         final String lexer = System.getProperty("cypher.antlr.lexer", "org.neo4j.cypher.internal.parser.v25.Cypher25Lexer");
         final String parser = System.getProperty("cypher.antlr.parser", "org.neo4j.cypher.internal.parser.v25.Cypher25Parser");
         final String entryRulesRaw = System.getProperty("cypher.antlr.entryRules", "");
+        final String parseModeRaw = System.getProperty("cypher.antlr.parseMode", "");
+        final String dfaMaxStatesRaw = System.getProperty("cypher.antlr.dfa.maxStates", "");
+        ParseBudget budget = ParseBudget.unlimited();
+        final String maxInputLengthRaw = System.getProperty("cypher.budget.maxInputLength", "");
+        final String maxTokensRaw = System.getProperty("cypher.budget.maxTokens", "");
+        final String maxDepthRaw = System.getProperty("cypher.budget.maxDepth", "");
+        final String timeoutMillisRaw = System.getProperty("cypher.budget.timeoutMillis", "");
+        if (!maxInputLengthRaw.isBlank()) {
+            budget = budget.withMaxInputLength(Integer.parseInt(maxInputLengthRaw.trim()));
+        }
+        if (!maxTokensRaw.isBlank()) {
+            budget = budget.withMaxTokens(Integer.parseInt(maxTokensRaw.trim()));
+        }
+        if (!maxDepthRaw.isBlank()) {
+            budget = budget.withMaxDepth(Integer.parseInt(maxDepthRaw.trim()));
+        }
+        if (!timeoutMillisRaw.isBlank()) {
+            budget = budget.withTimeout(Duration.ofMillis(Long.parseLong(timeoutMillisRaw.trim())));
+        }
         final List<String> entryRules = entryRulesRaw.isBlank()
                 ? DEFAULT_ENTRY_RULES
                 : new ArrayList<>(Arrays.asList(entryRulesRaw.split(",")));
-        return new Syntax(lexer, parser, entryRules);
+        final ParseMode parseMode = parseModeRaw.isBlank()
+                ? ParseMode.SLL_THEN_LL
+                : ParseMode.valueOf(parseModeRaw.trim().toUpperCase(Locale.ROOT));
+        final DfaCachePolicy dfaCachePolicy = dfaMaxStatesRaw.isBlank()
+                ? DfaCachePolicy.unbounded()
+                : DfaCachePolicy.maxStates(Long.parseLong(dfaMaxStatesRaw.trim()));
+        return new Syntax(lexer, parser, entryRules, parseMode, dfaCachePolicy, budget);
     }
 
     // Wrapper around ANTLR setup so parser wiring and entry-rule selection stay centralized.
     public ParsedCypher parse(final String cypher) {
-        final CharStream input = CharStreams.fromString(cypher);
-        final Lexer lexer = instantiateLexer(input);
-        final CommonTokenStream tokens = new CommonTokenStream(lexer);
-        final Parser parser = instantiateParser(tokens);
-        parser.removeErrorListeners();
-        parser.addErrorListener(new CypherSyntaxErrorListener());
-        final ParseTree parseTree = invokeEntryRule(parser);
-        final String[] ruleNames = parser.getRuleNames();
+        return parse(cypher, budget.deadline());
+    }
+
+    // Parses under this syntax's budget with a caller-supplied deadline, e.g. one shared with planning.
+    public ParsedCypher parse(final String cypher, final Deadline deadline) {
+        budget.checkInputLength(cypher);
+        final Pipeline pipeline = pipelines.get();
+        final ParseTree parseTree = pipeline.parse(CharStreams.fromString(cypher), budget, deadline);
+        final PredictionPath path = pipeline.lastPath;
+        (path == PredictionPath.SLL ? sllParses : llParses).increment();
+        enforceDfaCachePolicy(pipeline);
+        final ModelExtractor.Extraction extraction = extractor.extract(parseTree, pipeline.tokens.getTokens());
         return new ParsedCypher(
                 parseTree,
-                Pattern.extract(ruleNames, parseTree),
-                ReturnItem.extract(ruleNames, parseTree));
+                extraction.patterns(),
+                extraction.returnItems(),
+                extraction.shape(),
+                extraction.distinct(),
+                extraction.patternPredicates(),
+                extraction.conditions(),
+                extraction.optionalMatches(),
+                extraction.slice(),
+                path);
     }
 
     public ParseTree parseTree(final String cypher) {
@@ -68,45 +252,198 @@ public final class Syntax {
     public record ParsedCypher(
             ParseTree parseTree,
             List<Pattern> patterns,
-            List<ReturnItem> returnItems) {
+            List<ReturnItem> returnItems,
+            QueryShape shape,
+            boolean distinct,
+            List<PatternPredicate> patternPredicates,
+            List<Expression> conditions,
+            List<OptionalMatch> optionalMatches,
+            ResultSlice slice,
+            PredictionPath predictionPath) {
+    }
+
+    public record PredictionStats(long sllParses, long llParses) {
+        public long totalParses() {
+            return sllParses + llParses;
+        }
+    }
+
+    private void enforceDfaCachePolicy(final Pipeline pipeline) {
+        if (!dfaCachePolicy.isBounded()
+                || parsesSinceDfaCheck.incrementAndGet() % dfaCachePolicy.checkInterval() != 0) {
+            return;
+        }
+        if (DfaCache.stateCount(pipeline.parser, pipeline.lexer) > dfaCachePolicy.maxStates()) {
+            DfaCache.clear(pipeline.parser, pipeline.lexer);
+            dfaClears.increment();
+        }
+    }
+
+    private Pipeline newPipeline() {
+        final Lexer lexer = instantiateLexer(CharStreams.fromString(""));
+        final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        final Parser parser = instantiateParser(tokens);
+        parser.removeErrorListeners();
+        final BudgetGuard guard = new BudgetGuard();
+        guard.install(parser);
+        return new Pipeline(lexer, tokens, parser, guard);
     }
 
     private Lexer instantiateLexer(final CharStream input) {
         try {
-            final Class<?> clazz = Class.forName(lexerClassName);
-            return (Lexer) clazz.getConstructor(CharStream.class).newInstance(input);
-        } catch (ReflectiveOperationException ex) {
-            throw new IllegalStateException("Unable to load Cypher lexer class: " + lexerClassName, ex);
+            return (Lexer) lexerFactory.invokeExact(input);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Unable to instantiate Cypher lexer class: " + lexerClassName, ex);
         }
     }
 
     private Parser instantiateParser(final TokenStream tokens) {
         try {
-            final Class<?> clazz = Class.forName(parserClassName);
-            return (Parser) clazz.getConstructor(TokenStream.class).newInstance(tokens);
-        } catch (ReflectiveOperationException ex) {
-            throw new IllegalStateException("Unable to load Cypher parser class: " + parserClassName, ex);
+            return (Parser) parserFactory.invokeExact(tokens);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Unable to instantiate Cypher parser class: " + parserClassName, ex);
         }
     }
 
     private ParseTree invokeEntryRule(final Parser parser) {
+        try {
+            return (ParseTree) entryRule.invokeExact(parser);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Unable to invoke Cypher entry rule on parser: " + parserClassName, ex);
+        }
+    }
+
+    private static MethodHandle resolveLexerFactory(final MethodHandles.Lookup lookup, final String className) {
+        final Class<?> clazz = loadClass(className, "lexer");
+        try {
+            return lookup.findConstructor(clazz, MethodType.methodType(void.class, CharStream.class))
+                    .asType(LEXER_FACTORY_TYPE);
+        } catch (ReflectiveOperationException | ClassCastException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Unable to load Cypher lexer class: " + className, ex);
+        }
+    }
+
+    private static MethodHandle resolveParserFactory(final MethodHandles.Lookup lookup, final Class<?> clazz) {
+        try {
+            return lookup.findConstructor(clazz, MethodType.methodType(void.class, TokenStream.class))
+                    .asType(PARSER_FACTORY_TYPE);
+        } catch (ReflectiveOperationException | ClassCastException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Unable to load Cypher parser class: " + clazz.getName(), ex);
+        }
+    }
+
+    private static MethodHandle resolveEntryRule(
+            final MethodHandles.Lookup lookup,
+            final Class<?> parserClass,
+            final List<String> entryRules) {
         for (final String rule : entryRules) {
+            final Method method;
             try {
-                final Method method = parser.getClass().getMethod(rule);
-                final Object result = method.invoke(parser);
-                if (result instanceof ParseTree tree) {
-                    return tree;
-                }
+                method = parserClass.getMethod(rule);
             } catch (NoSuchMethodException ignored) {
                 continue;
-            } catch (IllegalAccessException | InvocationTargetException ex) {
+            }
+            if (!ParseTree.class.isAssignableFrom(method.getReturnType())) {
+                continue;
+            }
+            try {
+                return lookup.unreflect(method).asType(ENTRY_RULE_TYPE);
+            } catch (IllegalAccessException ex) {
                 throw new IllegalStateException("Unable to invoke Cypher entry rule: " + rule, ex);
             }
         }
-        throw new IllegalStateException("No supported Cypher entry rule found on parser: " + parserClassName);
+        throw new IllegalStateException("No supported Cypher entry rule found on parser: " + parserClass.getName());
+    }
+
+    private static Class<?> loadClass(final String className, final String kind) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("Unable to load Cypher " + kind + " class: " + className, ex);
+        }
+    }
+
+    private final class Pipeline {
+        private final Lexer lexer;
+        private final CommonTokenStream tokens;
+        private final Parser parser;
+        private final BudgetGuard guard;
+        private final ANTLRErrorStrategy bailStrategy = new BailErrorStrategy();
+        private final ANTLRErrorStrategy reportingStrategy = new DefaultErrorStrategy();
+        private PredictionPath lastPath;
+
+        private Pipeline(
+                final Lexer lexer,
+                final CommonTokenStream tokens,
+                final Parser parser,
+                final BudgetGuard guard) {
+            this.lexer = lexer;
+            this.tokens = tokens;
+            this.parser = parser;
+            this.guard = guard;
+        }
+
+        private ParseTree parse(final CharStream input, final ParseBudget budget, final Deadline deadline) {
+            // Each setter resets the component, so no state from the previous query (or a failed parse) leaks.
+            lexer.setInputStream(input);
+            tokens.setTokenSource(lexer);
+            parser.setTokenStream(tokens);
+            if (budget.limitsTokens()) {
+                // Lexing is linear in the (length-bounded) input; counting before parsing keeps the
+                // super-linear prediction work off oversized inputs.
+                tokens.fill();
+                if (tokens.size() - 1 > budget.maxTokens()) {
+                    throw new BudgetExceededException.TooManyTokens(tokens.size() - 1, budget.maxTokens());
+                }
+            }
+            guard.reset(budget, deadline);
+            parser.removeParseListener(guard);
+            if (guard.isActive()) {
+                parser.addParseListener(guard);
+            }
+            if (parseMode == ParseMode.SLL_THEN_LL) {
+                configure(PredictionMode.SLL, bailStrategy, false);
+                try {
+                    final ParseTree tree = invokeEntryRule(parser);
+                    lastPath = PredictionPath.SLL;
+                    return tree;
+                } catch (ParseCancellationException ignored) {
+                    // SLL could not decide (or the input is invalid): rewind the buffered tokens and retry in LL.
+                    parser.reset();
+                    guard.reset(budget, deadline);
+                    deadline.check("parsing");
+                }
+            }
+            configure(PredictionMode.LL, reportingStrategy, true);
+            final ParseTree tree = invokeEntryRule(parser);
+            lastPath = PredictionPath.LL;
+            return tree;
+        }
+
+        private void configure(
+                final PredictionMode mode,
+                final ANTLRErrorStrategy strategy,
+                final boolean reportErrors) {
+            parser.getInterpreter().setPredictionMode(mode);
+            parser.setErrorHandler(strategy);
+            // The bail strategy still routes errors through listeners before cancelling, so the
+            // throwing listener is only attached for the reporting (LL) pass.
+            parser.removeErrorListeners();
+            if (reportErrors) {
+                parser.addErrorListener(CypherSyntaxErrorListener.INSTANCE);
+            }
+        }
     }
 
     private static final class CypherSyntaxErrorListener extends BaseErrorListener {
+        private static final CypherSyntaxErrorListener INSTANCE = new CypherSyntaxErrorListener();
+
         @Override
         public void syntaxError(
                 final Recognizer<?, ?> recognizer,
@@ -0,0 +1,18 @@
+package com.iisaka.cypher2sql.query.sql;
+
+import java.util.List;
+
+// A named subquery rendered into the WITH list in front of a SelectQuery.
+public interface CommonTableExpression {
+    String name();
+
+    boolean isRecursive();
+
+    // `"name" (columns) AS (...)`, without the WITH keyword.
+    String render(Dialect dialect);
+
+    // Cypher parameters bound to the `?` placeholders of render, in placeholder order.
+    default List<String> parameterNames() {
+        return List.of();
+    }
+}
@@ -1,7 +1,61 @@
 package com.iisaka.cypher2sql.query.sql;
 
+import java.util.List;
+
 public interface Dialect {
+    // How a row limit and offset are written: `LIMIT n OFFSET m` (PostgreSQL, MySQL, SQLite, H2), the
+    // standard `OFFSET m ROWS FETCH FIRST n ROWS ONLY` (Oracle, DB2), or `SELECT TOP (n)` (SQL Server,
+    // which needs OFFSET ... FETCH under an ORDER BY once rows are skipped).
+    enum RowLimitSyntax {
+        LIMIT_OFFSET,
+        FETCH_FIRST,
+        TOP
+    }
+
     String name();
 
     String quoteIdentifier(String identifier);
+
+    // Keyword that opens a WITH list containing a recursive CTE; some engines (e.g. SQL Server) omit RECURSIVE.
+    default String recursiveWith() {
+        return "WITH RECURSIVE";
+    }
+
+    default String concat(final List<String> expressions) {
+        return String.join(" || ", expressions);
+    }
+
+    // Character type wide enough for one key of a traversal path.
+    default String castToText(final String expression) {
+        return "CAST(" + expression + " AS VARCHAR(4000))";
+    }
+
+    // Unbounded character type for traversal path strings, which grow by a key per hop; recursive CTE columns
+    // must keep one type. Engines that need a length override with e.g. CLOB or NVARCHAR(MAX).
+    default String castToPath(final String expression) {
+        return "CAST(" + expression + " AS VARCHAR)";
+    }
+
+    // Cypher collect(): a list of the non-null values. ARRAY_AGG with FILTER is the SQL standard form
+    // (PostgreSQL, H2, HSQLDB); other engines override with e.g. JSON_ARRAYAGG or STRING_AGG.
+    default String collect(final String expression, final boolean distinct) {
+        return "ARRAY_AGG(" + (distinct ? "DISTINCT " : "") + expression + ") FILTER (WHERE " + expression
+                + " IS NOT NULL)";
+    }
+
+    // Whether a recursive CTE may join its terms with UNION, which drops rows it already produced; SQL Server,
+    // Oracle and DB2 accept only UNION ALL.
+    default boolean supportsRecursiveUnion() {
+        return true;
+    }
+
+    default RowLimitSyntax rowLimitSyntax() {
+        return RowLimitSyntax.LIMIT_OFFSET;
+    }
+
+    // Whether `(a, b) > (x, y)` row-value comparisons are available; without them keyset seeks are expanded
+    // to `a > x OR (a = x AND b > y)`.
+    default boolean supportsRowValueComparison() {
+        return true;
+    }
 }
@@ -0,0 +1,58 @@
+package com.iisaka.cypher2sql.query.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Relationships read from several directed hops, one UNION ALL branch per hop:
+//   (start_key, end_key) -- preceded by the relationship row's own columns when carried
+// Branches are both directions of an undirected edge, or the mappings of the alternatives in `[:A|B]`.
+// Each branch reads its mapping in one direction only, so a join on start_key or end_key can be pushed into
+// every branch and use the index on the key column the branch selects from, where an OR join condition
+// would defeat it. An undirected edge's reverse branch skips self-loops, which its forward branch lists.
+public final class EdgeUnionCte implements CommonTableExpression {
+    private final String name;
+    private final List<Branch> branches;
+    private final boolean carriesRow;
+
+    // carriesRow adds `e.*` to every branch, so relationship properties stay readable through the CTE; the
+    // branches must then read the same table.
+    public EdgeUnionCte(final String name, final List<Branch> branches, final boolean carriesRow) {
+        this.name = name;
+        this.branches = List.copyOf(branches);
+        this.carriesRow = carriesRow;
+    }
+
+    // One hop from source (start_key) to target (end_key); skipsLoops drops rows whose ends are the same key.
+    public record Branch(TraversalCte.HopSource hop, boolean skipsLoops) {
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return false;
+    }
+
+    @Override
+    public String render(final Dialect dialect) {
+        final String row = carriesRow ? "e.*, " : "";
+        final List<String> selects = new ArrayList<>(branches.size());
+        for (final Branch branch : branches) {
+            final TraversalCte.HopSource hop = branch.hop();
+            // The first branch names the columns.
+            final String columns = selects.isEmpty()
+                    ? hop.source() + " AS " + TraversalCte.START_KEY
+                            + ", " + hop.target() + " AS " + TraversalCte.END_KEY
+                    : hop.source() + ", " + hop.target();
+            String select = "SELECT " + row + columns + " FROM " + hop.from(dialect);
+            if (branch.skipsLoops()) {
+                select += " WHERE " + hop.source() + " <> " + hop.target();
+            }
+            selects.add(select);
+        }
+        return dialect.quoteIdentifier(name) + " AS (" + String.join(" UNION ALL ", selects) + ")";
+    }
+}
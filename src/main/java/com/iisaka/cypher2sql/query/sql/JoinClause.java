@@ -1,5 +1,8 @@
 package com.iisaka.cypher2sql.query.sql;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public final class JoinClause {
     public enum JoinType {
         INNER,
@@ -9,13 +12,43 @@ public final class JoinClause {
     private final JoinType joinType;
     private final String table;
     private final String alias;
-    private final String onCondition;
+    private final SqlFragment onCondition;
+    private final List<String> parameterNames;
+    // Joins grouped under this one: `LEFT JOIN (table alias INNER JOIN ...) ON onCondition`.
+    private final List<JoinClause> nested;
 
     public JoinClause(final JoinType joinType, final String table, final String alias, final String onCondition) {
+        this(joinType, table, alias, SqlFragment.of(onCondition), List.of(), List.of());
+    }
+
+    private JoinClause(
+            final JoinType joinType,
+            final String table,
+            final String alias,
+            final SqlFragment onCondition,
+            final List<String> parameterNames,
+            final List<JoinClause> nested) {
         this.joinType = joinType;
         this.table = table;
         this.alias = alias;
         this.onCondition = onCondition;
+        this.parameterNames = List.copyOf(parameterNames);
+        this.nested = List.copyOf(nested);
+    }
+
+    // The same join with `condition` AND-ed to its ON condition; the condition carries one `?` per name.
+    public JoinClause and(final SqlFragment condition, final List<String> conditionParameterNames) {
+        final List<String> names = new ArrayList<>(parameterNames);
+        names.addAll(conditionParameterNames);
+        final SqlFragment on = onCondition;
+        return new JoinClause(joinType, table, alias,
+                dialect -> on.render(dialect) + " AND " + condition.render(dialect), names, nested);
+    }
+
+    // The same join as a LEFT JOIN of this table with `joins` grouped under it, so the group is outer-joined
+    // as one unit: a row missing from any of its tables nulls all of them.
+    public JoinClause outerWith(final List<JoinClause> joins) {
+        return new JoinClause(JoinType.LEFT, table, alias, onCondition, parameterNames, joins);
     }
 
     public JoinType joinType() {
@@ -30,7 +63,16 @@ public final class JoinClause {
         return alias;
     }
 
-    public String onCondition() {
-        return onCondition;
+    public String onCondition(final Dialect dialect) {
+        return onCondition.render(dialect);
+    }
+
+    // Cypher parameters bound to the `?` placeholders of onCondition, in order.
+    public List<String> parameterNames() {
+        return parameterNames;
+    }
+
+    public List<JoinClause> nested() {
+        return nested;
     }
 }
@@ -0,0 +1,24 @@
+package com.iisaka.cypher2sql.query.sql;
+
+import java.util.List;
+import java.util.Map;
+
+// Rendered SQL with JDBC-style `?` placeholders; parameterNames lists the Cypher parameter bound to
+// each placeholder, in placeholder order.
+public record ParameterizedSql(String sql, List<String> parameterNames) {
+    public ParameterizedSql {
+        parameterNames = List.copyOf(parameterNames);
+    }
+
+    public Object[] bind(final Map<String, ?> parameters) {
+        final Object[] values = new Object[parameterNames.size()];
+        for (int i = 0; i < values.length; i++) {
+            final String name = parameterNames.get(i);
+            if (!parameters.containsKey(name)) {
+                throw new IllegalArgumentException("Missing value for Cypher parameter: $" + name);
+            }
+            values[i] = parameters.get(name);
+        }
+        return values;
+    }
+}
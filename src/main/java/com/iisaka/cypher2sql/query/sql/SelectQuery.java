@@ -1,15 +1,26 @@
 package com.iisaka.cypher2sql.query.sql;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class SelectQuery implements Query<Dialect> {
-    private final List<String> selectColumns = new ArrayList<>();
+    private final List<CommonTableExpression> commonTableExpressions = new ArrayList<>();
+    private final List<Column> selectColumns = new ArrayList<>();
+    private boolean distinct;
     private String fromTable;
     private String fromAlias;
     private final List<JoinClause> joins = new ArrayList<>();
-    private final List<String> whereClauses = new ArrayList<>();
+    private final List<Condition> whereClauses = new ArrayList<>();
+    private Seek seek;
+    private final List<String> groupBy = new ArrayList<>();
+    private final List<SqlFragment> orderBy = new ArrayList<>();
+    // Cypher parameters bound to the row offset and limit; null when absent.
+    private String offsetParameter;
+    private String limitParameter;
 
     public static SelectQuery from(final String table, final String alias) {
         final SelectQuery select = new SelectQuery();
@@ -20,12 +31,43 @@ public final class SelectQuery implements Query<Dialect> {
 
     public static SelectQuery selectAllFrom(final String table, final String alias) {
         final SelectQuery select = from(table, alias);
-        select.selectColumns.add(alias + ".*");
+        select.addSelectColumn(alias + ".*");
+        return select;
+    }
+
+    // Body of a correlated EXISTS: joins are added from aliases of the enclosing query, and the first join
+    // becomes the FROM, with its ON condition moved to WHERE where it correlates the two queries.
+    public static SelectQuery correlated() {
+        final SelectQuery select = new SelectQuery();
+        select.addSelectColumn("1");
         return select;
     }
 
     public SelectQuery addSelectColumn(final String column) {
-        selectColumns.add(column);
+        selectColumns.add(new Column(column, false, false));
+        return this;
+    }
+
+    // collect(expression): the dialect's array aggregate over the non-null values; see Dialect.collect.
+    public SelectQuery addCollectColumn(final String expression, final boolean distinctValues) {
+        selectColumns.add(new Column(expression, true, distinctValues));
+        return this;
+    }
+
+    public SelectQuery addGroupBy(final String expression) {
+        if (!groupBy.contains(expression)) {
+            groupBy.add(expression);
+        }
+        return this;
+    }
+
+    public SelectQuery distinct() {
+        distinct = true;
+        return this;
+    }
+
+    public SelectQuery addCommonTableExpression(final CommonTableExpression cte) {
+        commonTableExpressions.add(cte);
         return this;
     }
 
@@ -35,22 +77,289 @@ public final class SelectQuery implements Query<Dialect> {
     }
 
     public SelectQuery addWhere(final String clause) {
-        whereClauses.add(clause);
+        return addWhere(clause, List.of());
+    }
+
+    // The clause carries one `?` placeholder per entry of parameterNames, in the same order.
+    public SelectQuery addWhere(final String clause, final List<String> parameterNames) {
+        return addWhere(SqlFragment.of(clause), parameterNames);
+    }
+
+    public SelectQuery addWhere(final SqlFragment clause, final List<String> parameterNames) {
+        whereClauses.add(new Condition(clause, List.copyOf(parameterNames), null, false));
+        return this;
+    }
+
+    // Predicate pushdown: a filter over `aliases` is AND-ed to the ON condition of the join that binds the
+    // last of them, the earliest point where all are available, so the database can prune rows before the
+    // joins that follow. Filters over the FROM table alone or over no alias stay in WHERE, as do filters
+    // touching an outer-joined alias: in its ON they would null the columns instead of dropping the row.
+    // Aliases this query does not bind (an enclosing query's, in a correlated subquery) also keep it in WHERE.
+    public SelectQuery addFilter(final String clause, final List<String> parameterNames, final Set<String> aliases) {
+        return addFilter(SqlFragment.of(clause), parameterNames, aliases);
+    }
+
+    public SelectQuery addFilter(
+            final SqlFragment clause,
+            final List<String> parameterNames,
+            final Set<String> aliases) {
+        int target = -1;
+        for (final String alias : aliases) {
+            final int index = joinIndex(alias);
+            if (index == -1 && alias.equals(fromAlias)) {
+                continue;
+            }
+            if (index == -1 || joins.get(index).joinType() != JoinClause.JoinType.INNER) {
+                return addWhere(clause, parameterNames);
+            }
+            target = Math.max(target, index);
+        }
+        if (target == -1) {
+            return addWhere(clause, parameterNames);
+        }
+        joins.set(target, joins.get(target).and(clause, parameterNames));
+        return this;
+    }
+
+    // OPTIONAL MATCH: outer-joins a correlated segment (see correlated()) as one unit. Its first join leads,
+    // the joins after it are nested under the LEFT JOIN, and its WHERE conditions are AND-ed to the ON
+    // condition, so a segment that is missing or filtered out leaves all of its columns null and keeps the row.
+    public SelectQuery addLeftJoin(final SelectQuery segment) {
+        JoinClause group = segment.joins.get(0).outerWith(segment.joins.subList(1, segment.joins.size()));
+        for (final Condition condition : segment.whereClauses) {
+            if (condition.exists() != null) {
+                throw new UnsupportedOperationException("EXISTS conditions cannot be moved into a LEFT JOIN.");
+            }
+            group = group.and(condition.sql(), condition.parameterNames());
+        }
+        commonTableExpressions.addAll(segment.commonTableExpressions);
+        joins.add(group);
+        return this;
+    }
+
+    private int joinIndex(final String alias) {
+        for (int i = 0; i < joins.size(); i++) {
+            if (joins.get(i).alias().equals(alias)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // [NOT] EXISTS (subquery). A correlated subquery that ended up with no joins is just its conditions.
+    public SelectQuery addWhereExists(final SelectQuery subquery, final boolean negated) {
+        whereClauses.add(new Condition(null, List.of(), subquery, negated));
+        return this;
+    }
+
+    public SelectQuery addOrderBy(final String expression, final boolean descending) {
+        return addOrderBy(SqlFragment.of(expression), descending);
+    }
+
+    public SelectQuery addOrderBy(final SqlFragment expression, final boolean descending) {
+        orderBy.add(descending ? dialect -> expression.render(dialect) + " DESC" : expression);
+        return this;
+    }
+
+    public SelectQuery offset(final String parameterName) {
+        offsetParameter = parameterName;
+        return this;
+    }
+
+    public SelectQuery limit(final String parameterName) {
+        limitParameter = parameterName;
+        return this;
+    }
+
+    // Keyset pagination: keeps the rows sorting after (descending: before) the bound key values, the last
+    // row of the previous page. The columns must be the ORDER BY columns and end in a unique key.
+    public SelectQuery seekAfter(
+            final List<String> columns,
+            final List<String> parameterNames,
+            final boolean descending) {
+        seek = new Seek(List.copyOf(columns), List.copyOf(parameterNames), descending);
         return this;
     }
 
     @Override
     public String render(final Dialect dialect) {
-        final String selectClause = "SELECT " + String.join(", ", selectColumns);
-        final String fromClause = "FROM " + dialect.quoteIdentifier(fromTable) + " " + fromAlias;
-        final String joinClause = joins.stream()
-                .map(join -> join.joinType().name() + " JOIN "
-                        + dialect.quoteIdentifier(join.table()) + " " + join.alias()
-                        + " ON " + join.onCondition())
+        return renderParameterized(dialect).sql();
+    }
+
+    public ParameterizedSql renderParameterized(final Dialect dialect) {
+        final List<String> parameterNames = new ArrayList<>();
+        final String sql = render(dialect, parameterNames, true);
+        return new ParameterizedSql(sql, parameterNames);
+    }
+
+    // Parameter names are collected in the order their placeholders appear in the rendered text. Only the
+    // outermost query renders a WITH list; it also holds the CTEs of nested EXISTS subqueries.
+    private String render(final Dialect dialect, final List<String> parameterNames, final boolean outermost) {
+        final String withClause = outermost ? withClause(dialect, parameterNames) : "";
+        final Dialect.RowLimitSyntax rowLimit = dialect.rowLimitSyntax();
+        // TOP only expresses a limit; skipped rows need OFFSET ... FETCH, which SQL Server accepts there too.
+        final boolean top = rowLimit == Dialect.RowLimitSyntax.TOP && limitParameter != null && offsetParameter == null;
+        if (top) {
+            parameterNames.add(limitParameter);
+        }
+        final String selectClause = (distinct ? "SELECT DISTINCT " : "SELECT ") + (top ? "TOP (?) " : "")
+                + selectColumns.stream().map(column -> column.render(dialect)).collect(Collectors.joining(", "));
+        final List<JoinClause> joined = fromTable == null ? joins.subList(1, joins.size()) : joins;
+        final List<String> conditions = new ArrayList<>(whereClauses.size() + 1);
+        final String fromClause = fromTable == null
+                ? "FROM " + dialect.quoteIdentifier(joins.get(0).table()) + " " + joins.get(0).alias()
+                : "FROM " + dialect.quoteIdentifier(fromTable) + " " + fromAlias;
+        final List<String> joinClauses = new ArrayList<>(joined.size());
+        for (final JoinClause join : joined) {
+            joinClauses.add(renderJoin(join, dialect, parameterNames));
+        }
+        final String joinClause = String.join(" ", joinClauses);
+        if (fromTable == null) {
+            conditions.add(joins.get(0).onCondition(dialect));
+            parameterNames.addAll(joins.get(0).parameterNames());
+        }
+        for (final Condition condition : whereClauses) {
+            conditions.add(condition.render(dialect, parameterNames));
+        }
+        if (seek != null) {
+            conditions.add(seek.render(dialect, parameterNames));
+        }
+        final String whereClause = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+        final String groupByClause = groupBy.isEmpty() ? "" : "GROUP BY " + String.join(", ", groupBy);
+        final String orderByClause = orderBy.isEmpty() ? "" : "ORDER BY " + orderBy.stream()
+                .map(expression -> expression.render(dialect))
+                .collect(Collectors.joining(", "));
+        final String rowLimitClause = top ? "" : rowLimitClause(rowLimit, orderBy.isEmpty(), parameterNames);
+        return Stream.of(withClause, selectClause, fromClause, joinClause, whereClause, groupByClause, orderByClause,
+                        rowLimitClause)
+                .filter(clause -> !clause.isEmpty())
                 .collect(Collectors.joining(" "));
-        final String whereClause = whereClauses.isEmpty()
-                ? ""
-                : " WHERE " + String.join(" AND ", whereClauses);
-        return String.join(" ", List.of(selectClause, fromClause, joinClause, whereClause)).trim();
+    }
+
+    private static String renderJoin(final JoinClause join, final Dialect dialect, final List<String> parameterNames) {
+        String target = dialect.quoteIdentifier(join.table()) + " " + join.alias();
+        if (!join.nested().isEmpty()) {
+            final List<String> group = new ArrayList<>(join.nested().size() + 1);
+            group.add(target);
+            for (final JoinClause nested : join.nested()) {
+                group.add(renderJoin(nested, dialect, parameterNames));
+            }
+            target = "(" + String.join(" ", group) + ")";
+        }
+        parameterNames.addAll(join.parameterNames());
+        return join.joinType().name() + " JOIN " + target + " ON " + join.onCondition(dialect);
+    }
+
+    private String rowLimitClause(
+            final Dialect.RowLimitSyntax rowLimit,
+            final boolean unordered,
+            final List<String> parameterNames) {
+        if (offsetParameter == null && limitParameter == null) {
+            return "";
+        }
+        if (rowLimit == Dialect.RowLimitSyntax.LIMIT_OFFSET) {
+            final List<String> parts = new ArrayList<>(2);
+            if (limitParameter != null) {
+                parts.add("LIMIT ?");
+                parameterNames.add(limitParameter);
+            }
+            if (offsetParameter != null) {
+                parts.add("OFFSET ?");
+                parameterNames.add(offsetParameter);
+            }
+            return String.join(" ", parts);
+        }
+        final List<String> parts = new ArrayList<>(3);
+        if (rowLimit == Dialect.RowLimitSyntax.TOP && unordered) {
+            // SQL Server only accepts OFFSET after an ORDER BY.
+            parts.add("ORDER BY (SELECT NULL)");
+        }
+        if (offsetParameter != null) {
+            parts.add("OFFSET ? ROWS");
+            parameterNames.add(offsetParameter);
+        }
+        if (limitParameter != null) {
+            parts.add(offsetParameter != null ? "FETCH NEXT ? ROWS ONLY" : "FETCH FIRST ? ROWS ONLY");
+            parameterNames.add(limitParameter);
+        }
+        return String.join(" ", parts);
+    }
+
+    private String withClause(final Dialect dialect, final List<String> parameterNames) {
+        final List<CommonTableExpression> ctes = new ArrayList<>();
+        collectCommonTableExpressions(ctes);
+        if (ctes.isEmpty()) {
+            return "";
+        }
+        final boolean recursive = ctes.stream().anyMatch(CommonTableExpression::isRecursive);
+        for (final CommonTableExpression cte : ctes) {
+            parameterNames.addAll(cte.parameterNames());
+        }
+        return (recursive ? dialect.recursiveWith() : "WITH") + " " + ctes.stream()
+                .map(cte -> cte.render(dialect))
+                .collect(Collectors.joining(", "));
+    }
+
+    private void collectCommonTableExpressions(final List<CommonTableExpression> ctes) {
+        ctes.addAll(commonTableExpressions);
+        for (final Condition condition : whereClauses) {
+            if (condition.exists() != null) {
+                condition.exists().collectCommonTableExpressions(ctes);
+            }
+        }
+    }
+
+    private record Column(String expression, boolean collected, boolean distinct) {
+        String render(final Dialect dialect) {
+            return collected ? dialect.collect(expression, distinct) : expression;
+        }
+    }
+
+    private record Seek(List<String> columns, List<String> parameterNames, boolean descending) {
+        String render(final Dialect dialect, final List<String> collected) {
+            final String operator = descending ? " < " : " > ";
+            if (columns.size() == 1) {
+                collected.add(parameterNames.get(0));
+                return columns.get(0) + operator + "?";
+            }
+            if (dialect.supportsRowValueComparison()) {
+                collected.addAll(parameterNames);
+                return "(" + String.join(", ", columns) + ")" + operator
+                        + "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+            }
+            // (a, b) > (x, y) is a > x OR (a = x AND b > y).
+            final List<String> branches = new ArrayList<>(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                final List<String> terms = new ArrayList<>(i + 1);
+                for (int j = 0; j < i; j++) {
+                    terms.add(columns.get(j) + " = ?");
+                    collected.add(parameterNames.get(j));
+                }
+                terms.add(columns.get(i) + operator + "?");
+                collected.add(parameterNames.get(i));
+                branches.add(terms.size() == 1 ? terms.get(0) : "(" + String.join(" AND ", terms) + ")");
+            }
+            return "(" + String.join(" OR ", branches) + ")";
+        }
+    }
+
+    private record Condition(SqlFragment sql, List<String> parameterNames, SelectQuery exists, boolean negated) {
+        String render(final Dialect dialect, final List<String> collected) {
+            if (exists == null) {
+                collected.addAll(parameterNames);
+                return sql.render(dialect);
+            }
+            final String test;
+            if (exists.fromTable == null && exists.joins.isEmpty()) {
+                final List<String> conditions = new ArrayList<>(exists.whereClauses.size());
+                for (final Condition condition : exists.whereClauses) {
+                    conditions.add(condition.render(dialect, collected));
+                }
+                test = "(" + String.join(" AND ", conditions) + ")";
+            } else {
+                test = "EXISTS (" + exists.render(dialect, collected, false) + ")";
+            }
+            return negated ? "NOT " + test : test;
+        }
     }
 }
@@ -0,0 +1,87 @@
+package com.iisaka.cypher2sql.query.sql;
+
+// The shortest paths between each pair of nodes that TraversalCtes reached:
+//   (start_key, end_key, depth)
+// A search from one end reads a single traversal; one from the end nodes (backward) has its keys swapped
+// back. A bidirectional search joins a traversal from the start nodes to one from the end nodes where
+// they reach the same node, each going about half the depth: a path of length d is found once, split
+// where the forward half is ceil(d / 2) hops long, so two frontiers of about b^(d/2) rows replace one
+// of b^d. Of all paths found for a pair, shortestPath() keeps the minimal depth (one row per pair) and
+// allShortestPaths() every path of that depth.
+public final class ShortestPathCte implements CommonTableExpression {
+    private final String name;
+    private final String forward;
+    private final String backward;
+    private final boolean allShortest;
+    private final boolean distinctEnds;
+
+    // forward and backward name the traversals from the start and from the end nodes; either may be null.
+    // distinctEnds drops the zero-length path from a node to itself, for a minimum length of one.
+    public ShortestPathCte(
+            final String name,
+            final String forward,
+            final String backward,
+            final boolean allShortest,
+            final boolean distinctEnds) {
+        if (forward == null && backward == null) {
+            throw new IllegalArgumentException("A shortest path search needs a traversal to read: " + name);
+        }
+        this.name = name;
+        this.forward = forward;
+        this.backward = backward;
+        this.allShortest = allShortest;
+        this.distinctEnds = distinctEnds;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return false;
+    }
+
+    @Override
+    public String render(final Dialect dialect) {
+        final String start;
+        final String end;
+        final String depth;
+        final String from;
+        if (backward == null) {
+            start = "f." + TraversalCte.START_KEY;
+            end = "f." + TraversalCte.END_KEY;
+            depth = "f." + TraversalCte.DEPTH;
+            from = dialect.quoteIdentifier(forward) + " f";
+        } else if (forward == null) {
+            start = "b." + TraversalCte.END_KEY;
+            end = "b." + TraversalCte.START_KEY;
+            depth = "b." + TraversalCte.DEPTH;
+            from = dialect.quoteIdentifier(backward) + " b";
+        } else {
+            start = "f." + TraversalCte.START_KEY;
+            end = "b." + TraversalCte.START_KEY;
+            depth = "f." + TraversalCte.DEPTH + " + b." + TraversalCte.DEPTH;
+            from = dialect.quoteIdentifier(forward) + " f INNER JOIN " + dialect.quoteIdentifier(backward)
+                    + " b ON b." + TraversalCte.END_KEY + " = f." + TraversalCte.END_KEY
+                    + " AND f." + TraversalCte.DEPTH + " - b." + TraversalCte.DEPTH + " IN (0, 1)";
+        }
+        final String where = distinctEnds ? " WHERE " + start + " <> " + end : "";
+        final String body;
+        if (allShortest) {
+            body = "SELECT s." + TraversalCte.START_KEY + ", s." + TraversalCte.END_KEY + ", s." + TraversalCte.DEPTH
+                    + " FROM (SELECT " + start + " AS " + TraversalCte.START_KEY
+                    + ", " + end + " AS " + TraversalCte.END_KEY
+                    + ", " + depth + " AS " + TraversalCte.DEPTH
+                    + ", RANK() OVER (PARTITION BY " + start + ", " + end + " ORDER BY " + depth + ") AS path_rank"
+                    + " FROM " + from + where + ") s WHERE s.path_rank = 1";
+        } else {
+            body = "SELECT " + start + " AS " + TraversalCte.START_KEY
+                    + ", " + end + " AS " + TraversalCte.END_KEY
+                    + ", MIN(" + depth + ") AS " + TraversalCte.DEPTH
+                    + " FROM " + from + where + " GROUP BY " + start + ", " + end;
+        }
+        return dialect.quoteIdentifier(name) + " AS (" + body + ")";
+    }
+}
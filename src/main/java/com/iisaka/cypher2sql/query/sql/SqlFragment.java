@@ -0,0 +1,12 @@
+package com.iisaka.cypher2sql.query.sql;
+
+// SQL text whose spelling depends on the dialect, such as a string concatenation. Plans are built before a
+// dialect is chosen, so conditions and sort keys keep fragments and spell them out when the query renders.
+@FunctionalInterface
+public interface SqlFragment {
+    String render(Dialect dialect);
+
+    static SqlFragment of(final String sql) {
+        return dialect -> sql;
+    }
+}
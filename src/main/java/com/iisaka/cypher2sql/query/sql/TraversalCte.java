@@ -0,0 +1,174 @@
+package com.iisaka.cypher2sql.query.sql;
+
+import java.util.List;
+
+// Recursive CTE enumerating paths over one relationship mapping, one row per path:
+//   (start_key, end_key, depth, path)
+// The anchor holds the single-hop rows (or, for a zero minimum, each start node as a zero-length path).
+// The recursive step extends only frontier rows still below maxDepth, and skips nodes already in the
+// row's path. The path is a ",k1,k2,...," key list matched with LIKE, so every path is simple and the
+// recursion terminates even on cyclic data or without an upper bound. Keys enter the path with `!` and `,`
+// escaped as `!!` and `!.`, so a key never reads as a delimiter, and enter the pattern LIKE-escaped with `!`,
+// so `%` and `_` in a key match only themselves.
+//
+// A seed restricts the start nodes inside the anchor, where the recursion cannot see filters of the
+// enclosing query. With levels, only which nodes each start reaches at each depth matters, not along how
+// many paths: where the dialect has a recursive UNION and the depth is bounded, the rows drop the path
+//   (start_key, end_key, depth)
+// and UNION folds the paths reaching a node at one depth into a single row, so every level of the
+// breadth-first search is at most one row per reachable node instead of one per path.
+public final class TraversalCte implements CommonTableExpression {
+    public static final String START_KEY = "start_key";
+    public static final String END_KEY = "end_key";
+    public static final String DEPTH = "depth";
+    public static final String PATH = "path";
+
+    private static final char ESCAPE = '!';
+
+    private final String name;
+    private final HopSource hop;
+    private final String zeroHopTable;
+    private final String zeroHopKey;
+    private final int maxDepth;
+    private final Seed seed;
+    private final boolean levels;
+
+    // zeroHopTable/zeroHopKey are the start node's table and key when zero-length paths are included, else null.
+    public TraversalCte(
+            final String name,
+            final HopSource hop,
+            final String zeroHopTable,
+            final String zeroHopKey,
+            final int maxDepth) {
+        this(name, hop, zeroHopTable, zeroHopKey, maxDepth, null, false);
+    }
+
+    // seed is null when every node may start a path.
+    public TraversalCte(
+            final String name,
+            final HopSource hop,
+            final String zeroHopTable,
+            final String zeroHopKey,
+            final int maxDepth,
+            final Seed seed,
+            final boolean levels) {
+        this.name = name;
+        this.hop = hop;
+        this.zeroHopTable = zeroHopTable;
+        this.zeroHopKey = zeroHopKey;
+        this.maxDepth = maxDepth;
+        this.seed = seed;
+        this.levels = levels;
+    }
+
+    // One relationship hop as a pair of node keys. The source is an expression over alias `e` (table);
+    // target may use `e2` when the hop needs a second table joined with joinOn.
+    public record HopSource(String table, String joinTable, String joinOn, String source, String target) {
+        public static HopSource of(final String table, final String source, final String target) {
+            return new HopSource(table, null, null, source, target);
+        }
+
+        // The same hop walked from target to source.
+        public HopSource reversed() {
+            return new HopSource(table, joinTable, joinOn, target, source);
+        }
+
+        // The FROM list binding `e` (and `e2`).
+        String from(final Dialect dialect) {
+            final String from = dialect.quoteIdentifier(table) + " e";
+            if (joinTable == null) {
+                return from;
+            }
+            return from + " INNER JOIN " + dialect.quoteIdentifier(joinTable) + " e2 ON " + joinOn;
+        }
+    }
+
+    // The start nodes: rows of table (alias `n`, key column key) satisfying condition, whose `?` placeholders
+    // bind parameterNames.
+    public record Seed(String table, String key, String condition, List<String> parameterNames) {
+        public Seed {
+            parameterNames = List.copyOf(parameterNames);
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean isRecursive() {
+        return true;
+    }
+
+    @Override
+    public List<String> parameterNames() {
+        return seed == null ? List.of() : seed.parameterNames();
+    }
+
+    @Override
+    public String render(final Dialect dialect) {
+        final String quotedName = dialect.quoteIdentifier(name);
+        final boolean folded = levels && maxDepth != Integer.MAX_VALUE && dialect.supportsRecursiveUnion();
+        final String columns = folded
+                ? String.join(", ", START_KEY, END_KEY, DEPTH)
+                : String.join(", ", START_KEY, END_KEY, DEPTH, PATH);
+        return quotedName + " (" + columns + ") AS (" + anchor(dialect, folded)
+                + (folded ? " UNION " : " UNION ALL ") + step(dialect, quotedName, folded) + ")";
+    }
+
+    private String anchor(final Dialect dialect, final boolean folded) {
+        if (zeroHopTable != null) {
+            final String key = "n." + zeroHopKey;
+            final String path = dialect.castToPath(dialect.concat(List.of("','", pathKey(dialect, key), "','")));
+            return "SELECT " + key + ", " + key + ", 0" + (folded ? "" : ", " + path)
+                    + " FROM " + dialect.quoteIdentifier(zeroHopTable) + " n"
+                    + (seed == null ? "" : " WHERE " + seed.condition());
+        }
+        final String path = dialect.castToPath(dialect.concat(List.of(
+                "','", pathKey(dialect, hop.source()), "','", pathKey(dialect, hop.target()), "','")));
+        final String seeded = seed == null
+                ? ""
+                : " AND " + hop.source() + " IN (SELECT n." + seed.key() + " FROM "
+                        + dialect.quoteIdentifier(seed.table()) + " n WHERE " + seed.condition() + ")";
+        return "SELECT " + hop.source() + ", " + hop.target() + ", 1" + (folded ? "" : ", " + path)
+                + " FROM " + hop.from(dialect)
+                + " WHERE " + hop.target() + " IS NOT NULL" + seeded;
+    }
+
+    private String step(final Dialect dialect, final String quotedName, final boolean folded) {
+        final String target = pathKey(dialect, hop.target());
+        final String path = dialect.castToPath(dialect.concat(List.of("r." + PATH, target, "','")));
+        final StringBuilder sql = new StringBuilder()
+                .append("SELECT r.").append(START_KEY).append(", ").append(hop.target())
+                .append(", r.").append(DEPTH).append(" + 1").append(folded ? "" : ", " + path)
+                .append(" FROM ").append(quotedName).append(" r")
+                .append(" INNER JOIN ").append(dialect.quoteIdentifier(hop.table())).append(" e")
+                .append(" ON ").append(hop.source()).append(" = r.").append(END_KEY);
+        if (hop.joinTable() != null) {
+            sql.append(" INNER JOIN ").append(dialect.quoteIdentifier(hop.joinTable())).append(" e2")
+                    .append(" ON ").append(hop.joinOn());
+        }
+        sql.append(" WHERE ").append(hop.target()).append(" IS NOT NULL");
+        if (maxDepth != Integer.MAX_VALUE) {
+            sql.append(" AND r.").append(DEPTH).append(" < ").append(maxDepth);
+        }
+        if (!folded) {
+            sql.append(" AND r.").append(PATH).append(" NOT LIKE ")
+                    .append(dialect.concat(List.of("'%,'", likeEscaped(target), "',%'")))
+                    .append(" ESCAPE '").append(ESCAPE).append('\'');
+        }
+        return sql.toString();
+    }
+
+    // A key as it appears between the commas of a path.
+    private static String pathKey(final Dialect dialect, final String key) {
+        return "REPLACE(REPLACE(" + dialect.castToText(key) + ", '" + ESCAPE + "', '" + ESCAPE + ESCAPE
+                + "'), ',', '" + ESCAPE + ".')";
+    }
+
+    private static String likeEscaped(final String text) {
+        return "REPLACE(REPLACE(REPLACE(" + text + ", '" + ESCAPE + "', '" + ESCAPE + ESCAPE + "'), '%', '" + ESCAPE
+                + "%'), '_', '" + ESCAPE + "_')";
+    }
+}
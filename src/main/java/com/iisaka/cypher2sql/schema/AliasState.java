@@ -12,4 +12,9 @@ final class AliasState {
     String nextJoinAlias() {
         return "j" + counter.getAndIncrement();
     }
+
+    // For nodes that only appear inside a subquery; MATCH nodes keep their positional t0, t1, ...
+    String nextNodeAlias() {
+        return "t" + counter.getAndIncrement();
+    }
 }
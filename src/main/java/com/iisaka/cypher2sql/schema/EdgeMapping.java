@@ -22,6 +22,12 @@ public final class EdgeMapping {
     private final String parentPrimaryKey;
     private final String childForeignKey;
 
+    // Approximate row count of the join table (JOIN_TABLE only); 0 when unknown.
+    private final long estimatedRows;
+
+    // Every non-null key column of the mapping references an existing row of the node it points at.
+    private final boolean referentialIntegrity;
+
     private EdgeMapping(
             final String type,
             final String fromLabel,
@@ -33,7 +39,9 @@ public final class EdgeMapping {
             final String fromKey,
             final String toKey,
             final String parentPrimaryKey,
-            final String childForeignKey) {
+            final String childForeignKey,
+            final long estimatedRows,
+            final boolean referentialIntegrity) {
         this.type = type;
         this.fromLabel = fromLabel;
         this.toLabel = toLabel;
@@ -45,6 +53,8 @@ public final class EdgeMapping {
         this.toKey = toKey;
         this.parentPrimaryKey = parentPrimaryKey;
         this.childForeignKey = childForeignKey;
+        this.estimatedRows = estimatedRows;
+        this.referentialIntegrity = referentialIntegrity;
     }
 
     public static EdgeMapping forJoinTable(
@@ -55,7 +65,7 @@ public final class EdgeMapping {
             final String fromJoinKey,
             final String toJoinKey) {
         return new EdgeMapping(type, fromLabel, toLabel, RelationshipKind.JOIN_TABLE,
-                joinTable, fromJoinKey, toJoinKey, null, null, null, null);
+                joinTable, fromJoinKey, toJoinKey, null, null, null, null, 0L, false);
     }
 
     public static EdgeMapping forSelfReferential(
@@ -64,7 +74,7 @@ public final class EdgeMapping {
             final String fromKey,
             final String toKey) {
         return new EdgeMapping(type, label, label, RelationshipKind.SELF_REFERENTIAL,
-                null, null, null, fromKey, toKey, null, null);
+                null, null, null, fromKey, toKey, null, null, 0L, false);
     }
 
     public static EdgeMapping forOneToMany(
@@ -74,7 +84,20 @@ public final class EdgeMapping {
             final String parentPrimaryKey,
             final String childForeignKey) {
         return new EdgeMapping(type, parentLabel, childLabel, RelationshipKind.ONE_TO_MANY,
-                null, null, null, null, null, parentPrimaryKey, childForeignKey);
+                null, null, null, null, null, parentPrimaryKey, childForeignKey, 0L, false);
+    }
+
+    public EdgeMapping withEstimatedRows(final long rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Edge mapping rows must not be negative: " + type);
+        }
+        return new EdgeMapping(type, fromLabel, toLabel, relationshipKind, joinTable, fromJoinKey, toJoinKey,
+                fromKey, toKey, parentPrimaryKey, childForeignKey, rows, referentialIntegrity);
+    }
+
+    public EdgeMapping withReferentialIntegrity(final boolean enforced) {
+        return new EdgeMapping(type, fromLabel, toLabel, relationshipKind, joinTable, fromJoinKey, toJoinKey,
+                fromKey, toKey, parentPrimaryKey, childForeignKey, estimatedRows, enforced);
     }
 
     public String type() {
@@ -120,4 +143,12 @@ public final class EdgeMapping {
     public String childForeignKey() {
         return childForeignKey;
     }
+
+    public long estimatedRows() {
+        return estimatedRows;
+    }
+
+    public boolean hasReferentialIntegrity() {
+        return referentialIntegrity;
+    }
 }
@@ -0,0 +1,86 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+
+import java.util.List;
+
+// Renders a pattern chain as the body of an EXISTS semi-join. Relations are applied outward from the
+// anchor, a node already bound in the enclosing query, onto SelectQuery.correlated(), so the first join's
+// ON condition becomes the correlation. Without an anchor the chain starts from its first node's table and
+// the subquery is uncorrelated. Further labels and inline properties of the unbound nodes filter inside
+// the subquery; the anchor's belong to its caller. A far end with no inline properties or further labels
+// drops its table when the mapping lets a key column stand in for it, since nothing reads it.
+final class ExistsSubquery {
+    private final SchemaDefinition schema;
+    private final AliasState aliases;
+
+    ExistsSubquery(final SchemaDefinition schema, final AliasState aliases) {
+        this.schema = schema;
+        this.aliases = aliases;
+    }
+
+    // nodeAliases is positional; anchor is the index of the bound node, or -1 when none is.
+    SelectQuery build(
+            final List<Node> nodes,
+            final List<Edge> edges,
+            final List<String> nodeAliases,
+            final int anchor) {
+        final SelectQuery subquery;
+        final int start;
+        if (anchor < 0) {
+            subquery = SelectQuery.from(schema.nodeForLabel(nodes.get(0).label()).table(), nodeAliases.get(0))
+                    .addSelectColumn("1");
+            start = 0;
+        } else {
+            subquery = SelectQuery.correlated();
+            start = anchor;
+        }
+        for (int i = start; i < edges.size(); i++) {
+            final Relation relation = relation(nodes, edges, nodeAliases, i);
+            if (i == edges.size() - 1 && isDroppable(nodes.get(i + 1), relation, false)) {
+                relation.applyKeyOnly(subquery, schema, aliases, false);
+            } else {
+                relation.applyTo(subquery, schema, aliases);
+            }
+        }
+        for (int i = start - 1; i >= 0; i--) {
+            final Relation relation = relation(nodes, edges, nodeAliases, i);
+            if (i == 0 && isDroppable(nodes.get(0), relation, true)) {
+                relation.applyKeyOnly(subquery, schema, aliases, true);
+            } else {
+                relation.applyReversed(subquery, schema, aliases);
+            }
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i != anchor) {
+                LabelFilter.apply(subquery, schema, aliases, nodeAliases.get(i), nodes.get(i));
+                PropertyFilter.apply(subquery, nodeAliases.get(i), nodes.get(i).properties());
+            }
+        }
+        return subquery;
+    }
+
+    private Relation relation(
+            final List<Node> nodes,
+            final List<Edge> edges,
+            final List<String> nodeAliases,
+            final int edge) {
+        // Existence only: a relationship matched twice over is no different from once.
+        return Relation.from(
+                schema,
+                edges.get(edge),
+                nodes.get(edge),
+                nodes.get(edge + 1),
+                nodeAliases.get(edge),
+                nodeAliases.get(edge + 1),
+                true);
+    }
+
+    private boolean isDroppable(final Node node, final Relation relation, final boolean reversed) {
+        return node.properties().isEmpty()
+                && !LabelFilter.joinsTables(schema, node)
+                && relation.referencedKey(schema, reversed) != null;
+    }
+}
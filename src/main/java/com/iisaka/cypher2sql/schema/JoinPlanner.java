@@ -0,0 +1,183 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Chooses the root table and join order for a chained pattern (a)-[]-(b)-[]-(c)... The join graph of a
+// chain is a path, so every order is a growing interval of nodes: the planner starts at the node with the
+// smallest estimated row count and greedily extends the interval at whichever end yields the smaller
+// intermediate result.
+//
+// Estimates use what the schema declares: table row counts (NodeMapping/EdgeMapping estimatedRows), key
+// uniqueness (primary and unique keys), and anchored predicates, i.e. inline property maps on a node. An
+// anchor on a unique key pins the node to one row; any other equality keeps EQUALITY_SELECTIVITY of it.
+// Without statistics every node ties and the pattern is joined left to right, as written.
+final class JoinPlanner {
+    static final long DEFAULT_ROWS = 10_000L;
+    static final double DEFAULT_FANOUT = 10.0;
+    static final double EQUALITY_SELECTIVITY = 0.1;
+    static final int MAX_ESTIMATED_DEPTHS = 4;
+
+    private final SchemaDefinition schema;
+
+    JoinPlanner(final SchemaDefinition schema) {
+        this.schema = schema;
+    }
+
+    JoinOrder plan(final List<Node> nodes, final List<Edge> edges) {
+        final double[] nodeRows = new double[nodes.size()];
+        int root = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            final NodeMapping mapping = schema.nodeForLabel(nodes.get(i).label());
+            nodeRows[i] = rows(mapping) * selectivity(nodes.get(i), mapping);
+            if (nodeRows[i] < nodeRows[root]) {
+                root = i;
+            }
+        }
+
+        final List<Step> steps = new ArrayList<>(edges.size());
+        double current = nodeRows[root];
+        int low = root;
+        int high = root;
+        while (steps.size() < edges.size()) {
+            // Extending right joins node high + 1 over edge high; extending left joins node low - 1 over edge low - 1.
+            final double right = high < edges.size()
+                    ? current * fanout(edges.get(high), nodes.get(high), nodes.get(high + 1), false)
+                            * selectivity(nodes.get(high + 1))
+                    : Double.POSITIVE_INFINITY;
+            final double left = low > 0
+                    ? current * fanout(edges.get(low - 1), nodes.get(low - 1), nodes.get(low), true)
+                            * selectivity(nodes.get(low - 1))
+                    : Double.POSITIVE_INFINITY;
+            if (right <= left) {
+                steps.add(new Step(high, false, right));
+                current = right;
+                high++;
+            } else {
+                steps.add(new Step(low - 1, true, left));
+                current = left;
+                low--;
+            }
+        }
+        return new JoinOrder(root, nodeRows[root], steps);
+    }
+
+    // Rows reached per source row when joining across the edge; reversed means the right node is the source.
+    private double fanout(final Edge edge, final Node left, final Node right, final boolean reversed) {
+        final double single = singleHopFanout(edge, left, right, reversed);
+        if (!edge.isVariableLength() || !left.label().equals(right.label())) {
+            return single;
+        }
+        // A traversal reaches single^d rows at each depth d it covers; deep or unbounded ranges are capped.
+        double total = 0.0;
+        final int deepest = Math.min(edge.length().max(), edge.length().min() + MAX_ESTIMATED_DEPTHS - 1);
+        for (int depth = edge.length().min(); depth <= deepest; depth++) {
+            total += Math.pow(single, depth);
+        }
+        return total;
+    }
+
+    private double singleHopFanout(final Edge edge, final Node left, final Node right, final boolean reversed) {
+        // A union (undirected edge, type alternatives) reaches the rows of every branch.
+        double fanout = 0.0;
+        for (final UnionRelation.Branch branch : UnionRelation.branches(schema, edge, left, right)) {
+            fanout += directedFanout(branch.mapping(), left, right, branch.forward(), reversed);
+        }
+        return fanout;
+    }
+
+    // Type alternatives sharing a join shape (UnionRelation) may join the far table once with their key
+    // conditions OR-ed. Where every condition probes a unique key of that table, this is one lookup per
+    // alternative and bound row, as in the union; otherwise no single index serves the OR and the table is
+    // read whole. The union probes each alternative's key per bound row. True when the single join reads
+    // no more rows.
+    boolean prefersSingleJoin(
+            final Node left,
+            final Node right,
+            final List<UnionRelation.Branch> branches,
+            final boolean reversed) {
+        final Node bound = reversed ? right : left;
+        final NodeMapping joined = schema.nodeForLabel((reversed ? left : right).label());
+        final double boundRows = rows(schema.nodeForLabel(bound.label())) * selectivity(bound);
+        double unionRows = 0.0;
+        boolean uniqueProbes = true;
+        for (final UnionRelation.Branch branch : branches) {
+            final EdgeMapping mapping = branch.mapping();
+            unionRows += boundRows * directedFanout(mapping, left, right, branch.forward(), reversed);
+            // The joined node is the mapping's from node when it sits on the side the mapping starts from.
+            final boolean joinedIsFrom = branch.forward() == reversed;
+            final String probed = mapping.relationshipKind() == EdgeMapping.RelationshipKind.ONE_TO_MANY
+                    ? (joinedIsFrom ? mapping.parentPrimaryKey() : mapping.childForeignKey())
+                    : (joinedIsFrom ? mapping.fromKey() : mapping.toKey());
+            uniqueProbes &= joined.isUniqueKey(probed);
+        }
+        final double singleRows = uniqueProbes ? boundRows * branches.size() : rows(joined);
+        return singleRows <= unionRows;
+    }
+
+    // forward: the left node plays the mapping's from role (see Relation.isForward).
+    private double directedFanout(
+            final EdgeMapping mapping,
+            final Node left,
+            final Node right,
+            final boolean forward,
+            final boolean reversed) {
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        final NodeMapping rightMapping = schema.nodeForLabel(right.label());
+        return switch (mapping.relationshipKind()) {
+            case JOIN_TABLE -> mapping.estimatedRows() > 0
+                    ? mapping.estimatedRows() / rows(reversed ? rightMapping : leftMapping)
+                    : DEFAULT_FANOUT;
+            case SELF_REFERENTIAL -> {
+                // from.fromKey = to.toKey: probing a unique column finds at most one row.
+                final NodeMapping target = reversed ? leftMapping : rightMapping;
+                final boolean unique = target.isUniqueKey(reversed == forward ? mapping.fromKey() : mapping.toKey());
+                yield unique ? 1.0 : DEFAULT_FANOUT;
+            }
+            case ONE_TO_MANY -> {
+                final boolean sourceIsParent = forward != reversed;
+                if (!sourceIsParent) {
+                    // Child to parent follows a foreign key to a primary key.
+                    yield 1.0;
+                }
+                final NodeMapping parent = reversed ? rightMapping : leftMapping;
+                final NodeMapping child = reversed ? leftMapping : rightMapping;
+                yield parent.estimatedRows() > 0 && child.estimatedRows() > 0
+                        ? (double) child.estimatedRows() / parent.estimatedRows()
+                        : DEFAULT_FANOUT;
+            }
+        };
+    }
+
+    private double selectivity(final Node node) {
+        return selectivity(node, schema.nodeForLabel(node.label()));
+    }
+
+    private static double selectivity(final Node node, final NodeMapping mapping) {
+        if (node.properties().isEmpty()) {
+            return 1.0;
+        }
+        final double rows = rows(mapping);
+        for (final String key : node.properties().keySet()) {
+            if (mapping.isUniqueKey(key)) {
+                return 1.0 / rows;
+            }
+        }
+        return Math.max(1.0 / rows, Math.pow(EQUALITY_SELECTIVITY, node.properties().size()));
+    }
+
+    private static double rows(final NodeMapping mapping) {
+        return mapping.estimatedRows() > 0 ? mapping.estimatedRows() : DEFAULT_ROWS;
+    }
+
+    // Root node index (pattern position) and the edges in join order with their estimated output rows.
+    record JoinOrder(int root, double rootRows, List<Step> steps) {
+    }
+
+    // Joins the edge at pattern position `edge`; reversed when entered from its right node.
+    record Step(int edge, boolean reversed, double estimatedRows) {
+    }
+}
@@ -4,38 +4,118 @@ import com.iisaka.cypher2sql.query.cypher.Node;
 import com.iisaka.cypher2sql.query.sql.JoinClause;
 import com.iisaka.cypher2sql.query.sql.SelectQuery;
 
+import java.util.Map;
+
 final class JoinTableRelation implements Relation {
     private final EdgeMapping edgeMapping;
+    // Relationship property map; its equalities filter the join-table rows.
+    private final Map<String, String> properties;
     private final Node left;
     private final Node right;
     private final String leftAlias;
     private final String rightAlias;
+    // The left node holds the mapping's fromJoinKey side; false when the pattern enters the mapping from its end.
+    private final boolean forward;
+    // Assigned when the relation is applied.
+    private String joinAlias;
 
     JoinTableRelation(
             final EdgeMapping edgeMapping,
+            final Map<String, String> properties,
             final Node left,
             final Node right,
             final String leftAlias,
-            final String rightAlias) {
+            final String rightAlias,
+            final boolean forward) {
         this.edgeMapping = edgeMapping;
+        this.properties = properties;
         this.left = left;
         this.right = right;
         this.leftAlias = leftAlias;
         this.rightAlias = rightAlias;
+        this.forward = forward;
     }
 
     @Override
     public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
         final NodeMapping leftMapping = schema.nodeForLabel(left.label());
         final NodeMapping rightMapping = schema.nodeForLabel(right.label());
-        final String joinAlias = aliases.nextJoinAlias();
+        joinAlias = aliases.nextJoinAlias();
 
         final String joinOnLeft = leftAlias + "." + leftMapping.primaryKey()
-                + " = " + joinAlias + "." + edgeMapping.fromJoinKey();
+                + " = " + joinAlias + "." + leftJoinKey();
         select.addJoin(new JoinClause(JoinClause.JoinType.INNER, edgeMapping.joinTable(), joinAlias, joinOnLeft));
+        PropertyFilter.apply(select, joinAlias, properties);
 
-        final String joinOnRight = joinAlias + "." + edgeMapping.toJoinKey()
+        final String joinOnRight = joinAlias + "." + rightJoinKey()
                 + " = " + rightAlias + "." + rightMapping.primaryKey();
         select.addJoin(new JoinClause(JoinClause.JoinType.INNER, rightMapping.table(), rightAlias, joinOnRight));
     }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        final NodeMapping rightMapping = schema.nodeForLabel(right.label());
+        joinAlias = aliases.nextJoinAlias();
+
+        final String joinOnRight = joinAlias + "." + rightJoinKey()
+                + " = " + rightAlias + "." + rightMapping.primaryKey();
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, edgeMapping.joinTable(), joinAlias, joinOnRight));
+        PropertyFilter.apply(select, joinAlias, properties);
+
+        final String joinOnLeft = leftAlias + "." + leftMapping.primaryKey()
+                + " = " + joinAlias + "." + leftJoinKey();
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, leftMapping.table(), leftAlias, joinOnLeft));
+    }
+
+    @Override
+    public String relationshipAlias() {
+        return joinAlias;
+    }
+
+    // Both join keys reference node primary keys, so the join table alone yields the far node's key.
+    @Override
+    public String referencedKey(final SchemaDefinition schema, final boolean reversed) {
+        if (!edgeMapping.hasReferentialIntegrity()) {
+            return null;
+        }
+        return schema.nodeForLabel((reversed ? left : right).label()).primaryKey();
+    }
+
+    @Override
+    public String applyKeyOnly(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        joinAlias = aliases.nextJoinAlias();
+        if (reversed) {
+            final NodeMapping rightMapping = schema.nodeForLabel(right.label());
+            final String joinOnRight = joinAlias + "." + rightJoinKey()
+                    + " = " + rightAlias + "." + rightMapping.primaryKey();
+            select.addJoin(new JoinClause(JoinClause.JoinType.INNER, edgeMapping.joinTable(), joinAlias, joinOnRight));
+            PropertyFilter.apply(select, joinAlias, properties);
+            return notNull(select, joinAlias + "." + leftJoinKey());
+        }
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        final String joinOnLeft = leftAlias + "." + leftMapping.primaryKey()
+                + " = " + joinAlias + "." + leftJoinKey();
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, edgeMapping.joinTable(), joinAlias, joinOnLeft));
+        PropertyFilter.apply(select, joinAlias, properties);
+        return notNull(select, joinAlias + "." + rightJoinKey());
+    }
+
+    // A null key in the join table matches no node, so the skipped join must not let the row through either.
+    private static String notNull(final SelectQuery select, final String key) {
+        select.addWhere(key + " IS NOT NULL");
+        return key;
+    }
+
+    private String leftJoinKey() {
+        return forward ? edgeMapping.fromJoinKey() : edgeMapping.toJoinKey();
+    }
+
+    private String rightJoinKey() {
+        return forward ? edgeMapping.toJoinKey() : edgeMapping.fromJoinKey();
+    }
 }
@@ -0,0 +1,56 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.sql.JoinClause;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+
+// The labels of a node beyond the first, whose table the node is read from. A label mapped to that same
+// table holds for every row. In a conjunction (n:Person:Actor), a label with a table of its own becomes an
+// inner join of that table on the primary keys, which both hold the node's identity: the join keeps the
+// rows present in both tables and cannot add any. A disjunction (n:A|B) over different tables would need
+// the query repeated per table, which is not supported yet.
+final class LabelFilter {
+    private LabelFilter() {
+    }
+
+    static void apply(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final String alias,
+            final Node node) {
+        if (!joinsTables(schema, node)) {
+            return;
+        }
+        final NodeMapping primary = schema.nodeForLabel(node.label());
+        for (final String label : node.labels().subList(1, node.labels().size())) {
+            final NodeMapping mapping = schema.nodeForLabel(label);
+            if (mapping.table().equals(primary.table())) {
+                continue;
+            }
+            final String joinAlias = aliases.nextJoinAlias();
+            select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), joinAlias,
+                    joinAlias + "." + mapping.primaryKey() + " = " + alias + "." + primary.primaryKey()));
+        }
+    }
+
+    // True when the node's labels span more than its own table, so the table has to be joined to test them.
+    static boolean joinsTables(final SchemaDefinition schema, final Node node) {
+        if (node.labels().size() < 2) {
+            return false;
+        }
+        final String table = schema.nodeForLabel(node.label()).table();
+        for (final String label : node.labels()) {
+            if (schema.nodeForLabel(label).table().equals(table)) {
+                continue;
+            }
+            if (node.anyLabel()) {
+                throw new UnsupportedOperationException(
+                        "Label alternatives mapped to different tables are not supported yet: "
+                                + String.join("|", node.labels()));
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,23 +1,148 @@
 package com.iisaka.cypher2sql.schema;
 
+import com.iisaka.cypher2sql.query.cypher.Deadline;
 import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Expression;
 import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.OptionalMatch;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
 import com.iisaka.cypher2sql.query.cypher.Pattern;
+import com.iisaka.cypher2sql.query.cypher.PatternPredicate;
 import com.iisaka.cypher2sql.query.cypher.Query;
+import com.iisaka.cypher2sql.query.cypher.ResultSlice;
+import com.iisaka.cypher2sql.query.cypher.ReturnItem;
+import com.iisaka.cypher2sql.query.cypher.Syntax;
+import com.iisaka.cypher2sql.query.sql.Dialect;
 import com.iisaka.cypher2sql.query.sql.SelectQuery;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public final class Mapping {
     private final SchemaDefinition schema;
+    private final ParseBudget budget;
+    private final boolean keysetPagination;
+    // Resolved on first parse, so building a Mapping (e.g. only to plan pre-parsed queries) does not load the grammar.
+    private volatile Syntax syntax;
 
     public Mapping(final SchemaDefinition schema) {
+        this(schema, ParseBudget.unlimited(), false);
+    }
+
+    private Mapping(final SchemaDefinition schema, final ParseBudget budget, final boolean keysetPagination) {
         this.schema = schema;
+        this.budget = budget;
+        this.keysetPagination = keysetPagination;
+    }
+
+    // Bounds parsing and planning of every query translated through the returned mapping. One deadline
+    // spans both stages of a translation.
+    public Mapping withBudget(final ParseBudget parseBudget) {
+        return new Mapping(schema, parseBudget, keysetPagination);
+    }
+
+    // Opt-in keyset pagination: where the sort allows it, SKIP becomes a seek past the previous page's last
+    // row, whose sort keys the caller binds as __after_<variable>_<key> parameters. The SKIP count is then
+    // not bound at all: the __after_* values alone select the page. See Pagination for when it applies,
+    // which needs sort keys declared NOT NULL (notNullKeys).
+    public Mapping withKeysetPagination() {
+        return new Mapping(schema, budget, true);
+    }
+
+    public ParseBudget budget() {
+        return budget;
+    }
+
+    boolean keysetPagination() {
+        return keysetPagination;
+    }
+
+    SchemaDefinition schema() {
+        return schema;
+    }
+
+    Query parse(final String cypher, final Deadline deadline) {
+        return Query.parse(cypher, Query.ParseTreeRetention.DISCARD, syntax(), deadline);
+    }
+
+    private Syntax syntax() {
+        Syntax resolved = syntax;
+        if (resolved == null) {
+            // A racing thread may resolve it too; both results are equivalent.
+            resolved = Syntax.cypher25().withBudget(budget);
+            syntax = resolved;
+        }
+        return resolved;
     }
 
     public SelectQuery toSql(final Query query) {
+        return plan(query, budget.deadline()).select();
+    }
+
+    // Renders with `?` placeholders; literals lifted from the Cypher text travel with the SQL for binding.
+    public Translation translate(final Query query, final Dialect dialect) {
+        return translate(query, dialect, budget.deadline());
+    }
+
+    Translation translate(final Query query, final Dialect dialect, final Deadline deadline) {
+        final SelectQuery select = plan(query, deadline).select();
+        return new Translation(select.renderParameterized(dialect), query.shape().parameters());
+    }
+
+    // Plans and renders once; the result only needs its $parameters bound per request.
+    public PreparedTranslation prepare(final Query query, final Dialect dialect) {
+        final Plan plan = plan(query, budget.deadline());
+        final Translation translation =
+                new Translation(plan.select().renderParameterized(dialect), query.shape().parameters());
+        return PreparedTranslation.of(translation, plan.columns(dialect));
+    }
+
+    // Translates independent queries in parallel on the common fork-join pool. Results (including
+    // per-query failures) come back in input order; parser state is thread-confined inside Syntax and the
+    // schema is only read, so workers share nothing mutable.
+    public List<TranslationResult> translateAll(final List<String> cyphers, final Dialect dialect) {
+        return translateAll(cyphers, dialect, ForkJoinPool.commonPool());
+    }
+
+    public List<TranslationResult> translateAll(
+            final List<String> cyphers,
+            final Dialect dialect,
+            final ForkJoinPool pool) {
+        final List<String> inputs = List.copyOf(cyphers);
+        final TranslationResult[] results = new TranslationResult[inputs.size()];
+        pool.submit(() -> IntStream.range(0, inputs.size())
+                        .parallel()
+                        .forEach(i -> results[i] = translateOne(i, inputs.get(i), dialect)))
+                .join();
+        return List.of(results);
+    }
+
+    public List<TranslationResult> translateAll(final Stream<String> cyphers, final Dialect dialect) {
+        return translateAll(cyphers.toList(), dialect);
+    }
+
+    private TranslationResult translateOne(final int index, final String cypher, final Dialect dialect) {
+        try {
+            final Deadline deadline = budget.deadline();
+            return TranslationResult.success(index, cypher, translate(parse(cypher, deadline), dialect, deadline));
+        } catch (RuntimeException ex) {
+            return TranslationResult.failure(index, cypher, ex);
+        } catch (StackOverflowError ex) {
+            // Nesting deep enough to exhaust the parser's recursion fails this query, not the whole batch.
+            return TranslationResult.failure(index, cypher,
+                    new IllegalArgumentException("Cypher query is nested too deeply to translate.", ex));
+        }
+    }
+
+    private Plan plan(final Query query, final Deadline deadline) {
+        deadline.check("planning");
         final List<Pattern> patterns = query.patterns();
         if (patterns.isEmpty()) {
             throw new IllegalArgumentException("No patterns parsed from Cypher query.");
@@ -26,7 +151,17 @@ public final class Mapping {
         final Pattern pattern = patterns.get(0);
         final List<Node> nodes = pattern.nodes();
         final List<Edge> edges = pattern.edges();
-        new TranslationCapabilities(query.raw(), edges.size()).ensureSupported();
+        new TranslationCapabilities(query.raw(), edges, pattern.selector()).ensureSupported();
+        for (final PatternPredicate predicate : query.patternPredicates()) {
+            new TranslationCapabilities(query.raw(), predicate.pattern().edges()).ensureSupported();
+        }
+        for (final OptionalMatch optional : query.optionalMatches()) {
+            new TranslationCapabilities(query.raw(), optional.pattern().edges()).ensureSupported();
+            if (!optional.patternPredicates().isEmpty()) {
+                throw new UnsupportedOperationException(
+                        "Pattern predicates in an OPTIONAL MATCH WHERE are not supported yet: " + query.raw());
+            }
+        }
         if (nodes.isEmpty()) {
             throw new IllegalArgumentException("Cypher pattern contains no nodes.");
         }
@@ -34,33 +169,267 @@ public final class Mapping {
         final Map<String, String> nodeAliases = assignNodeAliases(nodes);
         final AliasState aliases = new AliasState(nodeAliases.size());
 
-        final Node root = nodes.get(0);
+        // Variables that pattern predicates correlate on, OPTIONAL MATCH joins from, or WHERE conditions and
+        // ORDER BY read, keep their tables.
+        final Set<String> correlated = correlatedVariables(query);
+        for (final Expression condition : query.conditions()) {
+            WhereTranslator.collectVariables(condition, correlated);
+        }
+        for (final OptionalMatch optional : query.optionalMatches()) {
+            for (final Node node : optional.pattern().nodes()) {
+                if (node.variable() != null) {
+                    correlated.add(node.variable());
+                }
+            }
+        }
+        for (final ResultSlice.SortItem item : query.slice().orderBy()) {
+            WhereTranslator.collectVariables(item.expression(), correlated);
+        }
+        final Set<String> referenced = new HashSet<>(correlated);
+        if (query.returnItems().isEmpty()) {
+            referenced.add(nodes.get(0).variable());
+        }
+        for (final ReturnItem item : query.returnItems()) {
+            referenced.add(item.variable());
+        }
+        final Map<String, String> nodeLabels = new HashMap<>();
+        for (final Node node : nodes) {
+            nodeLabels.put(node.variable(), node.label());
+        }
+        final Projection projection = new Projection(
+                query.returnItems(), nodeAliases.get(nodes.get(0).variable()), nodeAliases, nodeLabels, schema);
+
+        // Under RETURN DISTINCT, chain ends whose nodes nothing reads only test for existence: they become
+        // EXISTS semi-joins instead of joins that would fan rows out only for DISTINCT to fold them again.
+        // The rest of the chain (the core) is joined. Aggregates count the fanned-out rows, so they keep it.
+        int first = 0;
+        int last = nodes.size() - 1;
+        if (query.distinct() && !projection.hasAggregates()) {
+            while (first < last && !referenced.contains(nodes.get(first).variable())
+                    && !referenced.contains(edges.get(first).variable())) {
+                first++;
+            }
+            while (last > first && !referenced.contains(nodes.get(last).variable())
+                    && !referenced.contains(edges.get(last - 1).variable())) {
+                last--;
+            }
+        }
+        final List<Node> core = nodes.subList(first, last + 1);
+        final List<Edge> coreEdges = edges.subList(first, last);
+
+        // Aliases follow pattern positions (t0, t1, ...) whatever the join order, so projections stay stable.
+        final JoinPlanner.JoinOrder order = new JoinPlanner(schema).plan(core, coreEdges);
+        final Node root = core.get(order.root());
         final NodeMapping rootMapping = schema.nodeForLabel(root.label());
-        final String rootAlias = nodeAliases.get(root.variable());
-        final SelectQuery select = SelectQuery.from(rootMapping.table(), rootAlias);
-        new Projection(query.returnItems(), rootAlias, nodeAliases).applyTo(select);
+        final SelectQuery select = SelectQuery.from(rootMapping.table(), nodeAliases.get(root.variable()));
+        if (query.distinct()) {
+            select.distinct();
+        }
 
-        for (int i = 0; i < edges.size(); i++) {
-            final Edge edge = edges.get(i);
-            final Node left = nodes.get(i);
-            final Node right = nodes.get(i + 1);
-            final EdgeMapping edgeMapping = schema.edgeForType(edge.type());
-            final Relation relation = Relation.from(
-                    edgeMapping,
-                    left,
-                    right,
-                    nodeAliases.get(left.variable()),
-                    nodeAliases.get(right.variable()));
-            relation.applyTo(select, schema, aliases);
+        final Map<String, String> edgeAliases = new HashMap<>();
+        for (final JoinPlanner.Step step : order.steps()) {
+            deadline.check("planning");
+            final Edge edge = coreEdges.get(step.edge());
+            final Node left = core.get(step.edge());
+            final Node right = core.get(step.edge() + 1);
+            final Relation relation = pattern.selector() == Pattern.Selector.ALL
+                    ? Relation.from(
+                            schema,
+                            edge,
+                            left,
+                            right,
+                            nodeAliases.get(left.variable()),
+                            nodeAliases.get(right.variable()),
+                            query.distinct() && !projection.hasAggregates())
+                    : new ShortestPathRelation(
+                            schema.edgeForType(edge.type()),
+                            pattern.selector(),
+                            edge,
+                            left,
+                            right,
+                            nodeAliases.get(left.variable()),
+                            nodeAliases.get(right.variable()),
+                            query.conditions());
+            final int target = first + (step.reversed() ? step.edge() : step.edge() + 1);
+            final String key = relation.referencedKey(schema, step.reversed());
+            if (key != null && isKeyOnly(nodes, target, key, projection, correlated)
+                    && !LabelFilter.joinsTables(schema, nodes.get(target))) {
+                final String keyColumn = relation.applyKeyOnly(select, schema, aliases, step.reversed());
+                projection.useKeyColumn(nodes.get(target).variable(), key, keyColumn);
+            } else if (step.reversed()) {
+                relation.applyReversed(select, schema, aliases);
+            } else {
+                relation.applyTo(select, schema, aliases);
+            }
+            if (edge.variable() != null) {
+                edgeAliases.put(edge.variable(), relation.relationshipAlias());
+            }
         }
 
-        return select;
+        // Filters are pushed down once every join is in place. Further labels and inline property maps
+        // filter their node; relationship properties were added by the relation joining them.
+        for (final Node node : core) {
+            LabelFilter.apply(select, schema, aliases, nodeAliases.get(node.variable()), node);
+            PropertyFilter.apply(select, nodeAliases.get(node.variable()), node.properties());
+        }
+        final WhereTranslator where = new WhereTranslator(schema, nodeAliases, nodeLabels, edgeAliases);
+        for (final Expression condition : query.conditions()) {
+            final WhereTranslator.Filter filter = where.translate(condition);
+            select.addFilter(filter.sql(), filter.parameterNames(), filter.aliases());
+        }
+
+        // OPTIONAL MATCH segments bind their variables in the maps the translator reads, so their own WHERE
+        // conditions, ORDER BY and RETURN see them; the MATCH's WHERE above does not.
+        final List<Node> bound = new ArrayList<>(nodes);
+        final OptionalJoin optionalJoin = new OptionalJoin(schema, aliases, nodeAliases, nodeLabels, edgeAliases);
+        for (final OptionalMatch optional : query.optionalMatches()) {
+            deadline.check("planning");
+            final SelectQuery segment = optionalJoin.build(optional, query.raw());
+            for (final Expression condition : optional.conditions()) {
+                final WhereTranslator.Filter filter = where.translate(condition);
+                segment.addFilter(filter.sql(), filter.parameterNames(), filter.aliases());
+            }
+            select.addLeftJoin(segment);
+            for (final Node node : optional.pattern().nodes()) {
+                if (node.variable() != null
+                        && bound.stream().noneMatch(other -> node.variable().equals(other.variable()))) {
+                    bound.add(node);
+                }
+            }
+        }
+        // A seek pages through rows of the pattern, not through groups.
+        new Pagination(schema, where, keysetPagination && !projection.hasAggregates())
+                .apply(select, query.slice(), bound, nodeAliases.get(nodes.get(0).variable()));
+
+        final ExistsSubquery exists = new ExistsSubquery(schema, aliases);
+        if (first > 0) {
+            final List<Node> branch = nodes.subList(0, first + 1);
+            select.addWhereExists(
+                    exists.build(branch, edges.subList(0, first), positionalAliases(branch, nodeAliases), first),
+                    false);
+        }
+        if (last < nodes.size() - 1) {
+            final List<Node> branch = nodes.subList(last, nodes.size());
+            select.addWhereExists(
+                    exists.build(branch, edges.subList(last, edges.size()), positionalAliases(branch, nodeAliases), 0),
+                    false);
+        }
+        for (final PatternPredicate predicate : query.patternPredicates()) {
+            deadline.check("planning");
+            addPatternPredicate(select, predicate, query.raw(), nodes, nodeAliases, aliases, exists);
+        }
+        projection.applyTo(select);
+
+        return new Plan(select, projection, bound);
+    }
+
+    private record Plan(SelectQuery select, Projection projection, List<Node> nodes) {
+        List<ResultColumn> columns(final Dialect dialect) {
+            return projection.resultColumns(nodes, dialect);
+        }
+    }
+
+    // Variables named in pattern predicates; those bound by the MATCH correlate its rows with the subquery.
+    private static Set<String> correlatedVariables(final Query query) {
+        final Set<String> correlated = new HashSet<>();
+        for (final PatternPredicate predicate : query.patternPredicates()) {
+            for (final Node node : predicate.pattern().nodes()) {
+                if (node.variable() != null) {
+                    correlated.add(node.variable());
+                }
+            }
+        }
+        return correlated;
+    }
+
+    // A node's table can be dropped when nothing but its key is read: it ends the chain (no further join
+    // starts from it), carries no inline predicate, no pattern predicate correlates with it, and RETURN
+    // reads at most that key.
+    private static boolean isKeyOnly(
+            final List<Node> nodes,
+            final int index,
+            final String key,
+            final Projection projection,
+            final Set<String> correlated) {
+        final Node node = nodes.get(index);
+        return (index == 0 || index == nodes.size() - 1)
+                && node.properties().isEmpty()
+                && projection.readsOnly(node.variable(), key)
+                && !correlated.contains(node.variable());
+    }
+
+    private void addPatternPredicate(
+            final SelectQuery select,
+            final PatternPredicate predicate,
+            final String raw,
+            final List<Node> matchNodes,
+            final Map<String, String> nodeAliases,
+            final AliasState aliases,
+            final ExistsSubquery exists) {
+        final List<Node> nodes = new ArrayList<>(predicate.pattern().nodes());
+        final List<String> positional = new ArrayList<>(nodes.size());
+        final Map<String, String> introduced = new HashMap<>();
+        int anchor = -1;
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            final String boundAlias = node.variable() == null ? null : nodeAliases.get(node.variable());
+            if (boundAlias != null) {
+                if (anchor >= 0) {
+                    throw new UnsupportedOperationException(
+                            "Pattern predicates that connect more than one MATCH variable are not supported yet: "
+                                    + raw);
+                }
+                anchor = i;
+                // The predicate may omit the label of a MATCH variable; it is the same node.
+                if (node.label() == null) {
+                    nodes.set(i, new Node(node.variable(), labelOf(matchNodes, node.variable()), node.properties()));
+                }
+                positional.add(boundAlias);
+            } else if (node.variable() != null && introduced.containsKey(node.variable())) {
+                throw new UnsupportedOperationException(
+                        "Patterns that revisit a node variable are not supported yet: " + node.variable());
+            } else {
+                final String alias = aliases.nextNodeAlias();
+                if (node.variable() != null) {
+                    introduced.put(node.variable(), alias);
+                }
+                positional.add(alias);
+            }
+        }
+        final SelectQuery subquery = exists.build(nodes, predicate.pattern().edges(), positional, anchor);
+        if (anchor >= 0) {
+            // `(p {k: v})-->()` tests the bound row too, and belongs inside so NOT EXISTS negates it with the rest.
+            PropertyFilter.apply(subquery, positional.get(anchor), nodes.get(anchor).properties());
+        }
+        select.addWhereExists(subquery, predicate.negated());
+    }
+
+    private static List<String> positionalAliases(final List<Node> nodes, final Map<String, String> nodeAliases) {
+        final List<String> positional = new ArrayList<>(nodes.size());
+        for (final Node node : nodes) {
+            positional.add(nodeAliases.get(node.variable()));
+        }
+        return positional;
+    }
+
+    private static String labelOf(final List<Node> nodes, final String variable) {
+        for (final Node node : nodes) {
+            if (variable.equals(node.variable())) {
+                return node.label();
+            }
+        }
+        return null;
     }
 
     private Map<String, String> assignNodeAliases(final List<Node> nodes) {
         final Map<String, String> nodeAliases = new HashMap<>();
         for (int i = 0; i < nodes.size(); i++) {
-            nodeAliases.put(nodes.get(i).variable(), "t" + i);
+            final String variable = nodes.get(i).variable();
+            if (nodeAliases.put(variable, "t" + i) != null) {
+                // A revisited variable closes a cycle, which needs a join condition rather than another join.
+                throw new UnsupportedOperationException(
+                        "Patterns that revisit a node variable are not supported yet: " + variable);
+            }
         }
         return nodeAliases;
     }
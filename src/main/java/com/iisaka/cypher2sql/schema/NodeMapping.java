@@ -1,14 +1,46 @@
 package com.iisaka.cypher2sql.schema;
 
+import java.util.List;
+
 public final class NodeMapping {
     private final String label;
     private final String table;
     private final String primaryKey;
+    // Planner statistics: approximate row count (0 when unknown) and single-column unique keys besides the PK.
+    private final long estimatedRows;
+    private final List<String> uniqueKeys;
+    // Columns besides the PK that never hold NULL; keyset pagination only seeks over these.
+    private final List<String> notNullKeys;
 
     public NodeMapping(final String label, final String table, final String primaryKey) {
+        this(label, table, primaryKey, 0L, List.of());
+    }
+
+    public NodeMapping(
+            final String label,
+            final String table,
+            final String primaryKey,
+            final long estimatedRows,
+            final List<String> uniqueKeys) {
+        this(label, table, primaryKey, estimatedRows, uniqueKeys, List.of());
+    }
+
+    public NodeMapping(
+            final String label,
+            final String table,
+            final String primaryKey,
+            final long estimatedRows,
+            final List<String> uniqueKeys,
+            final List<String> notNullKeys) {
+        if (estimatedRows < 0) {
+            throw new IllegalArgumentException("Node mapping rows must not be negative: " + label);
+        }
         this.label = label;
         this.table = table;
         this.primaryKey = primaryKey;
+        this.estimatedRows = estimatedRows;
+        this.uniqueKeys = List.copyOf(uniqueKeys);
+        this.notNullKeys = List.copyOf(notNullKeys);
     }
 
     public String label() {
@@ -22,4 +54,24 @@ public final class NodeMapping {
     public String primaryKey() {
         return primaryKey;
     }
+
+    public long estimatedRows() {
+        return estimatedRows;
+    }
+
+    public List<String> uniqueKeys() {
+        return uniqueKeys;
+    }
+
+    public List<String> notNullKeys() {
+        return notNullKeys;
+    }
+
+    public boolean isUniqueKey(final String column) {
+        return column.equals(primaryKey) || uniqueKeys.contains(column);
+    }
+
+    public boolean isNotNull(final String column) {
+        return column.equals(primaryKey) || notNullKeys.contains(column);
+    }
 }
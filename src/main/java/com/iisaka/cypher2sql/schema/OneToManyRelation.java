@@ -10,39 +10,64 @@ final class OneToManyRelation implements Relation {
     private final Node right;
     private final String leftAlias;
     private final String rightAlias;
+    // The left node is the parent (the mapping's fromLabel).
+    private final boolean leftIsParent;
 
     OneToManyRelation(
             final EdgeMapping edgeMapping,
             final Node left,
             final Node right,
             final String leftAlias,
-            final String rightAlias) {
+            final String rightAlias,
+            final boolean leftIsParent) {
         this.edgeMapping = edgeMapping;
         this.left = left;
         this.right = right;
         this.leftAlias = leftAlias;
         this.rightAlias = rightAlias;
+        this.leftIsParent = leftIsParent;
     }
 
     @Override
     public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
         final NodeMapping rightMapping = schema.nodeForLabel(right.label());
-        final String parentLabel = edgeMapping.fromLabel();
-        final String childLabel = edgeMapping.toLabel();
-        final boolean leftIsParent = left.label().equals(parentLabel) && right.label().equals(childLabel);
-        final boolean rightIsParent = right.label().equals(parentLabel) && left.label().equals(childLabel);
-        if (leftIsParent) {
-            final String joinOn = rightAlias + "." + edgeMapping.childForeignKey()
-                    + " = " + leftAlias + "." + edgeMapping.parentPrimaryKey();
-            select.addJoin(new JoinClause(JoinClause.JoinType.INNER, rightMapping.table(), rightAlias, joinOn));
-            return;
-        }
-        if (rightIsParent) {
-            final String joinOn = leftAlias + "." + edgeMapping.childForeignKey()
-                    + " = " + rightAlias + "." + edgeMapping.parentPrimaryKey();
-            select.addJoin(new JoinClause(JoinClause.JoinType.INNER, rightMapping.table(), rightAlias, joinOn));
-            return;
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, rightMapping.table(), rightAlias, joinOn()));
+    }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, leftMapping.table(), leftAlias, joinOn()));
+    }
+
+    // Only the parent can be dropped: the bound child's foreign key is the parent's key. A null foreign key
+    // matches no parent, so applyKeyOnly filters those rows as the inner join would.
+    @Override
+    public String referencedKey(final SchemaDefinition schema, final boolean reversed) {
+        if (!edgeMapping.hasReferentialIntegrity()) {
+            return null;
         }
-        throw new IllegalArgumentException("Edge mapping labels do not match nodes: " + edgeMapping.type());
+        // The target is the left node when reversed.
+        final boolean targetIsParent = reversed == leftIsParent;
+        return targetIsParent ? edgeMapping.parentPrimaryKey() : null;
+    }
+
+    @Override
+    public String applyKeyOnly(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        final String foreignKey = (reversed ? rightAlias : leftAlias) + "." + edgeMapping.childForeignKey();
+        select.addWhere(foreignKey + " IS NOT NULL");
+        return foreignKey;
+    }
+
+    // The child's foreign key points at the parent's key whichever end of the pattern is bound first.
+    private String joinOn() {
+        final String parentAlias = leftIsParent ? leftAlias : rightAlias;
+        final String childAlias = leftIsParent ? rightAlias : leftAlias;
+        return childAlias + "." + edgeMapping.childForeignKey()
+                + " = " + parentAlias + "." + edgeMapping.parentPrimaryKey();
     }
 }
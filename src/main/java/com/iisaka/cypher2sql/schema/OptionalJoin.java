@@ -0,0 +1,126 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.OptionalMatch;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Builds the segment SelectQuery.addLeftJoin outer-joins for an OPTIONAL MATCH. As in ExistsSubquery,
+// relations are applied outward from the anchor, the node the MATCH already binds, onto
+// SelectQuery.correlated(), so the first join's ON condition ties the segment to the row. Inline properties
+// of the pattern (the anchor's too) filter inside the segment, where they null its columns instead of
+// dropping the row. The anchor has to end the pattern: a join nested under the LEFT JOIN cannot refer back
+// to the tables outside it. Every table is joined, since the optional nodes are what the query reads.
+final class OptionalJoin {
+    private final SchemaDefinition schema;
+    private final AliasState aliases;
+    private final Map<String, String> nodeAliases;
+    private final Map<String, String> nodeLabels;
+    private final Map<String, String> edgeAliases;
+
+    // The maps hold the variables bound so far; build adds the ones the OPTIONAL MATCH introduces.
+    OptionalJoin(
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final Map<String, String> nodeAliases,
+            final Map<String, String> nodeLabels,
+            final Map<String, String> edgeAliases) {
+        this.schema = schema;
+        this.aliases = aliases;
+        this.nodeAliases = nodeAliases;
+        this.nodeLabels = nodeLabels;
+        this.edgeAliases = edgeAliases;
+    }
+
+    SelectQuery build(final OptionalMatch optional, final String raw) {
+        final List<Edge> edges = optional.pattern().edges();
+        final List<Node> nodes = new ArrayList<>(optional.pattern().nodes());
+        if (edges.isEmpty()) {
+            throw new UnsupportedOperationException("OPTIONAL MATCH needs a relationship to follow: " + raw);
+        }
+        int anchor = -1;
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            if (node.variable() != null && nodeAliases.containsKey(node.variable())) {
+                if (anchor >= 0) {
+                    throw new UnsupportedOperationException(
+                            "OPTIONAL MATCH patterns that connect more than one bound variable are not supported yet: "
+                                    + raw);
+                }
+                anchor = i;
+            }
+        }
+        if (anchor != 0 && anchor != nodes.size() - 1) {
+            throw new UnsupportedOperationException(
+                    "OPTIONAL MATCH patterns must start or end at a variable the MATCH binds: " + raw);
+        }
+        // The pattern may omit the label of a bound variable; it is the same node.
+        final Node bound = nodes.get(anchor);
+        if (bound.label() == null) {
+            nodes.set(anchor, new Node(bound.variable(), nodeLabels.get(bound.variable()), bound.properties()));
+        }
+
+        final List<String> positional = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            if (i == anchor) {
+                positional.add(nodeAliases.get(node.variable()));
+                continue;
+            }
+            if (node.variable() != null && nodeLabels.containsKey(node.variable())) {
+                throw new UnsupportedOperationException(
+                        "Patterns that revisit a node variable are not supported yet: " + node.variable());
+            }
+            final String alias = aliases.nextNodeAlias();
+            positional.add(alias);
+            if (node.variable() != null) {
+                nodeAliases.put(node.variable(), alias);
+                nodeLabels.put(node.variable(), node.label());
+            }
+        }
+
+        final SelectQuery segment = SelectQuery.correlated();
+        for (int i = anchor; i < edges.size(); i++) {
+            apply(segment, nodes, edges, positional, i, false);
+        }
+        for (int i = anchor - 1; i >= 0; i--) {
+            apply(segment, nodes, edges, positional, i, true);
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i != anchor) {
+                LabelFilter.apply(segment, schema, aliases, positional.get(i), nodes.get(i));
+            }
+            PropertyFilter.apply(segment, positional.get(i), nodes.get(i).properties());
+        }
+        return segment;
+    }
+
+    private void apply(
+            final SelectQuery segment,
+            final List<Node> nodes,
+            final List<Edge> edges,
+            final List<String> positional,
+            final int index,
+            final boolean reversed) {
+        final Edge edge = edges.get(index);
+        final Relation relation = Relation.from(
+                schema,
+                edge,
+                nodes.get(index),
+                nodes.get(index + 1),
+                positional.get(index),
+                positional.get(index + 1));
+        if (reversed) {
+            relation.applyReversed(segment, schema, aliases);
+        } else {
+            relation.applyTo(segment, schema, aliases);
+        }
+        if (edge.variable() != null) {
+            edgeAliases.put(edge.variable(), relation.relationshipAlias());
+        }
+    }
+}
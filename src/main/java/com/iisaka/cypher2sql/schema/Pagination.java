@@ -0,0 +1,100 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Expression;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.ResultSlice;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Applies ORDER BY, SKIP and LIMIT; SelectQuery renders the row limit in the dialect's syntax. Counts
+// stay `?` placeholders (literal counts are lifted), so every page size shares one statement.
+//
+// With keyset pagination on, SKIP over a single-node pattern sorted by that node's properties in one
+// direction becomes a seek: `WHERE (sort keys) > (?, ?)` bound to the sort keys of the previous page's
+// last row, with the primary key appended as a tie-breaker unless a sort key is already unique. An index
+// on the sort keys then serves any page as cheaply as the first, where OFFSET reads and discards every
+// skipped row. The seek parameters are named __after_<variable>_<key>. A row-value comparison is never true
+// for a NULL, so a page boundary would silently drop every row with a NULL sort key: sort keys must be the
+// primary key or declared in the node's notNullKeys, else SKIP stays an OFFSET.
+final class Pagination {
+    static final String AFTER_PREFIX = "__after_";
+
+    private final SchemaDefinition schema;
+    private final WhereTranslator translator;
+    private final boolean keyset;
+
+    Pagination(final SchemaDefinition schema, final WhereTranslator translator, final boolean keyset) {
+        this.schema = schema;
+        this.translator = translator;
+        this.keyset = keyset;
+    }
+
+    void apply(final SelectQuery select, final ResultSlice slice, final List<Node> nodes, final String rootAlias) {
+        if (slice.isEmpty()) {
+            return;
+        }
+        if (slice.skip() != null && keyset && applySeek(select, slice, nodes, rootAlias)) {
+            select.limit(slice.limit() == null ? null : countParameter(slice.limit(), "LIMIT"));
+            return;
+        }
+        for (final ResultSlice.SortItem item : slice.orderBy()) {
+            final WhereTranslator.Filter sortKey = translator.translateValue(item.expression());
+            if (!sortKey.parameterNames().isEmpty()) {
+                throw new UnsupportedOperationException("ORDER BY parameters are not supported.");
+            }
+            select.addOrderBy(sortKey.sql(), item.descending());
+        }
+        if (slice.skip() != null) {
+            select.offset(countParameter(slice.skip(), "SKIP"));
+        }
+        if (slice.limit() != null) {
+            select.limit(countParameter(slice.limit(), "LIMIT"));
+        }
+    }
+
+    private boolean applySeek(
+            final SelectQuery select,
+            final ResultSlice slice,
+            final List<Node> nodes,
+            final String rootAlias) {
+        if (nodes.size() != 1 || slice.orderBy().isEmpty()) {
+            return false;
+        }
+        final Node node = nodes.get(0);
+        final NodeMapping mapping = schema.nodeForLabel(node.label());
+        final boolean descending = slice.orderBy().get(0).descending();
+        final List<String> keys = new ArrayList<>(slice.orderBy().size() + 1);
+        boolean unique = false;
+        for (final ResultSlice.SortItem item : slice.orderBy()) {
+            if (item.descending() != descending
+                    || !(item.expression() instanceof Expression.Property property)
+                    || !property.variable().equals(node.variable())
+                    || !mapping.isNotNull(property.key())) {
+                return false;
+            }
+            keys.add(property.key());
+            unique |= mapping.isUniqueKey(property.key());
+        }
+        if (!unique) {
+            keys.add(mapping.primaryKey());
+        }
+        final List<String> columns = new ArrayList<>(keys.size());
+        final List<String> parameterNames = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            columns.add(rootAlias + "." + key);
+            parameterNames.add(AFTER_PREFIX + node.variable() + "_" + key);
+            select.addOrderBy(rootAlias + "." + key, descending);
+        }
+        select.seekAfter(columns, parameterNames, descending);
+        return true;
+    }
+
+    private static String countParameter(final Expression count, final String clause) {
+        if (count instanceof Expression.Parameter parameter) {
+            return parameter.name();
+        }
+        throw new UnsupportedOperationException(clause + " takes a literal or a parameter.");
+    }
+}
@@ -0,0 +1,103 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.sql.ParameterizedSql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A fully planned and rendered query template. Immutable and safe to share across threads: binding
+// copies a prefilled value array (lifted literals already in place) and writes the caller's
+// $parameters into their precomputed slots.
+public final class PreparedTranslation {
+    private static final int LITERAL_SLOT = -1;
+
+    private final String sql;
+    private final List<String> parameterNames;
+    private final int[] slotParameters;
+    private final Object[] template;
+    private final List<ResultColumn> columns;
+
+    private PreparedTranslation(
+            final String sql,
+            final List<String> parameterNames,
+            final int[] slotParameters,
+            final Object[] template,
+            final List<ResultColumn> columns) {
+        this.sql = sql;
+        this.parameterNames = parameterNames;
+        this.slotParameters = slotParameters;
+        this.template = template;
+        this.columns = columns;
+    }
+
+    static PreparedTranslation of(final Translation translation, final List<ResultColumn> columns) {
+        final ParameterizedSql rendered = translation.sql();
+        final Map<String, Object> literals = translation.literals();
+        final List<String> placeholders = rendered.parameterNames();
+        final List<String> parameterNames = new ArrayList<>();
+        final int[] slotParameters = new int[placeholders.size()];
+        final Object[] template = new Object[placeholders.size()];
+        for (int slot = 0; slot < placeholders.size(); slot++) {
+            final String name = placeholders.get(slot);
+            if (literals.containsKey(name)) {
+                slotParameters[slot] = LITERAL_SLOT;
+                template[slot] = literals.get(name);
+                continue;
+            }
+            int index = parameterNames.indexOf(name);
+            if (index < 0) {
+                index = parameterNames.size();
+                parameterNames.add(name);
+            }
+            slotParameters[slot] = index;
+        }
+        return new PreparedTranslation(
+                rendered.sql(), List.copyOf(parameterNames), slotParameters, template, List.copyOf(columns));
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    // Distinct Cypher $parameters the caller must supply, in the order bind(Object...) expects them.
+    public List<String> parameterNames() {
+        return parameterNames;
+    }
+
+    public List<ResultColumn> columns() {
+        return columns;
+    }
+
+    public int placeholderCount() {
+        return slotParameters.length;
+    }
+
+    // Values for parameterNames(), positionally; returns the JDBC placeholder values in order.
+    public Object[] bind(final Object... values) {
+        if (values.length != parameterNames.size()) {
+            throw new IllegalArgumentException("Expected " + parameterNames.size()
+                    + " parameter values " + parameterNames + " but got " + values.length + ".");
+        }
+        final Object[] bound = template.clone();
+        for (int slot = 0; slot < slotParameters.length; slot++) {
+            final int parameter = slotParameters[slot];
+            if (parameter != LITERAL_SLOT) {
+                bound[slot] = values[parameter];
+            }
+        }
+        return bound;
+    }
+
+    public Object[] bind(final Map<String, ?> parameters) {
+        final Object[] values = new Object[parameterNames.size()];
+        for (int i = 0; i < values.length; i++) {
+            final String name = parameterNames.get(i);
+            if (!parameters.containsKey(name)) {
+                throw new IllegalArgumentException("Missing value for Cypher parameter: $" + name);
+            }
+            values[i] = parameters.get(name);
+        }
+        return bind(values);
+    }
+}
@@ -1,20 +1,67 @@
 package com.iisaka.cypher2sql.schema;
 
+import com.iisaka.cypher2sql.query.cypher.Node;
 import com.iisaka.cypher2sql.query.cypher.ReturnItem;
+import com.iisaka.cypher2sql.query.sql.Dialect;
 import com.iisaka.cypher2sql.query.sql.SelectQuery;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+// RETURN items as select columns. With aggregates in the RETURN, the other items are the grouping keys, as
+// in Cypher: a property groups by its column, a whole node by its primary key (the node's other columns
+// depend on it). count(v) counts v's primary key, which is null only where an OPTIONAL MATCH found nothing.
 final class Projection {
     private final List<ReturnItem> returnItems;
     private final String rootAlias;
     private final Map<String, String> nodeAliases;
+    private final Map<String, String> nodeLabels;
+    private final SchemaDefinition schema;
+    // Variables whose table was eliminated: the one property still readable and the expression that holds it.
+    private final Map<String, KeyColumn> keyColumns = new HashMap<>();
 
-    Projection(final List<ReturnItem> returnItems, final String rootAlias, final Map<String, String> nodeAliases) {
+    Projection(
+            final List<ReturnItem> returnItems,
+            final String rootAlias,
+            final Map<String, String> nodeAliases,
+            final Map<String, String> nodeLabels,
+            final SchemaDefinition schema) {
         this.returnItems = returnItems;
         this.rootAlias = rootAlias;
         this.nodeAliases = nodeAliases;
+        this.nodeLabels = nodeLabels;
+        this.schema = schema;
+    }
+
+    boolean hasAggregates() {
+        return returnItems.stream().anyMatch(ReturnItem::isAggregate);
+    }
+
+    // True when the variable is read at most through `property`, so its table may be replaced by a key column.
+    // count(v) only tests v for null, which the referencing key does as well as any of v's columns.
+    boolean readsOnly(final String variable, final String property) {
+        if (returnItems.isEmpty()) {
+            return !rootAlias.equals(nodeAliases.get(variable));
+        }
+        for (final ReturnItem item : returnItems) {
+            if (!variable.equals(item.variable())) {
+                continue;
+            }
+            final boolean countsNode = item.isAggregate()
+                    && item.aggregate().function() == ReturnItem.Function.COUNT
+                    && item.property() == null;
+            if (!countsNode && !property.equals(item.property())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void useKeyColumn(final String variable, final String property, final String sqlExpression) {
+        keyColumns.put(variable, new KeyColumn(property, sqlExpression));
     }
 
     void applyTo(final SelectQuery select) {
@@ -22,16 +69,103 @@ final class Projection {
             select.addSelectColumn(rootAlias + ".*");
             return;
         }
+        final boolean grouped = hasAggregates();
         for (final ReturnItem item : returnItems) {
-            final String alias = nodeAliases.get(item.variable());
-            if (alias == null) {
-                throw new IllegalArgumentException("RETURN references unknown variable: " + item.variable());
+            if (isCollect(item)) {
+                select.addCollectColumn(argumentExpression(item), item.aggregate().distinct());
+                continue;
+            }
+            select.addSelectColumn(columnExpression(item));
+            if (grouped && !item.isAggregate()) {
+                select.addGroupBy(item.property() == null ? keyExpression(item.variable()) : columnExpression(item));
             }
-            if (item.property() == null) {
-                select.addSelectColumn(alias + ".*");
-            } else {
-                select.addSelectColumn(alias + "." + item.property());
+        }
+    }
+
+    List<ResultColumn> resultColumns(final List<Node> nodes, final Dialect dialect) {
+        final List<ResultColumn> columns = new ArrayList<>();
+        if (returnItems.isEmpty()) {
+            final Node root = nodes.get(0);
+            columns.add(new ResultColumn(root.variable(), root.variable(), null, root.label(), rootAlias + ".*"));
+            return columns;
+        }
+        for (final ReturnItem item : returnItems) {
+            final String sqlExpression = isCollect(item)
+                    ? dialect.collect(argumentExpression(item), item.aggregate().distinct())
+                    : columnExpression(item);
+            columns.add(new ResultColumn(
+                    name(item), item.variable(), item.property(), labelOf(nodes, item.variable()), sqlExpression));
+        }
+        return columns;
+    }
+
+    private String columnExpression(final ReturnItem item) {
+        if (item.isAggregate()) {
+            final ReturnItem.Aggregate aggregate = item.aggregate();
+            final String argument = item.variable() == null ? "*" : argumentExpression(item);
+            return aggregate.function().name() + "(" + (aggregate.distinct() ? "DISTINCT " : "") + argument + ")";
+        }
+        final KeyColumn keyColumn = keyColumns.get(item.variable());
+        if (keyColumn != null && keyColumn.property().equals(item.property())) {
+            return keyColumn.sqlExpression();
+        }
+        return item.property() == null ? alias(item.variable()) + ".*" : alias(item.variable()) + "." + item.property();
+    }
+
+    // What an aggregate reads: a property column, or for count(v) the node's key.
+    private String argumentExpression(final ReturnItem item) {
+        if (item.property() != null) {
+            return columnExpression(new ReturnItem(item.variable(), item.property()));
+        }
+        if (item.aggregate().function() != ReturnItem.Function.COUNT) {
+            throw new UnsupportedOperationException(
+                    "Only count() aggregates whole nodes; aggregate a property instead: " + name(item));
+        }
+        return keyExpression(item.variable());
+    }
+
+    private String keyExpression(final String variable) {
+        final KeyColumn keyColumn = keyColumns.get(variable);
+        if (keyColumn != null) {
+            return keyColumn.sqlExpression();
+        }
+        final String alias = alias(variable);
+        return alias + "." + schema.nodeForLabel(nodeLabels.get(variable)).primaryKey();
+    }
+
+    private String alias(final String variable) {
+        final String alias = nodeAliases.get(variable);
+        if (alias == null) {
+            throw new IllegalArgumentException("RETURN references unknown variable: " + variable);
+        }
+        return alias;
+    }
+
+    private static boolean isCollect(final ReturnItem item) {
+        return item.isAggregate() && item.aggregate().function() == ReturnItem.Function.COLLECT;
+    }
+
+    // The Cypher text of the item, e.g. `p.name` or `count(DISTINCT m)`.
+    private static String name(final ReturnItem item) {
+        final String value = item.variable() == null
+                ? "*"
+                : item.property() == null ? item.variable() : item.variable() + "." + item.property();
+        if (!item.isAggregate()) {
+            return value;
+        }
+        return item.aggregate().function().name().toLowerCase(Locale.ROOT) + "("
+                + (item.aggregate().distinct() ? "DISTINCT " : "") + value + ")";
+    }
+
+    private record KeyColumn(String property, String sqlExpression) {
+    }
+
+    private static String labelOf(final List<Node> nodes, final String variable) {
+        for (final Node node : nodes) {
+            if (node.variable().equals(variable)) {
+                return node.label();
             }
         }
+        return null;
     }
 }
@@ -0,0 +1,61 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+import com.iisaka.cypher2sql.query.sql.TraversalCte;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Inline property maps as sargable equalities on the bare column: `{email: $e}` becomes `alias.email = ?`
+// bound to e, and a lifted literal (`{name: 'Keanu'}` -> $__lit0) binds the same way, so the database can
+// use an index on the column and one plan serves every literal value. SelectQuery.addFilter places each
+// equality at the earliest join that binds the alias.
+final class PropertyFilter {
+    private PropertyFilter() {
+    }
+
+    static void apply(final SelectQuery select, final String alias, final Map<String, String> properties) {
+        for (final Map.Entry<String, String> property : properties.entrySet()) {
+            final Equality equality = equality(alias, property.getKey(), property.getValue());
+            select.addFilter(equality.sql(), equality.parameterNames(), Set.of(alias));
+        }
+    }
+
+    // The same equalities AND-ed over alias `n` of the node's table, restricting where a traversal starts;
+    // null without properties.
+    static TraversalCte.Seed seed(final NodeMapping mapping, final Map<String, String> properties) {
+        if (properties.isEmpty()) {
+            return null;
+        }
+        final List<String> conditions = new ArrayList<>(properties.size());
+        final List<String> parameterNames = new ArrayList<>();
+        for (final Map.Entry<String, String> property : properties.entrySet()) {
+            final Equality equality = equality("n", property.getKey(), property.getValue());
+            conditions.add(equality.sql());
+            parameterNames.addAll(equality.parameterNames());
+        }
+        return new TraversalCte.Seed(
+                mapping.table(), mapping.primaryKey(), String.join(" AND ", conditions), parameterNames);
+    }
+
+    private static Equality equality(final String alias, final String property, final String value) {
+        final String column = alias + "." + property;
+        if (value.startsWith("$")) {
+            return new Equality(column + " = ?", List.of(value.substring(1)));
+        }
+        // Keyword literals stay inline; `= NULL` matches nothing, as a null property map value does in Cypher.
+        final String keyword = value.toUpperCase(Locale.ROOT);
+        if (keyword.equals("TRUE") || keyword.equals("FALSE") || keyword.equals("NULL")) {
+            return new Equality(column + " = " + keyword, List.of());
+        }
+        throw new UnsupportedOperationException(
+                "Unsupported property value in pattern: " + property + ": " + value
+                        + ". Only literals and parameters are supported.");
+    }
+
+    private record Equality(String sql, List<String> parameterNames) {
+    }
+}
@@ -1,21 +1,183 @@
 package com.iisaka.cypher2sql.schema;
 
+import com.iisaka.cypher2sql.query.cypher.Edge;
 import com.iisaka.cypher2sql.query.cypher.Node;
 import com.iisaka.cypher2sql.query.sql.SelectQuery;
 
-sealed interface Relation permits JoinTableRelation, SelfRelation, OneToManyRelation {
+import java.util.List;
+
+sealed interface Relation permits JoinTableRelation, SelfRelation, OneToManyRelation, UnionRelation,
+        VariableLengthRelation, ShortestPathRelation {
+    // Joins the right node's table; the left node is already bound in the query.
     void applyTo(SelectQuery select, SchemaDefinition schema, AliasState aliases);
 
+    // Same join conditions entered from the other end: the right node is bound and the left node's table is joined.
+    void applyReversed(SelectQuery select, SchemaDefinition schema, AliasState aliases);
+
+    // Join elimination: the column of the node that applyTo (reversed: applyReversed) would join, whose value
+    // this relation already holds in a key column with declared referential integrity; null when the node's
+    // table cannot be dropped.
+    default String referencedKey(final SchemaDefinition schema, final boolean reversed) {
+        return null;
+    }
+
+    // Joins only what carries the referencing key and returns that key's SQL expression, standing in for
+    // the far node's referencedKey column. Call only when referencedKey is non-null.
+    default String applyKeyOnly(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        throw new UnsupportedOperationException("Join elimination is not available for this relationship.");
+    }
+
+    // Alias of the table holding one row per relationship once the relation is applied; null when the
+    // mapping has none (a foreign key on a node table).
+    default String relationshipAlias() {
+        return null;
+    }
+
     static Relation from(
+            final SchemaDefinition schema,
+            final Edge edge,
+            final Node left,
+            final Node right,
+            final String leftAlias,
+            final String rightAlias) {
+        return from(schema, edge, left, right, leftAlias, rightAlias, false);
+    }
+
+    // distinctRows: only which rows match matters, not how many times (DISTINCT, EXISTS); see UnionRelation.
+    static Relation from(
+            final SchemaDefinition schema,
+            final Edge edge,
+            final Node left,
+            final Node right,
+            final String leftAlias,
+            final String rightAlias,
+            final boolean distinctRows) {
+        if (edge.types().size() > 1) {
+            final List<UnionRelation.Branch> branches = UnionRelation.branches(schema, edge, left, right);
+            final EdgeMapping first = branches.get(0).mapping();
+            if (branches.stream().allMatch(branch -> branch.mapping() == first)) {
+                // Only one alternative connects these labels.
+                return from(schema, edge.withType(first.type()), left, right, leftAlias, rightAlias, distinctRows);
+            }
+            final boolean forward = branches.get(0).forward();
+            return new UnionRelation(
+                    branches,
+                    edge.properties(),
+                    withLabel(left, forward ? first.fromLabel() : first.toLabel()),
+                    withLabel(right, forward ? first.toLabel() : first.fromLabel()),
+                    leftAlias,
+                    rightAlias,
+                    distinctRows);
+        }
+        final EdgeMapping edgeMapping = schema.edgeForType(edge.type());
+        if (edge.isVariableLength()) {
+            return new VariableLengthRelation(edgeMapping, edge, left, right, leftAlias, rightAlias);
+        }
+        if (!edge.properties().isEmpty() && edgeMapping.relationshipKind() != EdgeMapping.RelationshipKind.JOIN_TABLE) {
+            // Only a join table has a row per relationship to hold its properties.
+            throw new UnsupportedOperationException(
+                    "Relationship properties need a JOIN_TABLE mapping: " + edgeMapping.type());
+        }
+        return singleHop(edgeMapping, edge, left, right, leftAlias, rightAlias);
+    }
+
+    static Relation singleHop(
             final EdgeMapping edgeMapping,
+            final Edge edge,
             final Node left,
             final Node right,
             final String leftAlias,
             final String rightAlias) {
+        if (isUnion(edgeMapping, edge.direction(), left, right)) {
+            final Node labeledLeft = withLabel(left, edgeMapping.fromLabel());
+            final Node labeledRight = withLabel(right, edgeMapping.fromLabel());
+            return new UnionRelation(
+                    List.of(new UnionRelation.Branch(edgeMapping, true, false),
+                            new UnionRelation.Branch(edgeMapping, false, true)),
+                    edge.properties(), labeledLeft, labeledRight, leftAlias, rightAlias, false);
+        }
+        final boolean forward = isForward(edgeMapping, edge.direction(), left, right);
+        final Node labeledLeft = withLabel(left, forward ? edgeMapping.fromLabel() : edgeMapping.toLabel());
+        final Node labeledRight = withLabel(right, forward ? edgeMapping.toLabel() : edgeMapping.fromLabel());
         return switch (edgeMapping.relationshipKind()) {
-            case JOIN_TABLE -> new JoinTableRelation(edgeMapping, left, right, leftAlias, rightAlias);
-            case SELF_REFERENTIAL -> new SelfRelation(edgeMapping, left, right, leftAlias, rightAlias);
-            case ONE_TO_MANY -> new OneToManyRelation(edgeMapping, left, right, leftAlias, rightAlias);
+            case JOIN_TABLE -> new JoinTableRelation(
+                    edgeMapping, edge.properties(), labeledLeft, labeledRight, leftAlias, rightAlias, forward);
+            case SELF_REFERENTIAL -> new SelfRelation(edgeMapping, labeledLeft, leftAlias, rightAlias, forward);
+            case ONE_TO_MANY -> new OneToManyRelation(
+                    edgeMapping, labeledLeft, labeledRight, leftAlias, rightAlias, forward);
         };
     }
+
+    // An undirected edge over a mapping whose ends share a label matches a stored relationship either way
+    // round, so it is planned as the union of both directions (UnionRelation).
+    static boolean isUnion(
+            final EdgeMapping edgeMapping,
+            final Edge.Direction direction,
+            final Node left,
+            final Node right) {
+        return direction == Edge.Direction.UNDIRECTED
+                && edgeMapping.fromLabel().equals(edgeMapping.toLabel())
+                && fits(left, edgeMapping.fromLabel())
+                && fits(right, edgeMapping.fromLabel());
+    }
+
+    // True when the left node plays the mapping's from role (JOIN_TABLE fromJoinKey, SELF_REFERENTIAL
+    // fromKey, ONE_TO_MANY parent). Node labels decide where they tell the ends apart and the arrow has to
+    // agree with them; between ends of one label the arrow decides, so `<-` flips the key roles.
+    static boolean isForward(
+            final EdgeMapping edgeMapping,
+            final Edge.Direction direction,
+            final Node left,
+            final Node right) {
+        if (!connects(edgeMapping, direction, left, right)) {
+            throw mismatch(edgeMapping, left, right);
+        }
+        final boolean forward = connects(edgeMapping, Edge.Direction.LEFT_TO_RIGHT, left, right);
+        final boolean backward = connects(edgeMapping, Edge.Direction.RIGHT_TO_LEFT, left, right);
+        if (forward && backward) {
+            if (direction == Edge.Direction.UNDIRECTED && !edgeMapping.fromLabel().equals(edgeMapping.toLabel())) {
+                // Either unlabeled end could be either label, and one alias cannot stand for two tables.
+                throw new UnsupportedOperationException(
+                        "Undirected relationships need a labeled end node: " + edgeMapping.type());
+            }
+            return direction != Edge.Direction.RIGHT_TO_LEFT;
+        }
+        return forward;
+    }
+
+    // True when the mapping can link the two nodes along an edge of the given direction; an undirected edge
+    // allows either orientation.
+    static boolean connects(
+            final EdgeMapping edgeMapping,
+            final Edge.Direction direction,
+            final Node left,
+            final Node right) {
+        return (direction != Edge.Direction.RIGHT_TO_LEFT
+                        && fits(left, edgeMapping.fromLabel()) && fits(right, edgeMapping.toLabel()))
+                || (direction != Edge.Direction.LEFT_TO_RIGHT
+                        && fits(left, edgeMapping.toLabel()) && fits(right, edgeMapping.fromLabel()));
+    }
+
+    // Why the mapping cannot link the nodes along the edge: their labels, or an arrow against the only
+    // orientation the labels allow, as in (p:Person)<-[:ACTED_IN]-(m:Movie), which no stored row matches.
+    static IllegalArgumentException mismatch(final EdgeMapping edgeMapping, final Node left, final Node right) {
+        if (!connects(edgeMapping, Edge.Direction.UNDIRECTED, left, right)) {
+            return new IllegalArgumentException("Edge mapping labels do not match nodes: " + edgeMapping.type());
+        }
+        return new IllegalArgumentException("Edge direction does not match mapping: " + edgeMapping.type()
+                + " runs from " + edgeMapping.fromLabel() + " to " + edgeMapping.toLabel());
+    }
+
+    private static boolean fits(final Node node, final String label) {
+        return node.label() == null || node.label().equals(label);
+    }
+
+    // An unlabeled node takes the label of the mapping end it stands at.
+    private static Node withLabel(final Node node, final String label) {
+        return node.label() == null ? new Node(node.variable(), label, node.properties()) : node;
+    }
 }
@@ -0,0 +1,10 @@
+package com.iisaka.cypher2sql.schema;
+
+// One projected RETURN item: its Cypher name, the node it reads from and the SQL expression selected.
+// property is null for whole-node projections, whose sqlExpression is an `alias.*` wildcard, and for
+// aggregates over a whole node such as `count(m)`; variable is null for `count(*)`.
+public record ResultColumn(String name, String variable, String property, String label, String sqlExpression) {
+    public boolean isWildcard() {
+        return sqlExpression.endsWith(".*");
+    }
+}
@@ -1,5 +1,9 @@
 package com.iisaka.cypher2sql.schema;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -7,16 +11,19 @@ import java.util.Objects;
 public final class SchemaDefinition {
     private final Map<String, NodeMapping> nodes = new LinkedHashMap<>();
     private final Map<String, EdgeMapping> edges = new LinkedHashMap<>();
+    private volatile String fingerprint;
 
     public SchemaDefinition addNode(final NodeMapping mapping) {
         Objects.requireNonNull(mapping, "mapping");
         nodes.put(mapping.label(), mapping);
+        fingerprint = null;
         return this;
     }
 
     public SchemaDefinition addEdge(final EdgeMapping mapping) {
         Objects.requireNonNull(mapping, "mapping");
         edges.put(mapping.type(), mapping);
+        fingerprint = null;
         return this;
     }
 
@@ -35,4 +42,50 @@ public final class SchemaDefinition {
         }
         return mapping;
     }
+
+    // Stable digest of every mapping; changes whenever a node or edge mapping is added or replaced.
+    public String fingerprint() {
+        String current = fingerprint;
+        if (current == null) {
+            current = computeFingerprint();
+            fingerprint = current;
+        }
+        return current;
+    }
+
+    private String computeFingerprint() {
+        final StringBuilder canonical = new StringBuilder();
+        for (final NodeMapping node : nodes.values()) {
+            canonical.append("N|").append(node.label())
+                    .append('|').append(node.table())
+                    .append('|').append(node.primaryKey())
+                    .append('|').append(node.estimatedRows())
+                    .append('|').append(String.join(",", node.uniqueKeys()))
+                    .append('|').append(String.join(",", node.notNullKeys()))
+                    .append('\n');
+        }
+        for (final EdgeMapping edge : edges.values()) {
+            canonical.append("E|").append(edge.type())
+                    .append('|').append(edge.relationshipKind())
+                    .append('|').append(edge.fromLabel())
+                    .append('|').append(edge.toLabel())
+                    .append('|').append(edge.joinTable())
+                    .append('|').append(edge.fromJoinKey())
+                    .append('|').append(edge.toJoinKey())
+                    .append('|').append(edge.fromKey())
+                    .append('|').append(edge.toKey())
+                    .append('|').append(edge.parentPrimaryKey())
+                    .append('|').append(edge.childForeignKey())
+                    .append('|').append(edge.estimatedRows())
+                    .append('|').append(edge.hasReferentialIntegrity())
+                    .append('\n');
+        }
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
 }
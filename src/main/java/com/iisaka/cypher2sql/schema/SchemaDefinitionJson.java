@@ -51,7 +51,13 @@ public final class SchemaDefinitionJson {
         final SchemaDefinition schema = new SchemaDefinition();
         if (payload.nodes() != null) {
             for (final NodePayload node : payload.nodes()) {
-                schema.addNode(new NodeMapping(node.label(), node.table(), node.primaryKey()));
+                schema.addNode(new NodeMapping(
+                        node.label(),
+                        node.table(),
+                        node.primaryKey(),
+                        node.rows() == null ? 0L : node.rows(),
+                        node.uniqueKeys() == null ? List.of() : node.uniqueKeys(),
+                        node.notNullKeys() == null ? List.of() : node.notNullKeys()));
             }
         }
         if (payload.edges() != null) {
@@ -65,7 +71,13 @@ public final class SchemaDefinitionJson {
     private record SchemaPayload(List<NodePayload> nodes, List<EdgePayload> edges) {
     }
 
-    private record NodePayload(String label, String table, String primaryKey) {
+    private record NodePayload(
+            String label,
+            String table,
+            String primaryKey,
+            Long rows,
+            List<String> uniqueKeys,
+            List<String> notNullKeys) {
     }
 
     private record EdgePayload(
@@ -81,9 +93,17 @@ public final class SchemaDefinitionJson {
             String parentLabel,
             String childLabel,
             String parentPrimaryKey,
-            String childForeignKey) {
+            String childForeignKey,
+            Long rows,
+            Boolean referentialIntegrity) {
 
         EdgeMapping toMapping() {
+            return mappingForKind()
+                    .withEstimatedRows(rows == null ? 0L : rows)
+                    .withReferentialIntegrity(Boolean.TRUE.equals(referentialIntegrity));
+        }
+
+        private EdgeMapping mappingForKind() {
             if (kind == null) {
                 throw new IllegalArgumentException("Edge mapping missing kind for type: " + type);
             }
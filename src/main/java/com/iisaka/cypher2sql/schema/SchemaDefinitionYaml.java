@@ -59,10 +59,15 @@ public final class SchemaDefinitionYaml {
         if (nodesRaw instanceof List<?> nodes) {
             for (final Object nodeObj : nodes) {
                 final Map<String, Object> node = (Map<String, Object>) nodeObj;
+                final Object uniqueKeys = node.get("uniqueKeys");
+                final Object notNullKeys = node.get("notNullKeys");
                 schema.addNode(new NodeMapping(
                         (String) node.get("label"),
                         (String) node.get("table"),
-                        (String) node.get("primaryKey")));
+                        (String) node.get("primaryKey"),
+                        rows(node),
+                        uniqueKeys == null ? List.of() : (List<String>) uniqueKeys,
+                        notNullKeys == null ? List.of() : (List<String>) notNullKeys));
             }
         }
 
@@ -71,13 +76,21 @@ public final class SchemaDefinitionYaml {
             for (final Object edgeObj : edges) {
                 final Map<String, Object> edge = (Map<String, Object>) edgeObj;
                 final EdgeMapping.RelationshipKind kind = EdgeMapping.RelationshipKind.valueOf((String) edge.get("kind"));
-                schema.addEdge(edgeMappingFromPayload(edge, kind));
+                schema.addEdge(edgeMappingFromPayload(edge, kind)
+                        .withEstimatedRows(rows(edge))
+                        .withReferentialIntegrity(Boolean.TRUE.equals(edge.get("referentialIntegrity"))));
             }
         }
 
         return schema;
     }
 
+    // Optional planner statistic; YAML integers arrive as Integer or Long depending on size.
+    private static long rows(final Map<String, Object> payload) {
+        final Object rows = payload.get("rows");
+        return rows instanceof Number number ? number.longValue() : 0L;
+    }
+
     private static EdgeMapping edgeMappingFromPayload(
             final Map<String, Object> edge,
             final EdgeMapping.RelationshipKind kind) {
@@ -9,24 +9,38 @@ final class SelfRelation implements Relation {
     private final Node left;
     private final String leftAlias;
     private final String rightAlias;
+    // The left node holds the mapping's fromKey; false for `<-`, which swaps the key roles.
+    private final boolean forward;
 
     SelfRelation(
             final EdgeMapping edgeMapping,
             final Node left,
-            final Node right,
             final String leftAlias,
-            final String rightAlias) {
+            final String rightAlias,
+            final boolean forward) {
         this.edgeMapping = edgeMapping;
         this.left = left;
         this.leftAlias = leftAlias;
         this.rightAlias = rightAlias;
+        this.forward = forward;
     }
 
     @Override
     public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
         final NodeMapping leftMapping = schema.nodeForLabel(left.label());
-        final String joinOnSelf = leftAlias + "." + edgeMapping.fromKey()
-                + " = " + rightAlias + "." + edgeMapping.toKey();
-        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, leftMapping.table(), rightAlias, joinOnSelf));
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, leftMapping.table(), rightAlias, joinOn()));
+    }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, leftMapping.table(), leftAlias, joinOn()));
+    }
+
+    // from.fromKey = to.toKey
+    private String joinOn() {
+        final String fromAlias = forward ? leftAlias : rightAlias;
+        final String toAlias = forward ? rightAlias : leftAlias;
+        return fromAlias + "." + edgeMapping.fromKey() + " = " + toAlias + "." + edgeMapping.toKey();
     }
 }
@@ -0,0 +1,169 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Expression;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.PathLength;
+import com.iisaka.cypher2sql.query.cypher.Pattern;
+import com.iisaka.cypher2sql.query.sql.JoinClause;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+import com.iisaka.cypher2sql.query.sql.ShortestPathCte;
+import com.iisaka.cypher2sql.query.sql.TraversalCte;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// shortestPath((a)-[:TYPE*..max]-(b)) and allShortestPaths(...) over a mapping whose ends share a label,
+// as a breadth-first search in recursive CTEs: each level extends the previous one by a hop, up to max.
+// A recursive CTE is an optimization fence, so inline properties of an end, and top-level WHERE equalities
+// of one of its properties with a parameter or keyword, seed the search inside it rather than filtering its
+// result; without them every node starts a search. With both ends seeded and a bounded length the search
+// runs from both at once, each to half the depth (see ShortestPathCte); otherwise it starts at one seeded end.
+// shortestPath() only needs the depth at which each node is first reached, so its levels fold the paths
+// reaching a node into one row where the dialect allows (TraversalCte levels); allShortestPaths() counts
+// the paths and keeps them apart.
+final class ShortestPathRelation implements Relation {
+    private final EdgeMapping edgeMapping;
+    private final Pattern.Selector selector;
+    private final Edge edge;
+    private final Node left;
+    private final Node right;
+    private final String leftAlias;
+    private final String rightAlias;
+    private final List<Expression> conditions;
+
+    ShortestPathRelation(
+            final EdgeMapping edgeMapping,
+            final Pattern.Selector selector,
+            final Edge edge,
+            final Node left,
+            final Node right,
+            final String leftAlias,
+            final String rightAlias,
+            final List<Expression> conditions) {
+        this.edgeMapping = edgeMapping;
+        this.selector = selector;
+        this.edge = edge;
+        this.left = left;
+        this.right = right;
+        this.leftAlias = leftAlias;
+        this.rightAlias = rightAlias;
+        this.conditions = conditions;
+    }
+
+    @Override
+    public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        final NodeMapping mapping = nodeMapping(schema);
+        final String pathAlias = addSearch(select, mapping, aliases);
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, pathAlias + "_shortest", pathAlias,
+                leftAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + TraversalCte.START_KEY));
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), rightAlias,
+                rightAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + TraversalCte.END_KEY));
+    }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        final NodeMapping mapping = nodeMapping(schema);
+        final String pathAlias = addSearch(select, mapping, aliases);
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, pathAlias + "_shortest", pathAlias,
+                rightAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + TraversalCte.END_KEY));
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), leftAlias,
+                leftAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + TraversalCte.START_KEY));
+    }
+
+    private NodeMapping nodeMapping(final SchemaDefinition schema) {
+        final String label = edgeMapping.fromLabel();
+        if (!label.equals(edgeMapping.toLabel())
+                || (left.label() != null && !left.label().equals(label))
+                || (right.label() != null && !right.label().equals(label))) {
+            throw new UnsupportedOperationException(
+                    "Shortest paths need a relationship between nodes of one label: " + edgeMapping.type());
+        }
+        return schema.nodeForLabel(label);
+    }
+
+    // Adds the traversals and the ShortestPathCte over them, whose rows run from the left node to the right.
+    private String addSearch(final SelectQuery select, final NodeMapping mapping, final AliasState aliases) {
+        final String pathAlias = aliases.nextJoinAlias();
+        final PathLength length = edge.length();
+        final TraversalCte.HopSource walked =
+                VariableLengthRelation.walkedHop(select, edgeMapping, edge, mapping, pathAlias);
+        final TraversalCte.HopSource hop =
+                edge.direction() == Edge.Direction.RIGHT_TO_LEFT ? walked.reversed() : walked;
+        final TraversalCte.Seed leftSeed = PropertyFilter.seed(mapping, seedProperties(left));
+        final TraversalCte.Seed rightSeed = PropertyFilter.seed(mapping, seedProperties(right));
+        final boolean levels = selector == Pattern.Selector.SHORTEST;
+        String forward = null;
+        String backward = null;
+        // Unbounded halves would each walk the whole reachable graph, so only a bounded search splits.
+        if (leftSeed != null && rightSeed != null && length.isBounded()) {
+            // A path of length d pairs a forward half of ceil(d / 2) hops with a backward half of floor(d / 2).
+            forward = pathAlias + "_forward";
+            backward = pathAlias + "_backward";
+            final int max = length.max();
+            select.addCommonTableExpression(new TraversalCte(forward, hop, mapping.table(), mapping.primaryKey(),
+                    max - max / 2, leftSeed, levels));
+            select.addCommonTableExpression(new TraversalCte(backward, hop.reversed(), mapping.table(),
+                    mapping.primaryKey(), max / 2, rightSeed, levels));
+        } else if (leftSeed == null && rightSeed != null) {
+            backward = pathAlias + "_paths";
+            select.addCommonTableExpression(traversal(backward, hop.reversed(), mapping, rightSeed, levels));
+        } else {
+            forward = pathAlias + "_paths";
+            select.addCommonTableExpression(traversal(forward, hop, mapping, leftSeed, levels));
+        }
+        select.addCommonTableExpression(new ShortestPathCte(pathAlias + "_shortest", forward, backward,
+                selector == Pattern.Selector.ALL_SHORTEST, length.min() > 0));
+        return pathAlias;
+    }
+
+    // The node's inline properties plus the WHERE conjuncts `node.key = $param` (or a keyword), which hold
+    // for every row the search may start from. Other conditions still filter only the joined result.
+    private Map<String, String> seedProperties(final Node node) {
+        final Map<String, String> properties = new LinkedHashMap<>(node.properties());
+        for (final Expression condition : conditions) {
+            seedConjuncts(node, condition, properties);
+        }
+        return properties;
+    }
+
+    private static void seedConjuncts(
+            final Node node,
+            final Expression condition,
+            final Map<String, String> properties) {
+        if (condition instanceof Expression.And and) {
+            and.operands().forEach(operand -> seedConjuncts(node, operand, properties));
+        } else if (condition instanceof Expression.Comparison comparison
+                && comparison.operator() == Expression.Operator.EQ) {
+            seedEquality(node, comparison.left(), comparison.right(), properties);
+            seedEquality(node, comparison.right(), comparison.left(), properties);
+        }
+    }
+
+    private static void seedEquality(
+            final Node node,
+            final Expression column,
+            final Expression value,
+            final Map<String, String> properties) {
+        if (!(column instanceof Expression.Property property) || !property.variable().equals(node.variable())) {
+            return;
+        }
+        if (value instanceof Expression.Parameter parameter) {
+            properties.putIfAbsent(property.key(), "$" + parameter.name());
+        } else if (value instanceof Expression.Keyword keyword) {
+            properties.putIfAbsent(property.key(), keyword.keyword());
+        }
+    }
+
+    private TraversalCte traversal(
+            final String name,
+            final TraversalCte.HopSource hop,
+            final NodeMapping mapping,
+            final TraversalCte.Seed seed,
+            final boolean levels) {
+        final boolean zeroHop = edge.length().min() == 0;
+        return new TraversalCte(name, hop, zeroHop ? mapping.table() : null, zeroHop ? mapping.primaryKey() : null,
+                edge.length().max(), seed, levels);
+    }
+}
@@ -0,0 +1,27 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.sql.ParameterizedSql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Parameterized SQL plus the literal values lifted out of the Cypher text (see QueryShape).
+public record Translation(ParameterizedSql sql, Map<String, Object> literals) {
+    public Translation {
+        literals = Map.copyOf(literals);
+    }
+
+    // Placeholder values in order; `parameters` supplies the query's own $parameters.
+    public Object[] bind(final Map<String, ?> parameters) {
+        if (literals.isEmpty()) {
+            return sql.bind(parameters);
+        }
+        final Map<String, Object> merged = new HashMap<>(parameters);
+        merged.putAll(literals);
+        return sql.bind(merged);
+    }
+
+    public Object[] bind() {
+        return bind(Map.of());
+    }
+}
@@ -0,0 +1,202 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.CypherText;
+import com.iisaka.cypher2sql.query.cypher.Deadline;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
+import com.iisaka.cypher2sql.query.cypher.Query;
+import com.iisaka.cypher2sql.query.cypher.QueryShape;
+import com.iisaka.cypher2sql.query.sql.Dialect;
+import com.iisaka.cypher2sql.query.sql.ParameterizedSql;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded cache of rendered SQL in front of parse -> plan -> render. Entries are keyed by the literal-free
+// Cypher shape, the schema fingerprint, the mapping's options and the dialect name, so one entry serves
+// every literal variant of a query and a schema change never serves stale SQL. The options are part of the
+// key because they change the SQL (keyset pagination) or which queries translate at all (the parse budget).
+//
+// The cache is split into independently locked stripes (no global lock). Each stripe is a segmented LRU:
+// new entries land in a probation segment and are promoted to a protected segment on their second hit,
+// so a burst of one-off queries cannot flush the hot working set.
+public final class TranslationCache {
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TranslationCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Translation cache maximumSize must be positive: " + maximumSize);
+        }
+        final int stripeCount = stripeCount(maximumSize);
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        final int perStripe = (maximumSize + stripeCount - 1) / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public Translation translate(final String cypher, final Mapping mapping, final Dialect dialect) {
+        mapping.budget().checkInputLength(cypher);
+        final CypherText.Shape shape = CypherText.shape(cypher);
+        final Key key = new Key(shape.text(), mapping.schema().fingerprint(), mapping.keysetPagination(),
+                mapping.budget(), dialect.name());
+        final Stripe stripe = stripeFor(key);
+        final Entry cached = stripe.get(key);
+        if (cached != null && cached.serves(shape.literals())) {
+            hits.increment();
+            return new Translation(cached.sql(), QueryShape.parameters(shape.literals()));
+        }
+        misses.increment();
+        // Translated outside the stripe lock: concurrent misses on one key may both translate, which is
+        // cheaper than serializing every miss in the stripe behind a slow parse.
+        final Deadline deadline = mapping.budget().deadline();
+        final Query query = mapping.parse(cypher, deadline);
+        final Translation translation = mapping.translate(query, dialect, deadline);
+        // The textual lifting must agree with the parser's; where it does not (e.g. list slices), the entry
+        // only serves this exact literal vector.
+        final boolean shared = query.shape().literals().equals(shape.literals());
+        evictions.add(stripe.put(key, new Entry(translation.sql(), shared, shape.literals())));
+        return translation;
+    }
+
+    public Stats stats() {
+        long size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public void invalidateAll() {
+        for (final Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long size) {
+        public double hitRate() {
+            final long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Key(
+            String shape,
+            String schemaFingerprint,
+            boolean keysetPagination,
+            ParseBudget budget,
+            String dialect) {
+    }
+
+    private record Entry(ParameterizedSql sql, boolean shared, List<Object> literals) {
+        boolean serves(final List<Object> requested) {
+            return shared || literals.equals(requested);
+        }
+    }
+
+    private Stripe stripeFor(final Key key) {
+        final int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private static int stripeCount(final int maximumSize) {
+        final int target = Math.min(Runtime.getRuntime().availableProcessors() * 4, Math.max(1, maximumSize / 16));
+        return Integer.highestOneBit(Math.max(1, target));
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Access-ordered maps: iteration starts at the least recently used entry.
+        private final LinkedHashMap<Key, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Key, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+
+        private Stripe(final int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, (int) (capacity * PROTECTED_RATIO));
+        }
+
+        Entry get(final Key key) {
+            lock.lock();
+            try {
+                final Entry hot = protectedSegment.get(key);
+                if (hot != null) {
+                    return hot;
+                }
+                final Entry warm = probation.remove(key);
+                if (warm != null) {
+                    protectedSegment.put(key, warm);
+                    demoteOverflow();
+                }
+                return warm;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Returns the number of entries evicted to make room.
+        int put(final Key key, final Entry entry) {
+            lock.lock();
+            try {
+                if (protectedSegment.containsKey(key)) {
+                    protectedSegment.put(key, entry);
+                    return 0;
+                }
+                probation.put(key, entry);
+                int evicted = 0;
+                while (probation.size() + protectedSegment.size() > capacity) {
+                    evictEldest(probation.isEmpty() ? protectedSegment : probation);
+                    evicted++;
+                }
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedSegment.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                probation.clear();
+                protectedSegment.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void demoteOverflow() {
+            while (protectedSegment.size() > protectedCapacity) {
+                final Iterator<Map.Entry<Key, Entry>> eldest = protectedSegment.entrySet().iterator();
+                final Map.Entry<Key, Entry> entry = eldest.next();
+                eldest.remove();
+                probation.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private static void evictEldest(final LinkedHashMap<Key, Entry> segment) {
+            final Iterator<Map.Entry<Key, Entry>> eldest = segment.entrySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -1,28 +1,59 @@
 package com.iisaka.cypher2sql.schema;
 
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Pattern;
+
+import java.util.List;
+
 final class TranslationCapabilities {
     private final String rawCypher;
-    private final int edgeCount;
+    private final List<Edge> edges;
+    private final Pattern.Selector selector;
+
+    TranslationCapabilities(final String rawCypher, final List<Edge> edges) {
+        this(rawCypher, edges, Pattern.Selector.ALL);
+    }
 
-    TranslationCapabilities(final String rawCypher, final int edgeCount) {
+    TranslationCapabilities(final String rawCypher, final List<Edge> edges, final Pattern.Selector selector) {
         this.rawCypher = rawCypher;
-        this.edgeCount = edgeCount;
+        this.edges = edges;
+        this.selector = selector;
     }
 
     void ensureSupported() {
-        if (hasVariableLengthTraversal()) {
-            // Placeholder only: recursive traversal translation is intentionally not implemented yet.
-            throw new UnsupportedOperationException(
-                    "Variable-length traversals are not supported yet; recursive SQL translation is a future enhancement.");
+        if (selector != Pattern.Selector.ALL) {
+            if (edges.size() != 1 || !edges.get(0).isVariableLength()) {
+                throw new UnsupportedOperationException(
+                        "Shortest path patterns need a single variable-length relationship: " + rawCypher);
+            }
+            if (edges.get(0).length().min() > 1) {
+                // Cypher accepts no other minimum for shortestPath() either.
+                throw new UnsupportedOperationException(
+                        "Shortest path patterns need a minimum length of 0 or 1: " + rawCypher);
+            }
         }
-        if (edgeCount > 1) {
-            // Placeholder only: multi-hop traversal planning is intentionally not implemented yet.
-            throw new UnsupportedOperationException(
-                    "Multi-hop traversals are not supported yet; traversal planning is a future enhancement.");
+        for (final Edge edge : edges) {
+            if (edge.types().size() > 1 && !edge.properties().isEmpty()) {
+                // The alternatives' relationships live in different tables, with no common columns to filter.
+                throw new UnsupportedOperationException(
+                        "Relationship properties on type alternatives are not supported yet: " + rawCypher);
+            }
+            if (!edge.isVariableLength()) {
+                continue;
+            }
+            if (edge.types().size() > 1) {
+                throw new UnsupportedOperationException(
+                        "Variable-length traversals over type alternatives are not supported yet: " + rawCypher);
+            }
+            if (edge.type() == null) {
+                // Each recursive CTE walks one mapping; an untyped traversal would need a union of all of them.
+                throw new UnsupportedOperationException(
+                        "Variable-length traversals need a relationship type: " + rawCypher);
+            }
+            if (!edge.properties().isEmpty()) {
+                throw new UnsupportedOperationException(
+                        "Variable-length traversals with relationship properties are not supported yet: " + rawCypher);
+            }
         }
     }
-
-    private boolean hasVariableLengthTraversal() {
-        return rawCypher != null && rawCypher.contains("[*");
-    }
 }
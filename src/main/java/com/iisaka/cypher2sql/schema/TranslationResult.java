@@ -0,0 +1,16 @@
+package com.iisaka.cypher2sql.schema;
+
+// Outcome of translating one query of a batch: exactly one of translation and error is non-null.
+public record TranslationResult(int index, String cypher, Translation translation, RuntimeException error) {
+    public static TranslationResult success(final int index, final String cypher, final Translation translation) {
+        return new TranslationResult(index, cypher, translation, null);
+    }
+
+    public static TranslationResult failure(final int index, final String cypher, final RuntimeException error) {
+        return new TranslationResult(index, cypher, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
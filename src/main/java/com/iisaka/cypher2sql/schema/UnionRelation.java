@@ -0,0 +1,239 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.sql.EdgeUnionCte;
+import com.iisaka.cypher2sql.query.sql.JoinClause;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+import com.iisaka.cypher2sql.query.sql.TraversalCte;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A relationship matched through several directed readings of its mappings (Branch): both directions of an
+// undirected edge whose ends share a label (FRIENDS_WITH between two people), or the mappings of the
+// alternatives in `[:A|B]`. Rather than one join with an OR condition, the relationships come from an
+// EdgeUnionCte with a branch per reading, joined between the two node tables on its start (left node) and
+// end (right node) keys.
+//
+// Where only the set of matched rows matters (distinctRows: under DISTINCT, or inside EXISTS) and the
+// alternatives are foreign keys between the same tables, JoinPlanner may prefer joining the far table
+// once with the conditions OR-ed together: `t0.id IN (t1.author_id, t1.director_id)`. That form keeps
+// one row where two alternatives link the same pair, so it is never used where rows are counted.
+final class UnionRelation implements Relation {
+    private final List<Branch> branches;
+    // Relationship property map; its equalities filter the CTE rows.
+    private final Map<String, String> properties;
+    // Both ends carry their labels.
+    private final Node left;
+    private final Node right;
+    private final String leftAlias;
+    private final String rightAlias;
+    private final boolean distinctRows;
+    // Assigned when the relation is applied through the CTE.
+    private String edgeAlias;
+
+    // One directed reading of a mapping: forward when the left node plays the mapping's from role (see
+    // Relation.isForward); skipsLoops on the reverse reading of an undirected edge.
+    record Branch(EdgeMapping mapping, boolean forward, boolean skipsLoops) {
+    }
+
+    UnionRelation(
+            final List<Branch> branches,
+            final Map<String, String> properties,
+            final Node left,
+            final Node right,
+            final String leftAlias,
+            final String rightAlias,
+            final boolean distinctRows) {
+        this.branches = List.copyOf(branches);
+        this.properties = properties;
+        this.left = left;
+        this.right = right;
+        this.leftAlias = leftAlias;
+        this.rightAlias = rightAlias;
+        this.distinctRows = distinctRows;
+    }
+
+    // The readings an edge matches between the two nodes. Alternatives whose mapping cannot connect the
+    // nodes' labels in the edge's direction are dropped; the others have to connect the same labels, since
+    // each node is one table.
+    static List<Branch> branches(final SchemaDefinition schema, final Edge edge, final Node left, final Node right) {
+        final List<Branch> branches = new ArrayList<>();
+        String leftLabel = null;
+        String rightLabel = null;
+        final Set<String> types = new LinkedHashSet<>(edge.types());
+        if (types.isEmpty()) {
+            // Untyped: edgeForType reports it.
+            types.add(edge.type());
+        }
+        for (final String type : types) {
+            final EdgeMapping mapping = schema.edgeForType(type);
+            if (!Relation.connects(mapping, edge.direction(), left, right)) {
+                continue;
+            }
+            final boolean forward;
+            if (Relation.isUnion(mapping, edge.direction(), left, right)) {
+                forward = true;
+                branches.add(new Branch(mapping, true, false));
+                branches.add(new Branch(mapping, false, true));
+            } else {
+                forward = Relation.isForward(mapping, edge.direction(), left, right);
+                branches.add(new Branch(mapping, forward, false));
+            }
+            final String from = forward ? mapping.fromLabel() : mapping.toLabel();
+            final String to = forward ? mapping.toLabel() : mapping.fromLabel();
+            if (leftLabel != null && (!leftLabel.equals(from) || !rightLabel.equals(to))) {
+                throw new UnsupportedOperationException(
+                        "Relationship type alternatives that connect different labels are not supported yet: "
+                                + String.join("|", edge.types()));
+            }
+            leftLabel = from;
+            rightLabel = to;
+        }
+        if (branches.isEmpty()) {
+            if (types.size() == 1) {
+                throw Relation.mismatch(schema.edgeForType(edge.type()), left, right);
+            }
+            throw new IllegalArgumentException(
+                    "Edge mapping labels do not match nodes: " + String.join("|", types));
+        }
+        return branches;
+    }
+
+    @Override
+    public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        apply(select, schema, aliases, false);
+    }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        apply(select, schema, aliases, true);
+    }
+
+    // Only a single join table carries its rows into the CTE.
+    @Override
+    public String relationshipAlias() {
+        return carriesRow() ? edgeAlias : null;
+    }
+
+    // Join tables' keys reference node primary keys, so the CTE alone yields the far node's key.
+    @Override
+    public String referencedKey(final SchemaDefinition schema, final boolean reversed) {
+        for (final Branch branch : branches) {
+            if (branch.mapping().relationshipKind() != EdgeMapping.RelationshipKind.JOIN_TABLE
+                    || !branch.mapping().hasReferentialIntegrity()) {
+                return null;
+            }
+        }
+        return schema.nodeForLabel((reversed ? left : right).label()).primaryKey();
+    }
+
+    @Override
+    public String applyKeyOnly(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        addEdges(select, schema, aliases, reversed);
+        // As with a single mapping, a null key matches no node of the skipped join.
+        final String key = edgeAlias + "." + (reversed ? TraversalCte.START_KEY : TraversalCte.END_KEY);
+        select.addWhere(key + " IS NOT NULL");
+        return key;
+    }
+
+    private void apply(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        final Node joined = reversed ? left : right;
+        final String joinedAlias = reversed ? leftAlias : rightAlias;
+        final NodeMapping mapping = schema.nodeForLabel(joined.label());
+        final boolean single = distinctRows && sharesJoinShape()
+                && new JoinPlanner(schema).prefersSingleJoin(left, right, branches, reversed);
+        if (single) {
+            select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), joinedAlias, singleJoinOn()));
+            return;
+        }
+        addEdges(select, schema, aliases, reversed);
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), joinedAlias,
+                joinedAlias + "." + mapping.primaryKey() + " = " + edgeAlias + "." + key(!reversed)));
+    }
+
+    private void addEdges(
+            final SelectQuery select,
+            final SchemaDefinition schema,
+            final AliasState aliases,
+            final boolean reversed) {
+        final NodeMapping leftMapping = schema.nodeForLabel(left.label());
+        final NodeMapping rightMapping = schema.nodeForLabel(right.label());
+        final List<EdgeUnionCte.Branch> hops = new ArrayList<>(branches.size());
+        for (final Branch branch : branches) {
+            final TraversalCte.HopSource hop = branch.forward()
+                    ? VariableLengthRelation.hop(branch.mapping(), leftMapping, rightMapping)
+                    : VariableLengthRelation.hop(branch.mapping(), rightMapping, leftMapping).reversed();
+            hops.add(new EdgeUnionCte.Branch(hop, branch.skipsLoops()));
+        }
+        edgeAlias = aliases.nextJoinAlias();
+        select.addCommonTableExpression(new EdgeUnionCte(edgeAlias + "_edges", hops, carriesRow()));
+        final NodeMapping bound = reversed ? rightMapping : leftMapping;
+        final String boundAlias = reversed ? rightAlias : leftAlias;
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, edgeAlias + "_edges", edgeAlias,
+                boundAlias + "." + bound.primaryKey() + " = " + edgeAlias + "." + key(reversed)));
+        PropertyFilter.apply(select, edgeAlias, properties);
+    }
+
+    // The CTE column holding the left node's key, or the right node's when `right`.
+    private static String key(final boolean right) {
+        return right ? TraversalCte.END_KEY : TraversalCte.START_KEY;
+    }
+
+    private boolean carriesRow() {
+        final EdgeMapping first = branches.get(0).mapping();
+        return first.relationshipKind() == EdgeMapping.RelationshipKind.JOIN_TABLE
+                && branches.stream().allMatch(branch -> branch.mapping() == first);
+    }
+
+    // Type alternatives that are foreign keys of one kind between the same two tables.
+    private boolean sharesJoinShape() {
+        final EdgeMapping.RelationshipKind kind = branches.get(0).mapping().relationshipKind();
+        return branches.size() > 1
+                && kind != EdgeMapping.RelationshipKind.JOIN_TABLE
+                && branches.stream().allMatch(branch ->
+                        branch.mapping().relationshipKind() == kind && !branch.skipsLoops());
+    }
+
+    // The key conditions of every alternative OR-ed, as an IN list when they share one side.
+    private String singleJoinOn() {
+        final List<String> columns = new ArrayList<>(branches.size());
+        final List<String> others = new ArrayList<>(branches.size());
+        for (final Branch branch : branches) {
+            final EdgeMapping mapping = branch.mapping();
+            final String fromAlias = branch.forward() ? leftAlias : rightAlias;
+            final String toAlias = branch.forward() ? rightAlias : leftAlias;
+            if (mapping.relationshipKind() == EdgeMapping.RelationshipKind.ONE_TO_MANY) {
+                // child.childForeignKey = parent.parentPrimaryKey; the parent is the from node
+                columns.add(toAlias + "." + mapping.childForeignKey());
+                others.add(fromAlias + "." + mapping.parentPrimaryKey());
+            } else {
+                columns.add(fromAlias + "." + mapping.fromKey());
+                others.add(toAlias + "." + mapping.toKey());
+            }
+        }
+        if (new LinkedHashSet<>(others).size() == 1) {
+            return others.get(0) + " IN (" + String.join(", ", columns) + ")";
+        }
+        if (new LinkedHashSet<>(columns).size() == 1) {
+            return columns.get(0) + " IN (" + String.join(", ", others) + ")";
+        }
+        final List<String> conditions = new ArrayList<>(branches.size());
+        for (int i = 0; i < branches.size(); i++) {
+            conditions.add(columns.get(i) + " = " + others.get(i));
+        }
+        return "(" + String.join(" OR ", conditions) + ")";
+    }
+}
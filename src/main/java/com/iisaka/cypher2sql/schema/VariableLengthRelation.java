@@ -0,0 +1,161 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.PathLength;
+import com.iisaka.cypher2sql.query.sql.EdgeUnionCte;
+import com.iisaka.cypher2sql.query.sql.JoinClause;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+import com.iisaka.cypher2sql.query.sql.TraversalCte;
+
+import java.util.List;
+
+// -[:TYPE*min..max]- over a mapping whose ends share a label: the paths come from a recursive CTE
+// (TraversalCte) joined between the two node tables on its start and end keys. When the mapping links two
+// different labels a path cannot continue past its first hop, so the traversal reduces to the single-hop
+// join, or to no rows when the bounds exclude length one. An undirected traversal walks an EdgeUnionCte,
+// whose hops run both ways along the mapping. A recursive CTE is an optimization fence, so inline properties
+// of the start node seed the anchor; when only the far end has them the walk starts there instead.
+final class VariableLengthRelation implements Relation {
+    private final EdgeMapping edgeMapping;
+    private final Edge edge;
+    private final Node left;
+    private final Node right;
+    private final String leftAlias;
+    private final String rightAlias;
+
+    VariableLengthRelation(
+            final EdgeMapping edgeMapping,
+            final Edge edge,
+            final Node left,
+            final Node right,
+            final String leftAlias,
+            final String rightAlias) {
+        this.edgeMapping = edgeMapping;
+        this.edge = edge;
+        this.left = left;
+        this.right = right;
+        this.leftAlias = leftAlias;
+        this.rightAlias = rightAlias;
+    }
+
+    @Override
+    public void applyTo(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        if (!isRecursive()) {
+            singleHop(select).applyTo(select, schema, aliases);
+            return;
+        }
+        final NodeMapping mapping = schema.nodeForLabel(left.label());
+        final String pathAlias = addTraversal(select, mapping, aliases);
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, pathAlias + "_paths", pathAlias,
+                boundedBy(pathAlias, leftAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + leftKey())));
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), rightAlias,
+                rightAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + rightKey()));
+    }
+
+    @Override
+    public void applyReversed(final SelectQuery select, final SchemaDefinition schema, final AliasState aliases) {
+        if (!isRecursive()) {
+            singleHop(select).applyReversed(select, schema, aliases);
+            return;
+        }
+        final NodeMapping mapping = schema.nodeForLabel(left.label());
+        final String pathAlias = addTraversal(select, mapping, aliases);
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, pathAlias + "_paths", pathAlias,
+                boundedBy(pathAlias, rightAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + rightKey())));
+        select.addJoin(new JoinClause(JoinClause.JoinType.INNER, mapping.table(), leftAlias,
+                leftAlias + "." + mapping.primaryKey() + " = " + pathAlias + "." + leftKey()));
+    }
+
+    private boolean isRecursive() {
+        return left.label().equals(right.label())
+                && edgeMapping.fromLabel().equals(left.label())
+                && edgeMapping.toLabel().equals(left.label());
+    }
+
+    private Relation singleHop(final SelectQuery select) {
+        final PathLength length = edge.length();
+        if (length.min() > 1 || length.max() < 1) {
+            select.addWhere("1 = 0");
+        }
+        return Relation.singleHop(edgeMapping, edge, left, right, leftAlias, rightAlias);
+    }
+
+    private String addTraversal(final SelectQuery select, final NodeMapping mapping, final AliasState aliases) {
+        final String pathAlias = aliases.nextJoinAlias();
+        final PathLength length = edge.length();
+        final TraversalCte.HopSource walked = walkedHop(select, edgeMapping, edge, mapping, pathAlias);
+        final boolean fromRight = startsRight();
+        select.addCommonTableExpression(new TraversalCte(
+                pathAlias + "_paths",
+                fromRight == (edge.direction() == Edge.Direction.RIGHT_TO_LEFT) ? walked : walked.reversed(),
+                length.min() == 0 ? mapping.table() : null,
+                length.min() == 0 ? mapping.primaryKey() : null,
+                length.max(),
+                PropertyFilter.seed(mapping, (fromRight ? right : left).properties()),
+                false));
+        return pathAlias;
+    }
+
+    // Paths run from the node the pattern points away from, unless only the other end has inline properties.
+    private boolean startsRight() {
+        final boolean fromRight = edge.direction() == Edge.Direction.RIGHT_TO_LEFT;
+        final Node start = fromRight ? right : left;
+        final Node end = fromRight ? left : right;
+        return start.properties().isEmpty() && !end.properties().isEmpty() ? !fromRight : fromRight;
+    }
+
+    // The hop a traversal of the edge walks, in the mapping's direction. An undirected edge walks the
+    // EdgeUnionCte of both directions, which this adds as pathAlias_edges.
+    static TraversalCte.HopSource walkedHop(
+            final SelectQuery select,
+            final EdgeMapping edgeMapping,
+            final Edge edge,
+            final NodeMapping mapping,
+            final String pathAlias) {
+        final TraversalCte.HopSource hop = hop(edgeMapping, mapping, mapping);
+        if (edge.direction() != Edge.Direction.UNDIRECTED) {
+            return hop;
+        }
+        select.addCommonTableExpression(new EdgeUnionCte(pathAlias + "_edges", List.of(
+                new EdgeUnionCte.Branch(hop, false), new EdgeUnionCte.Branch(hop.reversed(), true)), false));
+        return TraversalCte.HopSource.of(
+                pathAlias + "_edges", "e." + TraversalCte.START_KEY, "e." + TraversalCte.END_KEY);
+    }
+
+    // A single hop of the mapping as (from node's key -> to node's key), following the mapping's own direction.
+    static TraversalCte.HopSource hop(final EdgeMapping edgeMapping, final NodeMapping from, final NodeMapping to) {
+        return switch (edgeMapping.relationshipKind()) {
+            case JOIN_TABLE -> TraversalCte.HopSource.of(
+                    edgeMapping.joinTable(), "e." + edgeMapping.fromJoinKey(), "e." + edgeMapping.toJoinKey());
+            // from.fromKey = to.toKey; both ends are rows of one table
+            case SELF_REFERENTIAL -> edgeMapping.toKey().equals(from.primaryKey())
+                    ? TraversalCte.HopSource.of(from.table(), "e." + from.primaryKey(), "e." + edgeMapping.fromKey())
+                    : new TraversalCte.HopSource(from.table(), from.table(),
+                            "e." + edgeMapping.fromKey() + " = e2." + edgeMapping.toKey(),
+                            "e." + from.primaryKey(), "e2." + from.primaryKey());
+            // child.childForeignKey = parent.parentPrimaryKey, walking parent (from) to child (to)
+            case ONE_TO_MANY -> edgeMapping.parentPrimaryKey().equals(from.primaryKey())
+                    ? TraversalCte.HopSource.of(
+                            to.table(), "e." + edgeMapping.childForeignKey(), "e." + to.primaryKey())
+                    : new TraversalCte.HopSource(from.table(), to.table(),
+                            "e2." + edgeMapping.childForeignKey() + " = e." + edgeMapping.parentPrimaryKey(),
+                            "e." + from.primaryKey(), "e2." + to.primaryKey());
+        };
+    }
+
+    // Paths run from start_key to end_key; a walk from the right node enters them from the right.
+    private String leftKey() {
+        return startsRight() ? TraversalCte.END_KEY : TraversalCte.START_KEY;
+    }
+
+    private String rightKey() {
+        return startsRight() ? TraversalCte.START_KEY : TraversalCte.END_KEY;
+    }
+
+    // The CTE starts at depth min(1, min), so a larger minimum filters the shorter paths at the join.
+    private String boundedBy(final String pathAlias, final String joinOn) {
+        final int min = edge.length().min();
+        return min < 2 ? joinOn : joinOn + " AND " + pathAlias + "." + TraversalCte.DEPTH + " >= " + min;
+    }
+}
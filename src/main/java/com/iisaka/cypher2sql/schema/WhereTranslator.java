@@ -0,0 +1,247 @@
+package com.iisaka.cypher2sql.schema;
+
+import com.iisaka.cypher2sql.query.cypher.Expression;
+import com.iisaka.cypher2sql.query.sql.SqlFragment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Translates a WHERE conjunct into a SQL condition with `?` placeholders, plus the aliases it reads so
+// SelectQuery.addFilter can push it down. Node properties read the node's table; relationship properties
+// read the join table of a JOIN_TABLE edge (edgeAliases maps its variable to the join alias, or to null
+// when the mapping has no relationship row). Comparisons keep the column bare so indexes stay usable;
+// STARTS WITH / ENDS WITH / CONTAINS become LIKE with the operand's wildcards escaped, and the pattern is
+// concatenated in the dialect's syntax when the query renders.
+final class WhereTranslator {
+    private static final char LIKE_ESCAPE = '!';
+
+    private final SchemaDefinition schema;
+    private final Map<String, String> nodeAliases;
+    private final Map<String, String> nodeLabels;
+    private final Map<String, String> edgeAliases;
+
+    WhereTranslator(
+            final SchemaDefinition schema,
+            final Map<String, String> nodeAliases,
+            final Map<String, String> nodeLabels,
+            final Map<String, String> edgeAliases) {
+        this.schema = schema;
+        this.nodeAliases = nodeAliases;
+        this.nodeLabels = nodeLabels;
+        this.edgeAliases = edgeAliases;
+    }
+
+    Filter translate(final Expression expression) {
+        final Out out = new Out();
+        condition(expression, out);
+        return new Filter(out.fragment(), out.parameterNames, out.aliases);
+    }
+
+    // A value rather than a condition, e.g. an ORDER BY key.
+    Filter translateValue(final Expression expression) {
+        final Out out = new Out();
+        value(expression, out);
+        return new Filter(out.fragment(), out.parameterNames, out.aliases);
+    }
+
+    // Boolean context: a bare value (`WHERE p.active`) is compared with TRUE.
+    private void condition(final Expression expression, final Out out) {
+        switch (expression) {
+            case Expression.And and -> logical(and.operands(), " AND ", out);
+            case Expression.Or or -> logical(or.operands(), " OR ", out);
+            case Expression.Not not -> {
+                out.sql.append("NOT ");
+                condition(not.operand(), out);
+            }
+            case Expression.NullCheck check -> {
+                value(check.operand(), out);
+                out.sql.append(check.negated() ? " IS NOT NULL" : " IS NULL");
+            }
+            case Expression.Comparison comparison -> comparison(comparison, out);
+            default -> {
+                value(expression, out);
+                out.sql.append(" = TRUE");
+            }
+        }
+    }
+
+    private void logical(final List<Expression> operands, final String operator, final Out out) {
+        out.sql.append('(');
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) {
+                out.sql.append(operator);
+            }
+            condition(operands.get(i), out);
+        }
+        out.sql.append(')');
+    }
+
+    private void comparison(final Expression.Comparison comparison, final Out out) {
+        switch (comparison.operator()) {
+            case IN -> {
+                if (!(comparison.right() instanceof Expression.ListValue list)) {
+                    throw new UnsupportedOperationException("IN is only supported with a list literal.");
+                }
+                if (list.items().isEmpty()) {
+                    // Nothing is IN an empty list, and SQL has no empty IN list.
+                    out.sql.append("1 = 0");
+                    return;
+                }
+                value(comparison.left(), out);
+                out.sql.append(" IN (");
+                for (int i = 0; i < list.items().size(); i++) {
+                    if (i > 0) {
+                        out.sql.append(", ");
+                    }
+                    value(list.items().get(i), out);
+                }
+                out.sql.append(')');
+            }
+            case STARTS_WITH -> like(comparison, false, true, out);
+            case ENDS_WITH -> like(comparison, true, false, out);
+            case CONTAINS -> like(comparison, true, true, out);
+            default -> {
+                value(comparison.left(), out);
+                out.sql.append(' ').append(comparison.operator().symbol()).append(' ');
+                value(comparison.right(), out);
+            }
+        }
+    }
+
+    // Cypher string matching is literal, so LIKE wildcards in the bound value are escaped first.
+    private void like(
+            final Expression.Comparison comparison,
+            final boolean leading,
+            final boolean trailing,
+            final Out out) {
+        value(comparison.left(), out);
+        out.sql.append(" LIKE ");
+        final Out operand = new Out();
+        value(comparison.right(), operand);
+        out.parameterNames.addAll(operand.parameterNames);
+        out.aliases.addAll(operand.aliases);
+        final SqlFragment bound = operand.fragment();
+        out.append(dialect -> {
+            final String escaped = "REPLACE(REPLACE(REPLACE(" + bound.render(dialect) + ", '" + LIKE_ESCAPE + "', '"
+                    + LIKE_ESCAPE + LIKE_ESCAPE + "'), '%', '" + LIKE_ESCAPE + "%'), '_', '" + LIKE_ESCAPE + "_')";
+            final List<String> pattern = new ArrayList<>(3);
+            if (leading) {
+                pattern.add("'%'");
+            }
+            pattern.add(escaped);
+            if (trailing) {
+                pattern.add("'%'");
+            }
+            return dialect.concat(pattern);
+        });
+        out.sql.append(" ESCAPE '").append(LIKE_ESCAPE).append('\'');
+    }
+
+    private void value(final Expression expression, final Out out) {
+        switch (expression) {
+            case Expression.Property property -> out.sql.append(column(property.variable(), property.key(), out));
+            case Expression.Variable variable -> {
+                // A node stands for its primary key, e.g. `m IS NULL`.
+                final String label = nodeLabels.get(variable.name());
+                if (label == null && edgeAliases.containsKey(variable.name())) {
+                    throw new UnsupportedOperationException(
+                            "Relationship variables are only supported in property access: " + variable.name());
+                }
+                if (label == null) {
+                    throw unknownVariable(variable.name());
+                }
+                out.sql.append(column(variable.name(), schema.nodeForLabel(label).primaryKey(), out));
+            }
+            case Expression.Parameter parameter -> {
+                out.sql.append('?');
+                out.parameterNames.add(parameter.name());
+            }
+            case Expression.Keyword keyword -> out.sql.append(keyword.keyword());
+            default -> {
+                out.sql.append('(');
+                condition(expression, out);
+                out.sql.append(')');
+            }
+        }
+    }
+
+    private String column(final String variable, final String key, final Out out) {
+        String alias = nodeAliases.get(variable);
+        if (alias == null) {
+            if (!edgeAliases.containsKey(variable)) {
+                throw unknownVariable(variable);
+            }
+            alias = edgeAliases.get(variable);
+            if (alias == null) {
+                throw new UnsupportedOperationException(
+                        "Relationship properties need a JOIN_TABLE mapping: " + variable + "." + key);
+            }
+        }
+        out.aliases.add(alias);
+        return alias + "." + key;
+    }
+
+    // Adds the node and relationship variables the expression reads.
+    static void collectVariables(final Expression expression, final Set<String> variables) {
+        switch (expression) {
+            case Expression.Property property -> variables.add(property.variable());
+            case Expression.Variable variable -> variables.add(variable.name());
+            case Expression.ListValue list -> list.items().forEach(item -> collectVariables(item, variables));
+            case Expression.Comparison comparison -> {
+                collectVariables(comparison.left(), variables);
+                collectVariables(comparison.right(), variables);
+            }
+            case Expression.NullCheck check -> collectVariables(check.operand(), variables);
+            case Expression.Not not -> collectVariables(not.operand(), variables);
+            case Expression.And and -> and.operands().forEach(operand -> collectVariables(operand, variables));
+            case Expression.Or or -> or.operands().forEach(operand -> collectVariables(operand, variables));
+            case Expression.Parameter parameter -> {
+            }
+            case Expression.Keyword keyword -> {
+            }
+        }
+    }
+
+    private static IllegalArgumentException unknownVariable(final String variable) {
+        return new IllegalArgumentException("Unknown variable: " + variable);
+    }
+
+    record Filter(SqlFragment sql, List<String> parameterNames, Set<String> aliases) {
+        Filter {
+            parameterNames = List.copyOf(parameterNames);
+            aliases = Set.copyOf(aliases);
+        }
+    }
+
+    // Text is appended to sql; a dialect-dependent piece closes the text so far and starts a new run.
+    private static final class Out {
+        private final List<SqlFragment> pieces = new ArrayList<>();
+        private StringBuilder sql = new StringBuilder();
+        private final List<String> parameterNames = new ArrayList<>();
+        private final Set<String> aliases = new LinkedHashSet<>();
+
+        private void append(final SqlFragment piece) {
+            pieces.add(SqlFragment.of(sql.toString()));
+            pieces.add(piece);
+            sql = new StringBuilder();
+        }
+
+        private SqlFragment fragment() {
+            if (pieces.isEmpty()) {
+                return SqlFragment.of(sql.toString());
+            }
+            final List<SqlFragment> all = new ArrayList<>(pieces);
+            all.add(SqlFragment.of(sql.toString()));
+            return dialect -> {
+                final StringBuilder rendered = new StringBuilder();
+                for (final SqlFragment piece : all) {
+                    rendered.append(piece.render(dialect));
+                }
+                return rendered.toString();
+            };
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.iisaka.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedLineReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsLinesAcrossWindowBoundaries() throws Exception {
+        final Path file = dir.resolve("queries.cypher");
+        Files.writeString(file,
+                "MATCH (p:Person) RETURN p\r\nMATCH (m:Movie) RETURN m.title\n\nMATCH (n) RETURN n",
+                StandardCharsets.UTF_8);
+
+        final List<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = MappedLineReader.open(file, 8)) {
+            String line;
+            while ((line = reader.nextLine()) != null) {
+                lines.add(line);
+            }
+            assertEquals(4, reader.lineNumber());
+            assertEquals(reader.size(), reader.bytesRead());
+        }
+
+        assertEquals(List.of(
+                "MATCH (p:Person) RETURN p",
+                "MATCH (m:Movie) RETURN m.title",
+                "",
+                "MATCH (n) RETURN n"), lines);
+    }
+}
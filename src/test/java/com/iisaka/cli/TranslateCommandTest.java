@@ -0,0 +1,136 @@
+package com.iisaka.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslateCommandTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneRecordPerLineAcrossBatchBoundaries() throws Exception {
+        final Path input = dir.resolve("queries.cypher");
+        Files.writeString(input, String.join("\n",
+                "MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN m.name",
+                "",
+                "MATCH (p:Person {name: 'Keanu'})-[:ACTED_IN]->(m:Movie) RETURN m.title",
+                "RETURN p"), StandardCharsets.UTF_8);
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        // Two queries per batch: the third query is translated in a batch of its own.
+        final int status = run(stdout, stderr, "--schema", schema().toString(), "--input", input.toString(),
+                "--batch-size", "2");
+
+        final List<JsonNode> records = records(stdout);
+        assertEquals(1, status);
+        assertEquals(3, records.size());
+        assertEquals(1, records.get(0).get("line").asLong());
+        assertEquals("SELECT t1.name FROM \"people\" t0 INNER JOIN \"people\" t1 ON t0.manager_id = t1.id",
+                records.get(0).get("sql").asText());
+        // Blank lines produce no record but still count towards line numbers.
+        assertEquals(3, records.get(1).get("line").asLong());
+        assertEquals("__lit0", records.get(1).get("parameters").get(0).asText());
+        assertEquals("Keanu", records.get(1).get("literals").get("__lit0").asText());
+        assertEquals(4, records.get(2).get("line").asLong());
+        assertEquals("No patterns parsed from Cypher query.", records.get(2).get("error").asText());
+        assertFalse(records.get(2).has("sql"));
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).startsWith("Translated 3 queries (1 errors) from "));
+    }
+
+    @Test
+    void readsNdjsonAndReportsInvalidRecords() throws Exception {
+        final Path input = dir.resolve("queries.ndjson");
+        Files.writeString(input, String.join("\n",
+                "{\"query\": \"MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN m.name\"}",
+                "{\"cypher\": \"MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN m.name\"}",
+                "{\"text\": \"MATCH (p:Person) RETURN p\"}",
+                "{not json"), StandardCharsets.UTF_8);
+        final Path output = dir.resolve("out.ndjson");
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        final int status = run(stdout, stderr, "--schema", schema().toString(), "--input", input.toString(),
+                "--output", output.toString());
+
+        final List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(1, status);
+        assertEquals(0, stdout.size());
+        assertEquals(4, lines.size());
+        assertEquals(MAPPER.readTree(lines.get(0)).get("sql"), MAPPER.readTree(lines.get(1)).get("sql"));
+        assertEquals("Invalid NDJSON record: expected a string \"query\" or \"cypher\" field",
+                MAPPER.readTree(lines.get(2)).get("error").asText());
+        assertTrue(MAPPER.readTree(lines.get(3)).get("error").asText().startsWith("Invalid NDJSON record: "));
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).startsWith("Translated 4 queries (2 errors) from "));
+    }
+
+    @Test
+    void leavesStandardOutputOpen() throws Exception {
+        final Path input = dir.resolve("queries.cypher");
+        Files.writeString(input, "MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN m.name\n", StandardCharsets.UTF_8);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream stdout = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+
+        final int status = new TranslateCommand().run(
+                new String[] {"--schema", schema().toString(), "--input", input.toString()},
+                stdout, new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        stdout.print("after");
+        stdout.flush();
+
+        assertEquals(0, status);
+        assertFalse(stdout.checkError());
+        assertTrue(buffer.toString(StandardCharsets.UTF_8).endsWith("}\nafter"));
+    }
+
+    @Test
+    void rejectsMissingOptionsWithUsage() {
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        final int status = run(new ByteArrayOutputStream(), stderr, "--input", "queries.cypher");
+
+        assertEquals(2, status);
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).contains(TranslateCommand.usage()));
+    }
+
+    private static int run(final ByteArrayOutputStream stdout, final ByteArrayOutputStream stderr,
+            final String... args) {
+        return new TranslateCommand().run(args,
+                new PrintStream(stdout, true, StandardCharsets.UTF_8),
+                new PrintStream(stderr, true, StandardCharsets.UTF_8));
+    }
+
+    private Path schema() throws Exception {
+        final Path schema = dir.resolve("schema.yaml");
+        if (!Files.exists(schema)) {
+            try (InputStream resource = TranslateCommandTest.class.getResourceAsStream("/schema.yaml")) {
+                Files.copy(resource, schema);
+            }
+        }
+        return schema;
+    }
+
+    private static List<JsonNode> records(final ByteArrayOutputStream stdout) throws Exception {
+        final List<JsonNode> records = new ArrayList<>();
+        for (final String line : stdout.toString(StandardCharsets.UTF_8).split("\n")) {
+            records.add(MAPPER.readTree(line));
+        }
+        return records;
+    }
+}
@@ -1,14 +1,24 @@
 package com.iisaka.cypher2sql;
 
 import com.iisaka.cypher2sql.query.cypher.Edge;
+import com.iisaka.cypher2sql.query.cypher.Expression;
+import com.iisaka.cypher2sql.query.cypher.Node;
+import com.iisaka.cypher2sql.query.cypher.OptionalMatch;
 import com.iisaka.cypher2sql.query.cypher.Pattern;
+import com.iisaka.cypher2sql.query.cypher.PatternPredicate;
 import com.iisaka.cypher2sql.query.cypher.Query;
+import com.iisaka.cypher2sql.query.cypher.ResultSlice;
+import com.iisaka.cypher2sql.query.cypher.ReturnItem;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CypherPatternExtractorTest {
     @Test
@@ -29,6 +39,40 @@ class CypherPatternExtractorTest {
         assertEquals(Edge.Direction.UNDIRECTED, patterns.get(0).edges().get(0).direction());
     }
 
+    @Test
+    void extractsLabelConjunctionsAndTypeAlternatives() {
+        final Query query = Query.parse("MATCH (p:Person:Actor)-[:ACTED_IN|:AUTHORED]->(m:Movie|Film) RETURN p");
+        final Pattern pattern = query.patterns().get(0);
+
+        assertEquals(new Node("p", "Person", Map.of(), List.of("Person", "Actor"), false), pattern.nodes().get(0));
+        assertEquals(new Node("m", "Movie", Map.of(), List.of("Movie", "Film"), true), pattern.nodes().get(1));
+        assertEquals("ACTED_IN", pattern.edges().get(0).type());
+        assertEquals(List.of("ACTED_IN", "AUTHORED"), pattern.edges().get(0).types());
+    }
+
+    @Test
+    void throwsForMixedLabelExpression() {
+        final IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> Query.parse("MATCH (p:Person:Actor|Director) RETURN p"));
+
+        assertEquals("Unsupported label expression: :Person:Actor|Director", ex.getMessage());
+    }
+
+    @Test
+    void extractsShortestPathSelectors() {
+        final Pattern shortest = Query.parse(
+                "MATCH p = shortestPath((a:Person)-[:MANAGES*..6]-(b:Person)) RETURN b").patterns().get(0);
+        final Pattern allShortest = Query.parse(
+                "MATCH p = allShortestPaths((a:Person)-[:MANAGES*]-(b:Person)) RETURN b").patterns().get(0);
+
+        assertEquals(Pattern.Selector.SHORTEST, shortest.selector());
+        assertEquals(List.of("a", "b"), shortest.nodes().stream().map(Node::variable).toList());
+        assertEquals(Pattern.Selector.ALL_SHORTEST, allShortest.selector());
+        assertEquals(Pattern.Selector.ALL,
+                Query.parse("MATCH (a:Person)-[:MANAGES]->(b:Person) RETURN b").patterns().get(0).selector());
+    }
+
     @Test
     void throwsWhenNodeVariableIsMissing() {
         final IllegalArgumentException ex = assertThrows(
@@ -37,4 +81,205 @@ class CypherPatternExtractorTest {
         );
         assertEquals("Node pattern missing variable: (:Person)", ex.getMessage());
     }
+
+    @Test
+    void extractsPatternAndAllReturnItemsInOnePass() {
+        final Query query = Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m, m.title");
+        final Pattern pattern = query.patterns().get(0);
+
+        assertEquals(1, query.patterns().size());
+        assertEquals(2, pattern.nodes().size());
+        assertEquals(1, pattern.edges().size());
+        assertEquals(
+                List.of(new ReturnItem("p", "id"), new ReturnItem("m", null), new ReturnItem("m", "title")),
+                query.returnItems());
+    }
+
+    @Test
+    void rejectsClausesBeyondASingleMatch() {
+        final UnsupportedOperationException with = assertThrows(
+                UnsupportedOperationException.class,
+                () -> Query.parse("MATCH (p:Person) WITH p WHERE p.age > 30 RETURN p.name"));
+        final UnsupportedOperationException secondMatch = assertThrows(
+                UnsupportedOperationException.class,
+                () -> Query.parse("MATCH (p:Person) MATCH (m:Movie) RETURN p, m"));
+        final UnsupportedOperationException secondPart = assertThrows(
+                UnsupportedOperationException.class,
+                () -> Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie), (o:Person) RETURN p.id, m, o.name"));
+
+        assertEquals("WITH clauses are not supported yet: WITH p WHERE p.age > 30", with.getMessage());
+        assertEquals("Multiple MATCH clauses are not supported yet: MATCH (m:Movie)", secondMatch.getMessage());
+        assertEquals("Comma-separated patterns are not supported yet: "
+                + "MATCH (p:Person)-[:ACTED_IN]->(m:Movie), (o:Person)", secondPart.getMessage());
+    }
+
+    @Test
+    void keepsVariablesThatContainKeywords() {
+        final Query query = Query.parse("MATCH (somewhere:Person)-[elsewhere:ACTED_IN]->(m:Movie) RETURN somewhere");
+        final Pattern pattern = query.patterns().get(0);
+
+        assertEquals("somewhere", pattern.nodes().get(0).variable());
+        assertEquals("Person", pattern.nodes().get(0).label());
+        assertEquals("elsewhere", pattern.edges().get(0).variable());
+        assertEquals("ACTED_IN", pattern.edges().get(0).type());
+    }
+
+    @Test
+    void decodesPropertyMapsAndEscapedNames() {
+        final Query query = Query.parse(
+                "MATCH (`my person`:Person {email: $e, name: 'Keanu Reeves'})-[r:ACTED_IN {role: 'Neo'}]->(m:Movie) "
+                        + "RETURN m");
+        final Pattern pattern = query.patterns().get(0);
+
+        assertEquals("my person", pattern.nodes().get(0).variable());
+        assertEquals(Map.of("email", "$e", "name", "$__lit0"), pattern.nodes().get(0).properties());
+        assertEquals(Map.of("role", "$__lit1"), pattern.edges().get(0).properties());
+        assertEquals(List.of("Keanu Reeves", "Neo"), query.shape().literals());
+        assertEquals(Edge.Direction.LEFT_TO_RIGHT, pattern.edges().get(0).direction());
+    }
+
+    @Test
+    void keepsParameterExpressionsApartFromParameters() {
+        final Query query = Query.parse("MATCH (p:Person {id: $id, age: $a + 1, city: $m.city}) RETURN p");
+
+        assertEquals(Map.of("id", "$id", "age", "($a + 1)", "city", "($m.city)"),
+                query.patterns().get(0).nodes().get(0).properties());
+    }
+
+    @Test
+    void compactParseDropsParseTreeButKeepsModel() {
+        final String cypher = "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m";
+        final Query retained = Query.parse(cypher);
+        final Query compact = Query.parseCompact(cypher);
+
+        assertTrue(retained.hasParseTree());
+        assertFalse(compact.hasParseTree());
+        assertNull(compact.parseTree());
+        assertEquals(retained.patterns(), compact.patterns());
+        assertEquals(retained.returnItems(), compact.returnItems());
+    }
+
+    @Test
+    void liftsLiteralsIntoStableShape() {
+        final Query keanu = Query.parse("MATCH (p:Person {name: 'Keanu'})-[:ACTED_IN*1..2]->(m:Movie) RETURN m LIMIT 10");
+        final Query carrie = Query.parse("match (p:Person {name: \"Carrie\"})-[:ACTED_IN*1..2]->(m:Movie)  return m limit 25");
+
+        assertEquals(keanu.shape().text(), carrie.shape().text());
+        assertEquals(keanu.shape().fingerprint(), carrie.shape().fingerprint());
+        assertEquals(List.of("Keanu", 10L), keanu.shape().literals());
+        assertEquals(List.of("Carrie", 25L), carrie.shape().literals());
+    }
+
+    @Test
+    void extractsDistinctAndTopLevelPatternPredicates() {
+        final Query query = Query.parse(
+                "MATCH (p:Person) WHERE EXISTS { (p)-[:ACTED_IN]->(:Movie) } AND NOT EXISTS { (p)-[:MANAGES]->(b) } "
+                        + "AND p.name = 'Keanu' RETURN DISTINCT p.id");
+
+        assertTrue(query.distinct());
+        assertEquals(
+                List.of(
+                        new PatternPredicate(new Pattern(
+                                List.of(new Node("p", null), new Node(null, "Movie")),
+                                List.of(new Edge(null, "ACTED_IN", Edge.Direction.LEFT_TO_RIGHT))), false),
+                        new PatternPredicate(new Pattern(
+                                List.of(new Node("p", null), new Node("b", null)),
+                                List.of(new Edge(null, "MANAGES", Edge.Direction.LEFT_TO_RIGHT))), true)),
+                query.patternPredicates());
+        assertEquals(
+                List.of(new Expression.Comparison(
+                        new Expression.Property("p", "name"),
+                        Expression.Operator.EQ,
+                        new Expression.Parameter("__lit0"))),
+                query.conditions());
+    }
+
+    @Test
+    void extractsWhereConditions() {
+        final Query query = Query.parse(
+                "MATCH (p:Person)-[r:ACTED_IN]->(m:Movie) WHERE (m.year >= 1999 OR m.title STARTS WITH $prefix) "
+                        + "AND NOT r.role IN ['Neo', 'Trinity'] AND p.born IS NOT NULL RETURN p");
+
+        assertEquals(
+                List.of(
+                        new Expression.Or(List.of(
+                                new Expression.Comparison(
+                                        new Expression.Property("m", "year"),
+                                        Expression.Operator.GE,
+                                        new Expression.Parameter("__lit0")),
+                                new Expression.Comparison(
+                                        new Expression.Property("m", "title"),
+                                        Expression.Operator.STARTS_WITH,
+                                        new Expression.Parameter("prefix")))),
+                        new Expression.Not(new Expression.Comparison(
+                                new Expression.Property("r", "role"),
+                                Expression.Operator.IN,
+                                new Expression.ListValue(List.of(
+                                        new Expression.Parameter("__lit1"), new Expression.Parameter("__lit2"))))),
+                        new Expression.NullCheck(new Expression.Property("p", "born"), true)),
+                query.conditions());
+        assertEquals(List.of(), query.patternPredicates());
+    }
+
+    @Test
+    void extractsOptionalMatchWithItsOwnWhere() {
+        final Query query = Query.parse("MATCH (p:Person) WHERE p.born > 1960 "
+                + "OPTIONAL MATCH (p)-[:ACTED_IN]->(m:Movie) WHERE m.year > 2000 RETURN p.name, m.title");
+
+        assertEquals(List.of(new Node("p", "Person")), query.patterns().get(0).nodes());
+        assertEquals(
+                List.of(new Expression.Comparison(
+                        new Expression.Property("p", "born"),
+                        Expression.Operator.GT,
+                        new Expression.Parameter("__lit0"))),
+                query.conditions());
+        assertEquals(
+                List.of(new OptionalMatch(
+                        new Pattern(
+                                List.of(new Node("p", null), new Node("m", "Movie")),
+                                List.of(new Edge(null, "ACTED_IN", Edge.Direction.LEFT_TO_RIGHT))),
+                        List.of(),
+                        List.of(new Expression.Comparison(
+                                new Expression.Property("m", "year"),
+                                Expression.Operator.GT,
+                                new Expression.Parameter("__lit1"))))),
+                query.optionalMatches());
+    }
+
+    @Test
+    void extractsOrderBySkipAndLimit() {
+        final Query query = Query.parse("MATCH (p:Person) RETURN p.name ORDER BY p.born DESC, p.name SKIP 5 LIMIT $n");
+
+        assertEquals(
+                new ResultSlice(
+                        List.of(
+                                new ResultSlice.SortItem(new Expression.Property("p", "born"), true),
+                                new ResultSlice.SortItem(new Expression.Property("p", "name"), false)),
+                        new Expression.Parameter("__lit0"),
+                        new Expression.Parameter("n")),
+                query.slice());
+    }
+
+    @Test
+    void extractsAggregateReturnItems() {
+        final Query query = Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) "
+                + "RETURN p.name, count(*), COUNT(DISTINCT m), collect(m.title) AS titles");
+
+        assertEquals(
+                List.of(
+                        new ReturnItem("p", "name"),
+                        new ReturnItem(null, null, new ReturnItem.Aggregate(ReturnItem.Function.COUNT, false)),
+                        new ReturnItem("m", null, new ReturnItem.Aggregate(ReturnItem.Function.COUNT, true)),
+                        new ReturnItem("m", "title", new ReturnItem.Aggregate(ReturnItem.Function.COLLECT, false))),
+                query.returnItems());
+    }
+
+    @Test
+    void throwsForUnsupportedWhereExpression() {
+        final IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> Query.parse("MATCH (p:Person) WHERE p.name =~ 'K.*' RETURN p"));
+
+        assertTrue(ex.getMessage().startsWith("Unsupported expression"));
+    }
 }
@@ -1,15 +1,26 @@
 package com.iisaka.cypher2sql;
 
+import com.iisaka.cypher2sql.query.cypher.BudgetExceededException;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
 import com.iisaka.cypher2sql.query.cypher.Query;
 import com.iisaka.cypher2sql.query.sql.BasicDialect;
+import com.iisaka.cypher2sql.query.sql.Dialect;
+import com.iisaka.cypher2sql.query.sql.ParameterizedSql;
 import com.iisaka.cypher2sql.schema.Mapping;
 import com.iisaka.cypher2sql.schema.SchemaDefinition;
 import com.iisaka.cypher2sql.schema.SchemaDefinitionYaml;
+import com.iisaka.cypher2sql.schema.TranslationResult;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CypherSqlIntegrationTest {
     @Test
@@ -70,6 +81,174 @@ class CypherSqlIntegrationTest {
         );
     }
 
+    @Test
+    void flipsKeyRolesForRightToLeftEdges() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Mapping mapping = new Mapping(schema);
+
+        assertEquals(
+                "SELECT t0.title, t1.name FROM \"movies\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.movie_id "
+                        + "INNER JOIN \"people\" t1 ON j2.person_id = t1.id",
+                mapping.toSql(Query.parse("MATCH (m:Movie)<-[:ACTED_IN]-(p:Person) RETURN m.title, p.name"))
+                        .render(new BasicDialect()));
+        // Both ends are people: only the arrow says which one holds manager_id.
+        assertEquals(
+                "SELECT t0.* FROM \"people\" t0 INNER JOIN \"people\" t1 ON t1.manager_id = t0.id",
+                mapping.toSql(Query.parse("MATCH (p:Person)<-[:MANAGES]-(m:Person) RETURN p"))
+                        .render(new BasicDialect()));
+    }
+
+    @Test
+    void throwsForEdgesAgainstTheMappingsDirection() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Mapping mapping = new Mapping(schema);
+
+        // Movies never act in people, so reading ACTED_IN the other way round would invent rows.
+        final IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> mapping.toSql(Query.parse("MATCH (p:Person)<-[:ACTED_IN]-(m:Movie) RETURN p.name, m.title")));
+        assertEquals("Edge direction does not match mapping: ACTED_IN runs from Person to Movie", ex.getMessage());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> mapping.toSql(Query.parse("MATCH (m:Movie)-[:ACTED_IN]->(p:Person) RETURN p.name")));
+    }
+
+    @Test
+    void plansUndirectedEdgeAsUnionOfBothDirections() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[:MANAGES]-(m:Person) RETURN p.name, m.name");
+        final Mapping mapping = new Mapping(schema);
+
+        // Each branch is joined through one key column; the second skips self-loops the first already lists.
+        assertEquals(
+                "WITH \"j2_edges\" AS (SELECT e.id AS start_key, e.manager_id AS end_key FROM \"people\" e "
+                        + "UNION ALL SELECT e.manager_id, e.id FROM \"people\" e WHERE e.manager_id <> e.id) "
+                        + "SELECT t0.name, t1.name FROM \"people\" t0 "
+                        + "INNER JOIN \"j2_edges\" j2 ON t0.id = j2.start_key "
+                        + "INNER JOIN \"people\" t1 ON t1.id = j2.end_key",
+                mapping.toSql(query).render(new BasicDialect())
+        );
+    }
+
+    @Test
+    void keepsRelationshipColumnsOfUndirectedJoinTableEdges() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                edges:
+                  - type: FRIENDS_WITH
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Person
+                    joinTable: friendships
+                    fromJoinKey: person_id
+                    toJoinKey: friend_id
+                """);
+        final Query query = Query.parse(
+                "MATCH (a:Person {name: $name})-[r:FRIENDS_WITH]-(b:Person) WHERE r.since < 2000 RETURN b.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.toSql(query).renderParameterized(new BasicDialect());
+
+        assertEquals(
+                "WITH \"j2_edges\" AS (SELECT e.*, e.person_id AS start_key, e.friend_id AS end_key "
+                        + "FROM \"friendships\" e UNION ALL SELECT e.*, e.friend_id, e.person_id "
+                        + "FROM \"friendships\" e WHERE e.friend_id <> e.person_id) "
+                        + "SELECT t1.name FROM \"people\" t0 INNER JOIN \"j2_edges\" j2 ON t0.id = j2.start_key "
+                        + "AND j2.since < ? INNER JOIN \"people\" t1 ON t1.id = j2.end_key WHERE t0.name = ?",
+                sql.sql());
+        assertEquals(List.of("__lit0", "name"), sql.parameterNames());
+    }
+
+    private static SchemaDefinition creditsSchema() {
+        return SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                  - label: Actor
+                    table: actors
+                    primaryKey: person_id
+                  - label: Movie
+                    table: movies
+                    primaryKey: id
+                edges:
+                  - type: ACTED_IN
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Movie
+                    joinTable: people_movies
+                    fromJoinKey: person_id
+                    toJoinKey: movie_id
+                  - type: AUTHORED
+                    kind: ONE_TO_MANY
+                    parentLabel: Person
+                    childLabel: Movie
+                    parentPrimaryKey: id
+                    childForeignKey: author_id
+                  - type: DIRECTED
+                    kind: ONE_TO_MANY
+                    parentLabel: Person
+                    childLabel: Movie
+                    parentPrimaryKey: id
+                    childForeignKey: director_id
+                """);
+    }
+
+    @Test
+    void expandsTypeAlternativesIntoUnionOfEdgeTables() {
+        final Mapping mapping = new Mapping(creditsSchema());
+
+        assertEquals(
+                "WITH \"j2_edges\" AS (SELECT e.person_id AS start_key, e.movie_id AS end_key "
+                        + "FROM \"people_movies\" e UNION ALL SELECT e.author_id, e.id FROM \"movies\" e) "
+                        + "SELECT t0.name, t1.title FROM \"people\" t0 "
+                        + "INNER JOIN \"j2_edges\" j2 ON t0.id = j2.start_key "
+                        + "INNER JOIN \"movies\" t1 ON t1.id = j2.end_key",
+                mapping.toSql(Query.parse("MATCH (p:Person)-[:ACTED_IN|AUTHORED]->(m:Movie) RETURN p.name, m.title"))
+                        .render(new BasicDialect()));
+    }
+
+    @Test
+    void collapsesKeyAlternativesOfOneTableOnlyWhenRowsAreDistinct() {
+        final Mapping mapping = new Mapping(creditsSchema());
+
+        // Someone who wrote and directed a movie matches it twice, so only DISTINCT may probe both keys at once.
+        assertEquals(
+                "WITH \"j2_edges\" AS (SELECT e.author_id AS start_key, e.id AS end_key FROM \"movies\" e "
+                        + "UNION ALL SELECT e.director_id, e.id FROM \"movies\" e) "
+                        + "SELECT t0.name, t1.title FROM \"people\" t0 "
+                        + "INNER JOIN \"j2_edges\" j2 ON t0.id = j2.start_key "
+                        + "INNER JOIN \"movies\" t1 ON t1.id = j2.end_key",
+                mapping.toSql(Query.parse("MATCH (p:Person)-[:AUTHORED|DIRECTED]->(m:Movie) RETURN p.name, m.title"))
+                        .render(new BasicDialect()));
+        assertEquals(
+                "SELECT DISTINCT t0.name, t1.title FROM \"people\" t0 "
+                        + "INNER JOIN \"movies\" t1 ON t0.id IN (t1.author_id, t1.director_id)",
+                mapping.toSql(Query.parse(
+                                "MATCH (p:Person)-[:AUTHORED|DIRECTED]->(m:Movie) RETURN DISTINCT p.name, m.title"))
+                        .render(new BasicDialect()));
+    }
+
+    @Test
+    void joinsTablesOfFurtherLabelsOnPrimaryKey() {
+        final Mapping mapping = new Mapping(creditsSchema());
+
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id "
+                        + "INNER JOIN \"actors\" j3 ON j3.person_id = t0.id",
+                mapping.toSql(Query.parse("MATCH (p:Person:Actor)-[:ACTED_IN]->(m:Movie) RETURN p.name"))
+                        .render(new BasicDialect()));
+        final UnsupportedOperationException ex = assertThrows(
+                UnsupportedOperationException.class,
+                () -> mapping.toSql(Query.parse("MATCH (p:Person|Actor)-[:ACTED_IN]->(m:Movie) RETURN p.name")));
+        assertEquals("Label alternatives mapped to different tables are not supported yet: Person|Actor",
+                ex.getMessage());
+    }
+
     @Test
     void throwsWhenPatternIsMissing() {
         final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
@@ -81,7 +260,82 @@ class CypherSqlIntegrationTest {
     }
 
     @Test
-    void throwsForVariableLengthTraversalPlaceholder() {
+    void rendersVariableLengthTraversalAsRecursiveCte() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (a:Person)-[:MANAGES*1..3]->(b:Person) RETURN a.id, b.id");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        assertEquals(
+                "WITH RECURSIVE \"j2_paths\" (start_key, end_key, depth, path) AS ("
+                        + "SELECT e.id, e.manager_id, 1, CAST(',' || " + pathKey("e.id") + " || ',' || "
+                        + pathKey("e.manager_id") + " || ',' AS VARCHAR) FROM \"people\" e "
+                        + "WHERE e.manager_id IS NOT NULL "
+                        + "UNION ALL SELECT r.start_key, e.manager_id, r.depth + 1, "
+                        + "CAST(r.path || " + pathKey("e.manager_id") + " || ',' AS VARCHAR) "
+                        + "FROM \"j2_paths\" r INNER JOIN \"people\" e ON e.id = r.end_key "
+                        + "WHERE e.manager_id IS NOT NULL AND r.depth < 3 "
+                        + "AND r.path NOT LIKE '%,' || REPLACE(REPLACE(REPLACE(" + pathKey("e.manager_id")
+                        + ", '!', '!!'), '%', '!%'), '_', '!_') || ',%' ESCAPE '!') "
+                        + "SELECT t0.id, t1.id FROM \"people\" t0 INNER JOIN \"j2_paths\" j2 ON t0.id = j2.start_key "
+                        + "INNER JOIN \"people\" t1 ON t1.id = j2.end_key",
+                sql
+        );
+    }
+
+    @Test
+    void filtersShortPathsWhenMinimumDepthExceedsOne() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (a:Person)-[:MANAGES*2..]->(b:Person) RETURN a.id");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        // Unbounded: no depth cap in the recursive step, cycle detection alone stops it.
+        assertFalse(sql.contains("r.depth <"));
+        assertTrue(sql.endsWith("INNER JOIN \"j2_paths\" j2 ON t0.id = j2.start_key AND j2.depth >= 2 "
+                + "INNER JOIN \"people\" t1 ON t1.id = j2.end_key"));
+    }
+
+    @Test
+    void seedsTraversalFromInlinePropertiesOfEitherEnd() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql start = mapping.toSql(Query.parse(
+                "MATCH (a:Person {id: $x})-[:MANAGES*1..5]->(b:Person) RETURN b.name"))
+                .renderParameterized(new BasicDialect());
+        final ParameterizedSql end = mapping.toSql(Query.parse(
+                "MATCH (a:Person)-[:MANAGES*1..5]->(b:Person {id: $x}) RETURN a.name"))
+                .renderParameterized(new BasicDialect());
+
+        // The anchor only starts paths at the seeded node; the outer filter still binds the node itself.
+        assertTrue(start.sql().contains("WHERE e.manager_id IS NOT NULL "
+                + "AND e.id IN (SELECT n.id FROM \"people\" n WHERE n.id = ?) UNION ALL "));
+        assertTrue(start.sql().endsWith("INNER JOIN \"j2_paths\" j2 ON t0.id = j2.start_key "
+                + "INNER JOIN \"people\" t1 ON t1.id = j2.end_key WHERE t0.id = ?"));
+        assertEquals(List.of("x", "x"), start.parameterNames());
+        // Seeded only at the far end, the walk runs against the relationship from there.
+        assertTrue(end.sql().contains("SELECT e.manager_id, e.id, 1, "));
+        assertTrue(end.sql().contains("WHERE e.id IS NOT NULL "
+                + "AND e.manager_id IN (SELECT n.id FROM \"people\" n WHERE n.id = ?) UNION ALL "));
+        assertTrue(end.sql().contains("INNER JOIN \"people\" e ON e.manager_id = r.end_key "));
+    }
+
+    @Test
+    void throwsForParameterExpressionsInPropertyMaps() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+
+        final UnsupportedOperationException ex = assertThrows(UnsupportedOperationException.class,
+                () -> mapping.toSql(Query.parse("MATCH (p:Person {age: $a + 1}) RETURN p.name")));
+        assertEquals(
+                "Unsupported property value in pattern: age: ($a + 1). Only literals and parameters are supported.",
+                ex.getMessage());
+    }
+
+    @Test
+    void throwsForUntypedVariableLengthTraversal() {
         final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
         final Query query = Query.parse("MATCH (c:Person)-[*0..3]->(t:Movie) RETURN c, t");
         final Mapping mapping = new Mapping(schema);
@@ -89,22 +343,464 @@ class CypherSqlIntegrationTest {
         final UnsupportedOperationException ex =
                 assertThrows(UnsupportedOperationException.class, () -> mapping.toSql(query));
         assertEquals(
-                "Variable-length traversals are not supported yet; recursive SQL translation is a future enhancement.",
+                "Variable-length traversals need a relationship type: MATCH (c:Person)-[*0..3]->(t:Movie) RETURN c, t",
                 ex.getMessage());
     }
 
     @Test
-    void throwsForMultiHopTraversalPlaceholder() {
+    void searchesShortestPathFromBothSeededEnds() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                edges:
+                  - type: FRIENDS_WITH
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Person
+                    joinTable: friendships
+                    fromJoinKey: person_id
+                    toJoinKey: friend_id
+                """);
+        final Query query = Query.parse("MATCH p = shortestPath((a:Person {name: $a})-[:FRIENDS_WITH*..6]-"
+                + "(b:Person {name: $b})) RETURN a.name, b.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.toSql(query).renderParameterized(new BasicDialect());
+
+        // Three levels from each end, folded to one row per reached node, meet where the halves differ by <= 1.
+        assertEquals(
+                "WITH RECURSIVE \"j2_edges\" AS (SELECT e.person_id AS start_key, e.friend_id AS end_key "
+                        + "FROM \"friendships\" e UNION ALL SELECT e.friend_id, e.person_id "
+                        + "FROM \"friendships\" e WHERE e.friend_id <> e.person_id), "
+                        + "\"j2_forward\" (start_key, end_key, depth) AS (SELECT n.id, n.id, 0 FROM \"people\" n "
+                        + "WHERE n.name = ? UNION SELECT r.start_key, e.end_key, r.depth + 1 FROM \"j2_forward\" r "
+                        + "INNER JOIN \"j2_edges\" e ON e.start_key = r.end_key "
+                        + "WHERE e.end_key IS NOT NULL AND r.depth < 3), "
+                        + "\"j2_backward\" (start_key, end_key, depth) AS (SELECT n.id, n.id, 0 FROM \"people\" n "
+                        + "WHERE n.name = ? UNION SELECT r.start_key, e.start_key, r.depth + 1 "
+                        + "FROM \"j2_backward\" r INNER JOIN \"j2_edges\" e ON e.end_key = r.end_key "
+                        + "WHERE e.start_key IS NOT NULL AND r.depth < 3), "
+                        + "\"j2_shortest\" AS (SELECT f.start_key AS start_key, b.start_key AS end_key, "
+                        + "MIN(f.depth + b.depth) AS depth FROM \"j2_forward\" f INNER JOIN \"j2_backward\" b "
+                        + "ON b.end_key = f.end_key AND f.depth - b.depth IN (0, 1) "
+                        + "WHERE f.start_key <> b.start_key GROUP BY f.start_key, b.start_key) "
+                        + "SELECT t0.name, t1.name FROM \"people\" t0 "
+                        + "INNER JOIN \"j2_shortest\" j2 ON t0.id = j2.start_key "
+                        + "INNER JOIN \"people\" t1 ON t1.id = j2.end_key AND t1.name = ? WHERE t0.name = ?",
+                sql.sql());
+        assertEquals(List.of("a", "b", "b", "a"), sql.parameterNames());
+    }
+
+    @Test
+    void seedsShortestPathFromWhereEqualitiesWithoutSplittingUnboundedSearch() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH p = shortestPath((a:Person)-[:MANAGES*]->(b:Person)) "
+                + "WHERE a.name = $a AND b.name = $b RETURN b.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.toSql(query).renderParameterized(new BasicDialect());
+
+        // Both ends are seeded, but unbounded halves would each walk the whole graph: one search from a.
+        assertTrue(sql.sql().contains("WHERE e.manager_id IS NOT NULL AND e.id IN "
+                + "(SELECT n.id FROM \"people\" n WHERE n.name = ?) UNION ALL "));
+        assertFalse(sql.sql().contains("j2_backward"));
+        assertTrue(sql.sql().endsWith("INNER JOIN \"people\" t1 ON t1.id = j2.end_key AND t1.name = ? "
+                + "WHERE t0.name = ?"));
+        assertEquals(List.of("a", "b", "a"), sql.parameterNames());
+    }
+
+    @Test
+    void ranksAllShortestPathsFromSeededStart() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse(
+                "MATCH p = allShortestPaths((a:Person {name: $a})-[:MANAGES*..3]->(b:Person)) RETURN b.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        // The seed filters the anchor inside the recursion; every path is kept so that ties survive the rank.
+        assertTrue(sql.contains("WHERE e.manager_id IS NOT NULL AND e.id IN "
+                + "(SELECT n.id FROM \"people\" n WHERE n.name = ?) UNION ALL "));
+        assertTrue(sql.contains("\"j2_shortest\" AS (SELECT s.start_key, s.end_key, s.depth FROM ("
+                + "SELECT f.start_key AS start_key, f.end_key AS end_key, f.depth AS depth, "
+                + "RANK() OVER (PARTITION BY f.start_key, f.end_key ORDER BY f.depth) AS path_rank "
+                + "FROM \"j2_paths\" f WHERE f.start_key <> f.end_key) s WHERE s.path_rank = 1)"));
+        assertTrue(sql.endsWith("SELECT t1.name FROM \"people\" t0 INNER JOIN \"j2_shortest\" j2 "
+                + "ON t0.id = j2.start_key INNER JOIN \"people\" t1 ON t1.id = j2.end_key WHERE t0.name = ?"));
+    }
+
+    @Test
+    void throwsForShortestPathWithMinimumAboveOne() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH p = shortestPath((a:Person)-[:MANAGES*2..4]->(b:Person)) RETURN b");
+        final Mapping mapping = new Mapping(schema);
+
+        final UnsupportedOperationException ex =
+                assertThrows(UnsupportedOperationException.class, () -> mapping.toSql(query));
+        assertTrue(ex.getMessage().startsWith("Shortest path patterns need a minimum length of 0 or 1: "));
+    }
+
+    @Test
+    void rendersMultiHopJoinsLeftToRightWithoutStatistics() {
         final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
         final Query query =
-                Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie)<-[:ACTED_IN]-(o:Person) RETURN p, m, o");
+                Query.parse("MATCH (a:Person)-[:MANAGES]->(b:Person)-[:ACTED_IN]->(m:Movie) RETURN a.id, m.id");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        assertEquals(
+                "SELECT t0.id, t2.id FROM \"people\" t0 INNER JOIN \"people\" t1 ON t0.manager_id = t1.id "
+                        + "INNER JOIN \"people_movies\" j3 ON t1.id = j3.person_id "
+                        + "INNER JOIN \"movies\" t2 ON j3.movie_id = t2.id",
+                sql
+        );
+    }
+
+    @Test
+    void startsJoinOrderFromMostSelectiveAnchor() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                    rows: 200000000
+                  - label: Movie
+                    table: movies
+                    primaryKey: id
+                    rows: 1000000
+                  - label: Studio
+                    table: studios
+                    primaryKey: id
+                    rows: 500
+                edges:
+                  - type: ACTED_IN
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Movie
+                    joinTable: people_movies
+                    fromJoinKey: person_id
+                    toJoinKey: movie_id
+                    rows: 50000000
+                  - type: PRODUCED
+                    kind: ONE_TO_MANY
+                    parentLabel: Studio
+                    childLabel: Movie
+                    parentPrimaryKey: id
+                    childForeignKey: studio_id
+                """);
+        final Query query = Query.parse(
+                "MATCH (p:Person)-[:ACTED_IN]->(m:Movie)<-[:PRODUCED]-(s:Studio {name: 'A24'}) RETURN p.id");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        assertEquals(
+                "SELECT t0.id FROM \"studios\" t2 INNER JOIN \"movies\" t1 ON t1.studio_id = t2.id "
+                        + "INNER JOIN \"people_movies\" j3 ON j3.movie_id = t1.id "
+                        + "INNER JOIN \"people\" t0 ON t0.id = j3.person_id WHERE t2.name = ?",
+                sql
+        );
+    }
+
+    @Test
+    void rendersInlinePropertiesAsParameterizedEqualities() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse(
+                "MATCH (p:Person {email: $e})-[r:ACTED_IN {role: 'Neo'}]->(m:Movie {year: 1999}) RETURN m.title");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        // Relationship properties of a JOIN_TABLE edge filter the join-table alias.
+        assertEquals(
+                "SELECT t1.title FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "AND j2.role = ? INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id AND t1.year = ? "
+                        + "WHERE t0.email = ?",
+                sql.sql()
+        );
+        assertEquals(List.of("__lit0", "__lit1", "e"), sql.parameterNames());
+    }
+
+    @Test
+    void translatesWhereConditionsAndPushesThemIntoJoins() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[r:ACTED_IN]->(m:Movie) "
+                + "WHERE m.year >= 2000 AND r.role IN ['Neo', 'Trinity'] "
+                + "AND (p.name STARTS WITH $prefix OR p.name IS NULL) RETURN p.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        // Single-table conditions join the ON of the join binding their table; the root table's stay in WHERE.
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "AND j2.role IN (?, ?) INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id AND t1.year >= ? "
+                        + "WHERE (t0.name LIKE REPLACE(REPLACE(REPLACE(?, '!', '!!'), '%', '!%'), '_', '!_') "
+                        + "|| '%' ESCAPE '!' OR t0.name IS NULL)",
+                sql.sql()
+        );
+        assertEquals(List.of("__lit1", "__lit2", "__lit0", "prefix"), sql.parameterNames());
+    }
+
+    @Test
+    void concatenatesLikePatternsInTheDialectsSyntax() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person) WHERE p.name CONTAINS $part RETURN p.name");
+        final Dialect concatFunction = new Dialect() {
+            @Override
+            public String name() {
+                return "concat";
+            }
+
+            @Override
+            public String quoteIdentifier(final String identifier) {
+                return "\"" + identifier + "\"";
+            }
+
+            @Override
+            public String concat(final List<String> expressions) {
+                return "CONCAT(" + String.join(", ", expressions) + ")";
+            }
+        };
+
+        // The plan is built without a dialect; the pattern is only spelled out when it renders.
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 WHERE t0.name LIKE "
+                        + "CONCAT('%', REPLACE(REPLACE(REPLACE(?, '!', '!!'), '%', '!%'), '_', '!_'), '%') ESCAPE '!'",
+                new Mapping(schema).toSql(query).render(concatFunction));
+    }
+
+    @Test
+    void translatesOrderBySkipAndLimit() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[r:ACTED_IN]->(m:Movie) "
+                + "RETURN p.name, m.title ORDER BY m.year DESC, p.name SKIP 20 LIMIT 10");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        assertEquals(
+                "SELECT t0.name, t1.title FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id ORDER BY t1.year DESC, t0.name "
+                        + "LIMIT ? OFFSET ?",
+                sql.sql()
+        );
+        assertEquals(List.of("__lit1", "__lit0"), sql.parameterNames());
+    }
+
+    @Test
+    void rewritesSkipAsKeysetSeekWhenEnabled() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                    notNullKeys: [name]
+                """);
+        final Query query = Query.parse("MATCH (p:Person) RETURN p.name ORDER BY p.name SKIP 20 LIMIT 10");
+        final Mapping mapping = new Mapping(schema).withKeysetPagination();
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        // The primary key breaks ties; the caller binds the last row's sort keys instead of the offset.
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 WHERE (t0.name, t0.id) > (?, ?) ORDER BY t0.name, t0.id LIMIT ?",
+                sql.sql()
+        );
+        assertEquals(List.of("__after_p_name", "__after_p_id", "__lit1"), sql.parameterNames());
+    }
+
+    @Test
+    void keepsOffsetWhenSortKeyMayBeNull() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person) RETURN p.name ORDER BY p.name SKIP 20 LIMIT 10");
+        final Mapping mapping = new Mapping(schema).withKeysetPagination();
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        // A seek past the last name would skip every person without one.
+        assertEquals("SELECT t0.name FROM \"people\" t0 ORDER BY t0.name LIMIT ? OFFSET ?", sql.sql());
+        assertEquals(List.of("__lit1", "__lit0"), sql.parameterNames());
+    }
+
+    @Test
+    void translatesOptionalMatchAsGroupedLeftJoin() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person) OPTIONAL MATCH (p)-[r:ACTED_IN]->(m:Movie) "
+                + "WHERE m.year > 2000 RETURN p.name, m.title");
+        final Mapping mapping = new Mapping(schema);
+
+        final ParameterizedSql sql = mapping.translate(query, new BasicDialect()).sql();
+
+        // People without a matching movie keep their row with a null title.
+        assertEquals(
+                "SELECT t0.name, t1.title FROM \"people\" t0 LEFT JOIN (\"people_movies\" j2 "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id AND t1.year > ?) ON t0.id = j2.person_id",
+                sql.sql()
+        );
+        assertEquals(List.of("__lit0"), sql.parameterNames());
+    }
+
+    @Test
+    void throwsForWherePropertyOfRelationshipWithoutJoinTable() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[r:MANAGES]->(m:Person) WHERE r.since > 2020 RETURN m");
+        final Mapping mapping = new Mapping(schema);
+
+        assertThrows(UnsupportedOperationException.class, () -> mapping.toSql(query));
+    }
+
+    @Test
+    void throwsForRelationshipPropertiesWithoutJoinTable() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[:MANAGES {since: 2020}]->(m:Person) RETURN m");
         final Mapping mapping = new Mapping(schema);
 
         final UnsupportedOperationException ex =
                 assertThrows(UnsupportedOperationException.class, () -> mapping.toSql(query));
+
+        assertTrue(ex.getMessage().contains("MANAGES"));
+    }
+
+    @Test
+    void eliminatesTargetJoinWhenOnlyJoinTableKeyIsRead() {
+        final Mapping mapping = new Mapping(referentialIntegritySchema());
+
+        // Only m's key is read, so the join table supplies it and movies is never joined.
         assertEquals(
-                "Multi-hop traversals are not supported yet; traversal planning is a future enhancement.",
-                ex.getMessage());
+                "SELECT t0.name, j2.movie_id FROM \"people\" t0 "
+                        + "INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id WHERE j2.movie_id IS NOT NULL",
+                mapping.toSql(Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.name, m.id"))
+                        .render(new BasicDialect()));
+        // Any other property still needs the movies row.
+        assertEquals(
+                "SELECT t1.title FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id",
+                mapping.toSql(Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN m.title"))
+                        .render(new BasicDialect()));
+    }
+
+    @Test
+    void eliminatesParentJoinWhenOnlyForeignKeyIsRead() {
+        final Mapping mapping = new Mapping(referentialIntegritySchema());
+
+        final String sql = mapping.toSql(Query.parse("MATCH (m:Movie)-[:AUTHORED]->(p:Person) RETURN m.title, p.id"))
+                .render(new BasicDialect());
+
+        assertEquals(
+                "SELECT t0.title, t0.author_id FROM \"movies\" t0 WHERE t0.author_id IS NOT NULL",
+                sql
+        );
+    }
+
+    @Test
+    void groupsByNonAggregateReturnItems() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) "
+                + "RETURN p.name, count(DISTINCT m), max(m.year), collect(m.title)");
+        final Mapping mapping = new Mapping(schema);
+
+        assertEquals(
+                "SELECT t0.name, COUNT(DISTINCT t1.id), MAX(t1.year), "
+                        + "ARRAY_AGG(t1.title) FILTER (WHERE t1.title IS NOT NULL) FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id GROUP BY t0.name",
+                mapping.toSql(query).render(new BasicDialect())
+        );
+    }
+
+    @Test
+    void countsReferencingKeysWithoutJoiningCountedNodes() {
+        final Mapping mapping = new Mapping(referentialIntegritySchema());
+
+        // Whole nodes group by their primary key; count(m) reads the join table's key.
+        assertEquals(
+                "SELECT t0.*, COUNT(j2.movie_id) FROM \"people\" t0 "
+                        + "INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id WHERE j2.movie_id IS NOT NULL "
+                        + "GROUP BY t0.id",
+                mapping.toSql(Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p, count(m)"))
+                        .render(new BasicDialect()));
+        assertEquals(
+                "SELECT t0.title, COUNT(t0.author_id) FROM \"movies\" t0 WHERE t0.author_id IS NOT NULL "
+                        + "GROUP BY t0.title",
+                mapping.toSql(Query.parse("MATCH (m:Movie)-[:AUTHORED]->(p:Person) RETURN m.title, count(p)"))
+                        .render(new BasicDialect()));
+    }
+
+    private static SchemaDefinition referentialIntegritySchema() {
+        return SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                  - label: Movie
+                    table: movies
+                    primaryKey: id
+                edges:
+                  - type: ACTED_IN
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Movie
+                    joinTable: people_movies
+                    fromJoinKey: person_id
+                    toJoinKey: movie_id
+                    referentialIntegrity: true
+                  - type: AUTHORED
+                    kind: ONE_TO_MANY
+                    parentLabel: Person
+                    childLabel: Movie
+                    parentPrimaryKey: id
+                    childForeignKey: author_id
+                    referentialIntegrity: true
+                """);
+    }
+
+    @Test
+    void rendersExistenceOnlyChainEndsAsSemiJoinsUnderDistinct() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN DISTINCT p.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        // m is never read, so one matching movie is enough and actors are not fanned out per movie.
+        assertEquals(
+                "SELECT DISTINCT t0.name FROM \"people\" t0 WHERE EXISTS (SELECT 1 FROM \"people_movies\" j2 "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id WHERE t0.id = j2.person_id)",
+                sql
+        );
+    }
+
+    @Test
+    void rendersPatternPredicatesAsCorrelatedExists() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse(
+                "MATCH (p:Person) WHERE EXISTS { (p)-[:ACTED_IN]->(:Movie) } "
+                        + "AND NOT EXISTS { (p)-[:AUTHORED]->(:Movie) } RETURN p.name");
+        final Mapping mapping = new Mapping(schema);
+
+        final String sql = mapping.toSql(query).render(new BasicDialect());
+
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 "
+                        + "WHERE EXISTS (SELECT 1 FROM \"people_movies\" j2 INNER JOIN \"movies\" t1 "
+                        + "ON j2.movie_id = t1.id WHERE t0.id = j2.person_id) "
+                        + "AND NOT EXISTS (SELECT 1 FROM \"movies\" t3 WHERE t3.author_id = t0.id)",
+                sql
+        );
+    }
+
+    @Test
+    void throwsWhenPatternRevisitsVariable() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Query query = Query.parse("MATCH (a:Person)-[:MANAGES]->(b:Person)-[:MANAGES]->(a:Person) RETURN a");
+        final Mapping mapping = new Mapping(schema);
+
+        final UnsupportedOperationException ex =
+                assertThrows(UnsupportedOperationException.class, () -> mapping.toSql(query));
+        assertEquals("Patterns that revisit a node variable are not supported yet: a", ex.getMessage());
     }
 
     @Test
@@ -141,10 +837,70 @@ class CypherSqlIntegrationTest {
     void throwsForUnsupportedReturnExpression() {
         final IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN count(p)")
+                () -> Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN toUpper(p.name)")
         );
         assertEquals(
-                "Unsupported RETURN expression: count(p). Only variable or variable.property are supported.",
+                "Unsupported RETURN expression: toUpper(p.name). Only variable or variable.property are supported, "
+                        + "alone or in count, sum, avg, min, max or collect.",
                 ex.getMessage());
     }
+
+    @Test
+    void translatesBatchInInputOrderWithPerItemErrors() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final List<String> cyphers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            cyphers.add(i % 10 == 3
+                    ? "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN toUpper(p.name)"
+                    : "MATCH (p" + i + ":Person)-[:MANAGES]->(m:Person) RETURN p" + i + ".id");
+        }
+
+        final List<TranslationResult> results = mapping.translateAll(cyphers, new BasicDialect());
+
+        assertEquals(cyphers.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            final TranslationResult result = results.get(i);
+            assertEquals(i, result.index());
+            assertEquals(cyphers.get(i), result.cypher());
+            if (i % 10 == 3) {
+                assertInstanceOf(IllegalArgumentException.class, result.error());
+            } else {
+                assertEquals(
+                        "SELECT t0.id FROM \"people\" t0 INNER JOIN \"people\" t1 ON t0.manager_id = t1.id",
+                        result.translation().sql().sql());
+            }
+        }
+    }
+
+    @Test
+    void budgetedMappingReportsExceededBudgetPerItem() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"))
+                .withBudget(ParseBudget.unlimited().withMaxInputLength(64));
+        final String longQuery = "MATCH (person:Person)-[:ACTED_IN]->(movie:Movie) RETURN person.id, movie.id";
+
+        final List<TranslationResult> results = mapping.translateAll(
+                List.of("MATCH (p:Person) RETURN p.id", longQuery), new BasicDialect());
+
+        assertEquals("SELECT t0.id FROM \"people\" t0", results.get(0).translation().sql().sql());
+        assertInstanceOf(BudgetExceededException.InputTooLong.class, results.get(1).error());
+    }
+
+    @Test
+    void reportsStackOverflowPerItem() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final String nested = "MATCH (p:Person) WHERE " + "(".repeat(200_000) + "p.id = 1" + ")".repeat(200_000)
+                + " RETURN p.id";
+
+        final List<TranslationResult> results = mapping.translateAll(
+                List.of("MATCH (p:Person) RETURN p.id", nested), new BasicDialect());
+
+        assertEquals("SELECT t0.id FROM \"people\" t0", results.get(0).translation().sql().sql());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertInstanceOf(StackOverflowError.class, results.get(1).error().getCause());
+    }
+
+    // A key as a traversal path stores it, with `!` and `,` escaped.
+    private static String pathKey(final String key) {
+        return "REPLACE(REPLACE(CAST(" + key + " AS VARCHAR(4000)), '!', '!!'), ',', '!.')";
+    }
 }
@@ -0,0 +1,64 @@
+package com.iisaka.cypher2sql;
+
+import com.iisaka.cypher2sql.query.cypher.Query;
+import com.iisaka.cypher2sql.query.sql.BasicDialect;
+import com.iisaka.cypher2sql.schema.Mapping;
+import com.iisaka.cypher2sql.schema.PreparedTranslation;
+import com.iisaka.cypher2sql.schema.ResultColumn;
+import com.iisaka.cypher2sql.schema.SchemaDefinitionYaml;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PreparedTranslationTest {
+    @Test
+    void exposesRenderedSqlAndResultColumns() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final Query query = Query.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m");
+
+        final PreparedTranslation prepared = mapping.prepare(query, new BasicDialect());
+
+        assertEquals(mapping.toSql(query).render(new BasicDialect()), prepared.sql());
+        assertEquals(
+                List.of(
+                        new ResultColumn("p.id", "p", "id", "Person", "t0.id"),
+                        new ResultColumn("m", "m", null, "Movie", "t1.*")),
+                prepared.columns());
+        assertEquals(List.of(), prepared.parameterNames());
+        assertArrayEquals(new Object[0], prepared.bind());
+    }
+
+    @Test
+    void bindsUserParametersAndLiftedLiteralsInPlaceholderOrder() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final Query query = Query.parse(
+                "MATCH (p:Person {name: 'Keanu'})-[:ACTED_IN]->(m:Movie) WHERE m.year > $year RETURN m.title");
+
+        final PreparedTranslation prepared = mapping.prepare(query, new BasicDialect());
+
+        // The WHERE condition is pushed into the movies join, so its placeholder precedes the literal's.
+        assertEquals(
+                "SELECT t1.title FROM \"people\" t0 INNER JOIN \"people_movies\" j2 ON t0.id = j2.person_id "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id AND t1.year > ? WHERE t0.name = ?",
+                prepared.sql());
+        assertEquals(List.of("year"), prepared.parameterNames());
+        assertEquals(2, prepared.placeholderCount());
+        assertArrayEquals(new Object[] {1999, "Keanu"}, prepared.bind(1999));
+        assertArrayEquals(new Object[] {2003, "Keanu"}, prepared.bind(Map.of("year", 2003)));
+        assertThrows(IllegalArgumentException.class, () -> prepared.bind(Map.of("from", 2003)));
+    }
+
+    @Test
+    void rejectsWrongNumberOfParameterValues() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final PreparedTranslation prepared = mapping.prepare(
+                Query.parse("MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN p"), new BasicDialect());
+
+        assertThrows(IllegalArgumentException.class, () -> prepared.bind("unexpected"));
+    }
+}
@@ -6,8 +6,13 @@ import com.iisaka.cypher2sql.schema.SchemaDefinition;
 import com.iisaka.cypher2sql.schema.SchemaDefinitionYaml;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SchemaDefinitionYamlTest {
     @Test
@@ -24,4 +29,72 @@ class SchemaDefinitionYamlTest {
         assertNotNull(edge.fromJoinKey());
         assertNotNull(edge.toJoinKey());
     }
+
+    @Test
+    void loadsPlannerStatistics() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                nodes:
+                  - label: Person
+                    table: people
+                    primaryKey: id
+                    rows: 200000000
+                    uniqueKeys: [email]
+                    notNullKeys: [name]
+                edges:
+                  - type: KNOWS
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Person
+                    joinTable: friendships
+                    fromJoinKey: person_id
+                    toJoinKey: friend_id
+                    rows: 3000000000
+                """);
+
+        final NodeMapping person = schema.nodeForLabel("Person");
+        assertEquals(200_000_000L, person.estimatedRows());
+        assertTrue(person.isUniqueKey("email"));
+        assertTrue(person.isUniqueKey("id"));
+        assertTrue(person.isNotNull("name"));
+        assertFalse(person.isNotNull("email"));
+        assertEquals(3_000_000_000L, schema.edgeForType("KNOWS").estimatedRows());
+    }
+
+    @Test
+    void fingerprintChangesWithNodeStatisticsAndNullability() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final String base = schema.fingerprint();
+
+        schema.addNode(new NodeMapping("Person", "people", "id", 100L, List.of()));
+        final String rows = schema.fingerprint();
+        schema.addNode(new NodeMapping("Person", "people", "id", 100L, List.of("email")));
+        final String unique = schema.fingerprint();
+        schema.addNode(new NodeMapping("Person", "people", "id", 100L, List.of("email"), List.of("name")));
+        final String notNull = schema.fingerprint();
+
+        assertEquals(4, Set.of(base, rows, unique, notNull).size());
+    }
+
+    @Test
+    void loadsReferentialIntegrityFlag() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromString("""
+                edges:
+                  - type: ACTED_IN
+                    kind: JOIN_TABLE
+                    fromLabel: Person
+                    toLabel: Movie
+                    joinTable: people_movies
+                    fromJoinKey: person_id
+                    toJoinKey: movie_id
+                    referentialIntegrity: true
+                  - type: MANAGES
+                    kind: SELF_REFERENTIAL
+                    label: Person
+                    fromKey: manager_id
+                    toKey: id
+                """);
+
+        assertTrue(schema.edgeForType("ACTED_IN").hasReferentialIntegrity());
+        assertFalse(schema.edgeForType("MANAGES").hasReferentialIntegrity());
+    }
 }
@@ -0,0 +1,108 @@
+package com.iisaka.cypher2sql;
+
+import com.iisaka.cypher2sql.query.cypher.BudgetExceededException;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
+import com.iisaka.cypher2sql.query.cypher.Query;
+import com.iisaka.cypher2sql.query.cypher.SimpleQueryRecognizer;
+import com.iisaka.cypher2sql.query.cypher.Syntax;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimpleQueryRecognizerTest {
+    private static final List<String> FAST_PATH_CORPUS = List.of(
+            "MATCH (p:Person) RETURN p",
+            "MATCH (p:Person) RETURN p.id",
+            "match (p:Person) return p.name AS name",
+            "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m.id",
+            "MATCH (p:Person)-[r:ACTED_IN]->(m:Movie)",
+            "MATCH (m:Movie)<-[r:ACTED_IN]-(p:Person) RETURN m, p",
+            "MATCH (p:Person)-[r:KNOWS]-(q:Person) RETURN p.id, q.id",
+            "MATCH (p:Person)-[]->(m) RETURN p",
+            "MATCH (a:Person)-[:KNOWS]->(b:Person)-[:KNOWS]->(c:Person) RETURN a, c",
+            "MATCH (p:Person {name: 'Keanu Reeves', born: 1964}) RETURN p.id",
+            "MATCH (p:Person {name: \"It\\'s \\\"quoted\\\"\\n\"}) RETURN p",
+            "MATCH (p:Person {score: -1.5, rank: 0}) RETURN p",
+            "MATCH (p:Person)-[r:ACTED_IN {role: 'Neo'}]->(m:Movie {title: 'The Matrix'}) RETURN m.title",
+            "MATCH (p:`Movie Person`)-[:`ACTED ``IN`` `]->(m:Movie) RETURN p",
+            "  MATCH\n\t(p:Person)\r\n  RETURN   p.id  ,p.name  ");
+
+    private static final List<String> FALLBACK_CORPUS = List.of(
+            "MATCH (p:Person) WHERE p.id = 1 RETURN p",
+            "MATCH (p:Person|Actor) RETURN p",
+            "MATCH (p:Person:Actor) RETURN p",
+            "MATCH (p:Person {name: $name}) RETURN p",
+            "MATCH (p:Person {id: 0x1F}) RETURN p",
+            "MATCH (p:Person)-[:KNOWS*1..3]->(q:Person) RETURN q",
+            "MATCH (p:Person)-->(q:Person) RETURN q",
+            "MATCH path = (p:Person)-[:KNOWS]->(q:Person) RETURN p",
+            "MATCH (p:Person), (m:Movie) RETURN p, m",
+            "MATCH (p:Person) RETURN DISTINCT p",
+            "MATCH (p:Person) RETURN count(p)",
+            "MATCH (p:Person) // comment\nRETURN p",
+            "OPTIONAL MATCH (p:Person) RETURN p");
+
+    @Test
+    void fastPathProducesSameModelAsAntlr() {
+        for (final String cypher : FAST_PATH_CORPUS) {
+            assertTrue(SimpleQueryRecognizer.recognizes(cypher), cypher);
+            final Query fast = Query.parseCompact(cypher);
+            final Syntax.ParsedCypher antlr = Syntax.cypher25().parse(cypher);
+
+            assertEquals(antlr.patterns(), fast.patterns(), cypher);
+            assertEquals(antlr.returnItems(), fast.returnItems(), cypher);
+            assertEquals(antlr.shape(), fast.shape(), cypher);
+        }
+    }
+
+    @Test
+    void unrecognizedQueriesFallBackToAntlr() {
+        for (final String cypher : FALLBACK_CORPUS) {
+            assertFalse(SimpleQueryRecognizer.recognizes(cypher), cypher);
+        }
+        final Query query = Query.parse("MATCH (p:Person {name: $name})-[:ACTED_IN]->(m:Movie) RETURN m");
+
+        assertEquals(2, query.patterns().get(0).nodes().size());
+        assertTrue(query.hasParseTree());
+    }
+
+    @Test
+    void fastPathErrorsMatchAntlrErrors() {
+        assertFalse(SimpleQueryRecognizer.recognizes("MATCH (:Person) RETURN 1"));
+
+        final IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> Query.parse("MATCH (:Person) RETURN 1"));
+
+        assertTrue(ex.getMessage().startsWith("Node pattern missing variable"));
+    }
+
+    @Test
+    void fastPathQueriesStayWithinParseBudget() {
+        final String cypher = "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m.id";
+        final Syntax tokens = Syntax.cypher25().withBudget(ParseBudget.unlimited().withMaxTokens(8));
+        final Syntax deadline = Syntax.cypher25().withBudget(ParseBudget.unlimited().withTimeout(Duration.ofNanos(1)));
+
+        assertTrue(SimpleQueryRecognizer.recognizes(cypher));
+        assertThrows(BudgetExceededException.TooManyTokens.class,
+                () -> Query.parse(cypher, Query.ParseTreeRetention.DISCARD, tokens, tokens.budget().deadline()));
+        assertThrows(BudgetExceededException.DeadlineExceeded.class,
+                () -> Query.parse(cypher, Query.ParseTreeRetention.DISCARD, deadline, deadline.budget().deadline()));
+    }
+
+    @Test
+    void fastPathQueryBuildsParseTreeOnDemand() {
+        final Query retained = Query.parse("MATCH (p:Person) RETURN p");
+        final Query compact = Query.parseCompact("MATCH (p:Person) RETURN p");
+
+        assertTrue(retained.hasParseTree());
+        assertNotNull(retained.parseTree());
+        assertFalse(compact.hasParseTree());
+    }
+}
@@ -0,0 +1,118 @@
+package com.iisaka.cypher2sql;
+
+import com.iisaka.cypher2sql.query.sql.BasicDialect;
+import com.iisaka.cypher2sql.query.sql.Dialect;
+import com.iisaka.cypher2sql.query.sql.JoinClause;
+import com.iisaka.cypher2sql.query.sql.ParameterizedSql;
+import com.iisaka.cypher2sql.query.sql.SelectQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlSelectTest {
+    @Test
+    void rendersLimitAndOffset() {
+        final ParameterizedSql sql = page(true).renderParameterized(new BasicDialect());
+
+        assertEquals("SELECT t0.name FROM \"people\" t0 ORDER BY t0.name LIMIT ? OFFSET ?", sql.sql());
+        assertEquals(List.of("limit", "skip"), sql.parameterNames());
+    }
+
+    @Test
+    void rendersFetchFirst() {
+        final ParameterizedSql sql = page(true).renderParameterized(dialect(Dialect.RowLimitSyntax.FETCH_FIRST, true));
+
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 ORDER BY t0.name OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", sql.sql());
+        assertEquals(List.of("skip", "limit"), sql.parameterNames());
+    }
+
+    @Test
+    void rendersTopUnlessRowsAreSkipped() {
+        final Dialect top = dialect(Dialect.RowLimitSyntax.TOP, true);
+
+        assertEquals("SELECT TOP (?) t0.name FROM \"people\" t0 ORDER BY t0.name", page(false).render(top));
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 ORDER BY (SELECT NULL) OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+                SelectQuery.from("people", "t0").addSelectColumn("t0.name").offset("skip").limit("limit").render(top));
+    }
+
+    @Test
+    void rendersKeysetSeekWithOrWithoutRowValues() {
+        final SelectQuery select = SelectQuery.from("people", "t0")
+                .addSelectColumn("t0.name")
+                .seekAfter(List.of("t0.name", "t0.id"), List.of("name", "id"), false)
+                .addOrderBy("t0.name", false)
+                .addOrderBy("t0.id", false)
+                .limit("limit");
+
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 WHERE (t0.name, t0.id) > (?, ?) ORDER BY t0.name, t0.id LIMIT ?",
+                select.render(new BasicDialect()));
+        final ParameterizedSql expanded =
+                select.renderParameterized(dialect(Dialect.RowLimitSyntax.LIMIT_OFFSET, false));
+        assertEquals(
+                "SELECT t0.name FROM \"people\" t0 WHERE (t0.name > ? OR (t0.name = ? AND t0.id > ?)) "
+                        + "ORDER BY t0.name, t0.id LIMIT ?",
+                expanded.sql());
+        assertEquals(List.of("name", "name", "id", "limit"), expanded.parameterNames());
+    }
+
+    @Test
+    void outerJoinsSegmentAsOneGroup() {
+        final SelectQuery segment = SelectQuery.correlated()
+                .addJoin(new JoinClause(JoinClause.JoinType.INNER, "people_movies", "j2", "t0.id = j2.person_id"))
+                .addJoin(new JoinClause(JoinClause.JoinType.INNER, "movies", "t1", "j2.movie_id = t1.id"))
+                .addWhere("t1.year > ?", List.of("year"));
+        final SelectQuery select = SelectQuery.from("people", "t0")
+                .addSelectColumn("t0.name")
+                .addSelectColumn("t1.title")
+                .addLeftJoin(segment)
+                // Filters on the outer-joined group stay in WHERE.
+                .addFilter("t1.title = ?", List.of("title"), Set.of("t1"));
+
+        final ParameterizedSql sql = select.renderParameterized(new BasicDialect());
+
+        assertEquals(
+                "SELECT t0.name, t1.title FROM \"people\" t0 LEFT JOIN (\"people_movies\" j2 "
+                        + "INNER JOIN \"movies\" t1 ON j2.movie_id = t1.id) ON t0.id = j2.person_id AND t1.year > ? "
+                        + "WHERE t1.title = ?",
+                sql.sql());
+        assertEquals(List.of("year", "title"), sql.parameterNames());
+    }
+
+    private static SelectQuery page(final boolean skip) {
+        final SelectQuery select = SelectQuery.from("people", "t0")
+                .addSelectColumn("t0.name")
+                .addOrderBy("t0.name", false)
+                .limit("limit");
+        return skip ? select.offset("skip") : select;
+    }
+
+    private static Dialect dialect(final Dialect.RowLimitSyntax rowLimit, final boolean rowValues) {
+        return new Dialect() {
+            @Override
+            public String name() {
+                return rowLimit.name();
+            }
+
+            @Override
+            public String quoteIdentifier(final String identifier) {
+                return "\"" + identifier + "\"";
+            }
+
+            @Override
+            public RowLimitSyntax rowLimitSyntax() {
+                return rowLimit;
+            }
+
+            @Override
+            public boolean supportsRowValueComparison() {
+                return rowValues;
+            }
+        };
+    }
+}
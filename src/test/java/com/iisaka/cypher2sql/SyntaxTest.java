@@ -0,0 +1,154 @@
+package com.iisaka.cypher2sql;
+
+import com.iisaka.cypher2sql.query.cypher.BudgetExceededException;
+import com.iisaka.cypher2sql.query.cypher.DfaCachePolicy;
+import com.iisaka.cypher2sql.query.cypher.DfaCacheStats;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
+import com.iisaka.cypher2sql.query.cypher.Pattern;
+import com.iisaka.cypher2sql.query.cypher.Syntax;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntaxTest {
+    @Test
+    void sharesOneProcessWideInstance() {
+        assertSame(Syntax.cypher25(), Syntax.cypher25());
+    }
+
+    @Test
+    void reusedParserDoesNotLeakStateBetweenQueries() {
+        final Syntax syntax = Syntax.cypher25();
+
+        assertThrows(IllegalArgumentException.class, () -> syntax.parse("MATCH (p:Person RETURN p"));
+        final Syntax.ParsedCypher first = syntax.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p");
+        final Syntax.ParsedCypher second = syntax.parse("MATCH (a:Movie) RETURN a");
+
+        assertEquals(2, first.patterns().get(0).nodes().size());
+        assertEquals("Movie", second.patterns().get(0).nodes().get(0).label());
+        assertEquals(1, second.patterns().get(0).nodes().size());
+    }
+
+    @Test
+    void parsesConcurrentlyWithThreadConfinedParsers() throws Exception {
+        final Syntax syntax = Syntax.cypher25();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Pattern>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final String variable = "n" + i;
+                futures.add(executor.submit(() -> syntax
+                        .parse("MATCH (" + variable + ":Person) RETURN " + variable)
+                        .patterns()
+                        .get(0)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("n" + i, futures.get(i).get().nodes().get(0).variable());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void simpleQueriesStayOnSllFastPath() {
+        final Syntax syntax = Syntax.cypher25();
+        final long before = syntax.predictionStats().sllParses();
+
+        final Syntax.ParsedCypher parsed = syntax.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m.id");
+
+        assertEquals(Syntax.PredictionPath.SLL, parsed.predictionPath());
+        assertEquals(before + 1, syntax.predictionStats().sllParses());
+    }
+
+    @Test
+    void llModeSkipsSllStage() {
+        final Syntax syntax = Syntax.cypher25().withParseMode(Syntax.ParseMode.LL);
+
+        final Syntax.ParsedCypher parsed = syntax.parse("MATCH (p:Person) RETURN p");
+
+        assertEquals(Syntax.PredictionPath.LL, parsed.predictionPath());
+        assertEquals(1, syntax.predictionStats().llParses());
+        assertEquals(0, syntax.predictionStats().sllParses());
+    }
+
+    @Test
+    void invalidInputFallsBackToLlAndReportsSyntaxError() {
+        final Syntax syntax = Syntax.cypher25();
+
+        final IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> syntax.parse("MATCH (p:Person RETURN p"));
+
+        assertTrue(ex.getMessage().startsWith("Cypher syntax error at line 1"));
+    }
+
+    @Test
+    void warmUpPopulatesDfaCacheAndClearEmptiesIt() {
+        final Syntax syntax = Syntax.cypher25();
+        syntax.clearDfaCache();
+
+        final DfaCacheStats warm = syntax.warmUp(List.of(
+                "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p, m",
+                "MATCH (p:Person) RETURN p.id",
+                "not cypher at all"));
+
+        assertTrue(warm.parserStates() > 0);
+        assertTrue(warm.estimatedBytes() > 0);
+
+        syntax.clearDfaCache();
+        assertEquals(0, syntax.dfaCacheStats().parserStates());
+    }
+
+    @Test
+    void boundedPolicyClearsCacheOncePastThreshold() {
+        final Syntax syntax = Syntax.cypher25().withDfaCachePolicy(new DfaCachePolicy(1, 1));
+
+        syntax.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p");
+
+        assertEquals(1, syntax.dfaCacheStats().clears());
+    }
+
+    @Test
+    void rejectsInputLongerThanBudget() {
+        final Syntax syntax = Syntax.cypher25().withBudget(ParseBudget.unlimited().withMaxInputLength(10));
+
+        assertThrows(BudgetExceededException.InputTooLong.class, () -> syntax.parse("MATCH (p:Person) RETURN p"));
+    }
+
+    @Test
+    void rejectsTooManyTokensBeforeParsing() {
+        final Syntax syntax = Syntax.cypher25().withBudget(ParseBudget.unlimited().withMaxTokens(8));
+
+        assertThrows(BudgetExceededException.TooManyTokens.class,
+                () -> syntax.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p"));
+    }
+
+    @Test
+    void rejectsDeeplyNestedExpressions() {
+        final Syntax syntax = Syntax.cypher25().withBudget(ParseBudget.unlimited().withMaxDepth(200));
+        final String nested = "(".repeat(100) + "1" + ")".repeat(100);
+
+        assertThrows(BudgetExceededException.TooDeep.class,
+                () -> syntax.parse("MATCH (p:Person) RETURN " + nested));
+        assertEquals(1, syntax.parse("MATCH (p:Person) RETURN p").patterns().size());
+    }
+
+    @Test
+    void expiredDeadlineStopsParsing() {
+        final Syntax syntax = Syntax.cypher25()
+                .withBudget(ParseBudget.unlimited().withTimeout(Duration.ofNanos(1)));
+
+        assertThrows(BudgetExceededException.DeadlineExceeded.class,
+                () -> syntax.parse("MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, p.name, m.id, m.title"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.iisaka.cypher2sql;
+
+import com.iisaka.cypher2sql.query.cypher.CypherText;
+import com.iisaka.cypher2sql.query.cypher.ParseBudget;
+import com.iisaka.cypher2sql.query.sql.BasicDialect;
+import com.iisaka.cypher2sql.query.sql.Dialect;
+import com.iisaka.cypher2sql.schema.Mapping;
+import com.iisaka.cypher2sql.schema.NodeMapping;
+import com.iisaka.cypher2sql.schema.SchemaDefinition;
+import com.iisaka.cypher2sql.schema.SchemaDefinitionYaml;
+import com.iisaka.cypher2sql.schema.Translation;
+import com.iisaka.cypher2sql.schema.TranslationCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TranslationCacheTest {
+    private static final String QUERY = "MATCH (p:Person)-[:ACTED_IN]->(m:Movie) RETURN p.id, m.id";
+
+    @Test
+    void servesWhitespaceAndKeywordCaseVariantsFromCache() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final TranslationCache cache = new TranslationCache(100);
+
+        final Translation first = cache.translate(QUERY, mapping, new BasicDialect());
+        final Translation second = cache.translate(
+                "match ( p:Person )-[:ACTED_IN]->(m:Movie)\n  return p.id,  m.id", mapping, new BasicDialect());
+
+        assertEquals(first.sql(), second.sql());
+        assertEquals(new TranslationCache.Stats(1, 1, 0, 1), cache.stats());
+    }
+
+    @Test
+    void keepsKeywordNamedVariablesAndCommentLineBreaks() {
+        // Variables are case-sensitive even when they spell a keyword.
+        assertEquals("MATCH(end:Person)RETURN end AS all ORDER BY all",
+                CypherText.normalize("match (end:Person) return end as all order by all"));
+        assertNotEquals(CypherText.normalize("MATCH (end:Person) RETURN end"),
+                CypherText.normalize("MATCH (END:Person) RETURN END"));
+        // Everything after `//` on its line is comment, so the line break is part of the query.
+        assertNotEquals(CypherText.normalize("MATCH (p:Person) // all\nRETURN p"),
+                CypherText.normalize("MATCH (p:Person) // all RETURN p"));
+    }
+
+    @Test
+    void keysOnDialectAndSchemaFingerprint() {
+        final SchemaDefinition schema = SchemaDefinitionYaml.fromResource("schema.yaml");
+        final Mapping mapping = new Mapping(schema);
+        final TranslationCache cache = new TranslationCache(100);
+        final Dialect bracketDialect = new Dialect() {
+            @Override
+            public String name() {
+                return "brackets";
+            }
+
+            @Override
+            public String quoteIdentifier(final String identifier) {
+                return "[" + identifier + "]";
+            }
+        };
+
+        final Translation basic = cache.translate(QUERY, mapping, new BasicDialect());
+        final Translation brackets = cache.translate(QUERY, mapping, bracketDialect);
+        schema.addNode(new NodeMapping("Movie", "films", "id"));
+        final Translation remapped = cache.translate(QUERY, mapping, new BasicDialect());
+
+        assertNotEquals(basic, brackets);
+        assertNotEquals(basic, remapped);
+        assertEquals(0, cache.stats().hits());
+        assertEquals(3, cache.stats().misses());
+    }
+
+    @Test
+    void keysOnMappingOptions() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final TranslationCache cache = new TranslationCache(100);
+        final String page = "MATCH (p:Person) RETURN p.id ORDER BY p.id SKIP 20 LIMIT 10";
+
+        final Translation offset = cache.translate(page, mapping, new BasicDialect());
+        final Translation keyset = cache.translate(page, mapping.withKeysetPagination(), new BasicDialect());
+        cache.translate(page, mapping.withBudget(ParseBudget.unlimited().withMaxTokens(1000)), new BasicDialect());
+
+        // The seek binds the last row's key where the offset binds the SKIP count.
+        assertEquals(List.of("__lit1", "__lit0"), offset.sql().parameterNames());
+        assertEquals(List.of("__after_p_id", "__lit1"), keyset.sql().parameterNames());
+        assertEquals(0, cache.stats().hits());
+        assertEquals(3, cache.stats().size());
+    }
+
+    @Test
+    void servesLiteralVariantsFromOneEntry() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final TranslationCache cache = new TranslationCache(100);
+
+        final Translation keanu = cache.translate(
+                "MATCH (p:Person {name: 'Keanu'})-[:ACTED_IN]->(m:Movie) RETURN m.id", mapping, new BasicDialect());
+        final Translation carrie = cache.translate(
+                "MATCH (p:Person {name: 'Carrie'})-[:ACTED_IN]->(m:Movie) RETURN m.id", mapping, new BasicDialect());
+
+        assertEquals(keanu.sql(), carrie.sql());
+        assertEquals(Map.of("__lit0", "Carrie"), carrie.literals());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        final Mapping mapping = new Mapping(SchemaDefinitionYaml.fromResource("schema.yaml"));
+        final TranslationCache cache = new TranslationCache(1);
+
+        cache.translate(QUERY, mapping, new BasicDialect());
+        cache.translate("MATCH (p:Person)-[:MANAGES]->(m:Person) RETURN p", mapping, new BasicDialect());
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(1, cache.stats().size());
+    }
+}